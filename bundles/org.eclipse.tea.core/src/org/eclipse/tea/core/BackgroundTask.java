@@ -11,23 +11,47 @@
 package org.eclipse.tea.core;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.MultiStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.e4.core.contexts.ContextInjectionFactory;
 import org.eclipse.e4.core.contexts.IEclipseContext;
+import org.eclipse.e4.core.di.InjectionException;
 import org.eclipse.e4.core.di.annotations.Execute;
+import org.eclipse.e4.core.di.annotations.Optional;
+import org.eclipse.tea.core.internal.TaskingEngineActivator;
+import org.eclipse.tea.core.internal.TimeHelper;
 import org.eclipse.tea.core.internal.model.TaskingModel;
+import org.eclipse.tea.core.services.TaskProgressTracker;
+import org.eclipse.tea.core.services.TaskingLog;
 
+/**
+ * Wraps a task so that it is executed in the background using the executor of
+ * the {@link TaskingEngine} running the chain. Use {@link #barrier()} to wait
+ * for a single background task. The {@link TaskExecutionContext} automatically
+ * waits for all remaining background tasks at the end of the chain.
+ */
 public class BackgroundTask {
 
-	private static final ExecutorService backgroundTasks = Executors
-			.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+	/** interval in which waiting barriers check for cancellation */
+	private static final long CANCEL_POLL_MILLIS = 100;
 
 	private final Object task;
-	private Future<?> future;
+	private Future<IStatus> future;
+
+	private volatile long startTime;
+	private volatile long duration = -1;
 
 	public BackgroundTask(Object task) {
 		Object actualTask;
@@ -44,18 +68,54 @@ public class BackgroundTask {
 		this.task = actualTask;
 	}
 
+	/**
+	 * @return the task executed in the background
+	 */
+	public Object getTask() {
+		return task;
+	}
+
 	@Execute
-	public void run(IEclipseContext context) throws Exception {
-		future = backgroundTasks.submit(() -> {
-			ContextInjectionFactory.invoke(task, Execute.class, context);
-		});
+	public void run(IEclipseContext context, @Optional TaskingEngine engine, TaskingLog log) {
+		Callable<IStatus> work = () -> {
+			startTime = System.currentTimeMillis();
+			try {
+				Object result = ContextInjectionFactory.invoke(task, Execute.class, context);
+				if (result instanceof IStatus) {
+					return (IStatus) result;
+				}
+				return Status.OK_STATUS;
+			} finally {
+				duration = System.currentTimeMillis() - startTime;
+			}
+		};
+
+		if (engine == null) {
+			log.warn("no engine available to run " + this + ", running in foreground");
+			FutureTask<IStatus> ft = new FutureTask<>(work);
+			future = ft;
+			ft.run();
+		} else {
+			future = engine.getBackgroundExecutor().submit(work);
+		}
+	}
+
+	/**
+	 * Cancels the task if it is still running. Used by the
+	 * {@link TaskExecutionContext} to not leave tasks behind when the chain
+	 * ends before they have been awaited.
+	 */
+	void cancel() {
+		if (future != null) {
+			future.cancel(true);
+		}
 	}
 
 	public Object barrier() {
 		return new Object() {
 			@Execute
-			public Object doWait() throws Exception {
-				return future.get();
+			public IStatus doWait(TaskingLog log, TaskProgressTracker tracker) {
+				return awaitAll(log, tracker, Collections.singletonList(BackgroundTask.this));
 			}
 
 			@Override
@@ -77,10 +137,8 @@ public class BackgroundTask {
 		}
 		return new Object() {
 			@Execute
-			public void doWaitAll(IEclipseContext context) throws Exception {
-				for (BackgroundTask bt : toAwait) {
-					bt.future.get();
-				}
+			public IStatus doWaitAll(TaskingLog log, TaskProgressTracker tracker) {
+				return awaitAll(log, tracker, toAwait);
 			}
 
 			@Override
@@ -90,6 +148,69 @@ public class BackgroundTask {
 		};
 	}
 
+	/**
+	 * Waits for all given tasks to finish. Reports timing and status of each
+	 * task. Once cancellation is requested, all tasks that are still running
+	 * are cancelled.
+	 *
+	 * @return a status containing one child per awaited task
+	 */
+	private static IStatus awaitAll(TaskingLog log, TaskProgressTracker tracker, List<BackgroundTask> tasks) {
+		MultiStatus result = new MultiStatus(TaskingEngineActivator.PLUGIN_ID, IStatus.OK, "Background Tasks", null);
+		for (BackgroundTask bt : tasks) {
+			IStatus status = bt.await(tracker);
+			result.add(status);
+
+			if (status.getSeverity() == IStatus.CANCEL) {
+				// don't leave anything behind
+				for (BackgroundTask other : tasks) {
+					if (other.future != null) {
+						other.future.cancel(true);
+					}
+				}
+			}
+
+			String timing = bt.duration < 0 ? "not finished" : TimeHelper.formatDetailedDuration(bt.duration);
+			if (status.getSeverity() >= IStatus.ERROR && status.getSeverity() != IStatus.CANCEL) {
+				log.error(bt + " failed after " + timing, status.getException());
+			} else {
+				log.info(bt + " finished with " + status.getMessage() + " after " + timing);
+			}
+		}
+		return result;
+	}
+
+	private IStatus await(TaskProgressTracker tracker) {
+		if (future == null) {
+			return new Status(IStatus.ERROR, TaskingEngineActivator.PLUGIN_ID, "Never started: " + this);
+		}
+
+		while (true) {
+			if (tracker.isCanceled()) {
+				future.cancel(true);
+			}
+
+			try {
+				return future.get(CANCEL_POLL_MILLIS, TimeUnit.MILLISECONDS);
+			} catch (TimeoutException e) {
+				// check cancellation and try again
+			} catch (CancellationException e) {
+				return new Status(IStatus.CANCEL, TaskingEngineActivator.PLUGIN_ID, "Cancelled: " + this);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				future.cancel(true);
+				return new Status(IStatus.CANCEL, TaskingEngineActivator.PLUGIN_ID, "Cancelled: " + this, e);
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof InjectionException && cause.getCause() instanceof OperationCanceledException) {
+					return new Status(IStatus.CANCEL, TaskingEngineActivator.PLUGIN_ID, "Cancelled: " + this,
+							cause.getCause());
+				}
+				return new Status(IStatus.ERROR, TaskingEngineActivator.PLUGIN_ID, "Failed: " + this, cause);
+			}
+		}
+	}
+
 	@Override
 	public String toString() {
 		return TaskingModel.getTaskName(task) + " (parallel)";
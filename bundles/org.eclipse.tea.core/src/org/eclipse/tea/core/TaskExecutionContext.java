@@ -12,9 +12,18 @@ package org.eclipse.tea.core;
 
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
 
 import javax.inject.Inject;
 
@@ -23,6 +32,7 @@ import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.MultiStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubMonitor;
@@ -45,6 +55,7 @@ import org.eclipse.tea.core.internal.TaskProgressEstimationService;
 import org.eclipse.tea.core.internal.TaskProgressExtendedTracker;
 import org.eclipse.tea.core.internal.TaskProgressTrackerImpl;
 import org.eclipse.tea.core.internal.TaskingEngineActivator;
+import org.eclipse.tea.core.internal.config.CoreConfig;
 import org.eclipse.tea.core.internal.model.TaskingModel;
 import org.eclipse.tea.core.services.TaskChain;
 import org.eclipse.tea.core.services.TaskChain.TaskChainId;
@@ -64,6 +75,7 @@ public class TaskExecutionContext {
 	private final IEclipseContext context;
 
 	private final List<Object> tasks = new ArrayList<>();
+	private final Map<Object, List<Object>> parallelInstances = new IdentityHashMap<>();
 	private final List<TaskingLifeCycleListener> listeners = new ArrayList<>();
 
 	@Inject
@@ -110,7 +122,11 @@ public class TaskExecutionContext {
 		ContextInjectionFactory.invoke(chain, TaskChainContextInit.class, context);
 
 		// in case the context contains background-able tasks
-		Object barrierTask = BackgroundTask.allBarrier(tasks);
+		List<Object> rawTasks = new ArrayList<>();
+		for (Object o : tasks) {
+			rawTasks.add(unwrap(o));
+		}
+		Object barrierTask = BackgroundTask.allBarrier(rawTasks);
 		if (barrierTask != null) {
 			addTask(barrierTask);
 		}
@@ -182,6 +198,75 @@ public class TaskExecutionContext {
 		}
 	}
 
+	/**
+	 * Adds a task that may run concurrently to other tasks added through this
+	 * method. In contrast to {@link #addTask(Object)}, which always waits for
+	 * all previously added tasks and blocks all subsequently added tasks, a
+	 * parallel task only waits for the tasks it explicitly depends on (and the
+	 * last task added through {@link #addTask(Object)} before it).
+	 * <p>
+	 * Consecutive parallel tasks are scheduled as soon as all their
+	 * dependencies are finished. At most {@link CoreConfig#maxParallelTasks}
+	 * of them run at once on the executor of the {@link TaskingEngine}. They
+	 * do not become the active context, the task's context is passed to it
+	 * explicitly.
+	 *
+	 * @param o
+	 *            the task to add, either the actual object or the {@link Class}
+	 *            for the object to be created. {@link TaskChain}s are not
+	 *            supported.
+	 * @param dependsOn
+	 *            tasks (as passed to {@link #addTask(Object)} or this method)
+	 *            that need to finish before this task may start. All of them
+	 *            must have been added to this context before.
+	 */
+	public void addParallelTask(Object o, Object... dependsOn) {
+		if (o == null) {
+			return; // ignore
+		}
+
+		if (o instanceof TaskChain || (o instanceof Class && TaskChain.class.isAssignableFrom((Class<?>) o))) {
+			throw new IllegalArgumentException("Task chains cannot be executed in parallel: " + o);
+		}
+
+		if (!(o instanceof Class) && findTask(o) != null) {
+			throw new IllegalArgumentException("Task " + o + " cannot be added twice to run in parallel");
+		}
+
+		// resolve dependencies now, a class may be added more than once
+		List<Object> deps = new ArrayList<>();
+		for (Object dep : dependsOn) {
+			Object entry = findTask(dep);
+			if (entry == null) {
+				throw new IllegalArgumentException(
+						"Dependency " + dep + " of " + o + " must be added to the context before the task itself");
+			}
+			deps.add(entry);
+		}
+
+		tasks.add(new ParallelTask(o, deps));
+	}
+
+	/**
+	 * @return the most recently added entry for the given task,
+	 *         <code>null</code> if the task was not added yet.
+	 */
+	private Object findTask(Object o) {
+		for (int i = tasks.size() - 1; i >= 0; --i) {
+			if (unwrap(tasks.get(i)) == o) {
+				return tasks.get(i);
+			}
+		}
+		return null;
+	}
+
+	private static Object unwrap(Object entry) {
+		if (entry instanceof ParallelTask) {
+			return ((ParallelTask) entry).task;
+		}
+		return entry;
+	}
+
 	public void addTaskAt(int index, Object o) {
 		if (o == null) {
 			return; // ignore
@@ -203,8 +288,8 @@ public class TaskExecutionContext {
 	 * to tasks, manages life cycle events.
 	 */
 	@Execute
-	public void execute(TaskingLog log, @Optional @Service TaskProgressEstimationService progressService,
-			@Optional IProgressMonitor monitor) {
+	public void execute(TaskingLog log, @Optional CoreConfig config,
+			@Optional @Service TaskProgressEstimationService progressService, @Optional IProgressMonitor monitor) {
 		MultiStatus status = new MultiStatus(TaskingEngineActivator.PLUGIN_ID, IStatus.OK,
 				"Tasking Execution Context Status", null);
 
@@ -224,84 +309,269 @@ public class TaskExecutionContext {
 
 		// execute tasks
 		try {
-			for (Map.Entry<Object, IEclipseContext> ctx : taskContexts.entrySet()) {
-				Object task = ctx.getKey();
-				IEclipseContext taskCtx = ctx.getValue();
+			List<Object> order = new ArrayList<>(taskContexts.keySet());
+			int index = 0;
+			while (index < order.size()) {
+				Object task = order.get(index);
+				if (!parallelInstances.containsKey(task)) {
+					IEclipseContext taskCtx = taskContexts.get(task);
+					Integer amount = (Integer) taskCtx.get(TaskingInjectionHelper.CTX_TASK_WORK_AMOUNT);
+
+					// setup dedicated progress monitor, based on previous work
+					// amount calculation
+					SubMonitor taskMonitor = rootMonitor.split(amount).setWorkRemaining(amount);
+					taskMonitor.setTaskName(TaskingModel.getTaskName(task));
+
+					IStatus taskStatus = runTask(log, progressService, task, taskCtx, taskMonitor, rootMonitor,
+							false);
+					index++;
+					if (isAborted(log, taskStatus)) {
+						break;
+					}
+					continue;
+				}
+
+				// collect all consecutive parallel tasks into a single group
+				List<Object> group = new ArrayList<>();
+				while (index < order.size() && parallelInstances.containsKey(order.get(index))) {
+					group.add(order.get(index++));
+				}
+				if (!executeParallelGroup(log, config, progressService, group, taskContexts, rootMonitor)) {
+					break;
+				}
+			}
+		} catch (Throwable t) {
+			status.add(
+					new Status(IStatus.ERROR, TaskingEngineActivator.PLUGIN_ID, "Failed to texecute " + toString(), t));
+			throw t;
+		} finally {
+			// the engine's executor is shared with other chains, so only our
+			// own background tasks are cancelled if the chain was aborted.
+			for (Object entry : tasks) {
+				if (unwrap(entry) instanceof BackgroundTask) {
+					((BackgroundTask) unwrap(entry)).cancel();
+				}
+			}
 
-				Integer amount = (Integer) taskCtx.get(TaskingInjectionHelper.CTX_TASK_WORK_AMOUNT);
+			notifyAll(FinishTaskChain.class, context);
 
-				// setup dedicated progress monitor, based on previous work
-				// amount calculation
-				String taskName = TaskingModel.getTaskName(task);
-				SubMonitor taskMonitor = rootMonitor.split(amount).setWorkRemaining(amount);
-				taskMonitor.setTaskName(taskName);
+			// need a second step to avoid races with listener list.
+			notifyAll(DisposeContext.class, context);
+			context.deactivate();
+		}
+	}
 
-				TaskProgressTracker tracker = new TaskProgressTrackerImpl(task, taskMonitor);
-				taskCtx.set(TaskProgressExtendedTracker.class, (TaskProgressExtendedTracker) tracker);
+	/**
+	 * Runs a single task including all life cycle notifications and progress
+	 * estimation handling.
+	 *
+	 * @param log
+	 *            the log to use if required
+	 * @param progressService
+	 *            the {@link TaskProgressEstimationService} if available,
+	 *            <code>null</code> otherwise.
+	 * @param task
+	 *            the task to execute
+	 * @param taskCtx
+	 *            the {@link IEclipseContext} of the task
+	 * @param taskMonitor
+	 *            the monitor dedicated to this task
+	 * @param rootMonitor
+	 *            the monitor of the whole chain, used to check cancellation
+	 * @param parallel
+	 *            whether the task is executed concurrently to other tasks.
+	 * @return the resulting status of the task
+	 */
+	private IStatus runTask(TaskingLog log, TaskProgressEstimationService progressService, Object task,
+			IEclipseContext taskCtx, SubMonitor taskMonitor, SubMonitor rootMonitor, boolean parallel) {
+		MultiStatus status = context.get(MultiStatus.class);
+
+		TaskProgressTracker tracker = new TaskProgressTrackerImpl(task, taskMonitor);
+		taskCtx.set(TaskProgressExtendedTracker.class, (TaskProgressExtendedTracker) tracker);
+
+		notifyAll(BeginTask.class, taskCtx);
+
+		// handle estimation request of tasks
+		// (TaskProgressEstimated)
+		String estimationId = progressService == null ? null : progressService.calculateId(task);
+		if (estimationId != null) {
+			// begin tracking with the real tracker
+			synchronized (listeners) {
+				progressService.begin(estimationId, tracker);
+			}
 
-				notifyAll(BeginTask.class, taskCtx);
+			// forbid explicit updating of worked amount for tasks.
+			tracker = new TaskProgressTrackerImpl.RestrictedProgressTrackerImpl(tracker);
+		}
 
-				// handle estimation request of tasks
-				// (TaskProgressEstimated)
-				String estimationId = progressService == null ? null : progressService.calculateId(task);
-				if (estimationId != null) {
-					// begin tracking with the real tracker
-					progressService.begin(estimationId, tracker);
+		// tracker is available in any case. if estimated it is
+		// restricted.
+		taskCtx.set(TaskProgressTracker.class, tracker);
 
-					// forbid explicit updating of worked amount for tasks.
-					tracker = new TaskProgressTrackerImpl.RestrictedProgressTrackerImpl(tracker);
+		try {
+			// actually execute the task
+			executeSingleTask(log, task, taskCtx, parallel);
+		} finally {
+			// override status if cancelled
+			if (rootMonitor.isCanceled()) {
+				taskCtx.set(IStatus.class, Status.CANCEL_STATUS);
+			}
+
+			// in case the task set it's own status
+			IStatus taskStatus = taskCtx.get(IStatus.class);
+			synchronized (listeners) {
+				status.add(taskStatus);
+
+				// stop estimated progress for this task
+				if (estimationId != null && progressService != null) {
+					progressService.finish(estimationId, taskStatus);
 				}
+			}
 
-				// tracker is available in any case. if estimated it is
-				// restricted.
-				taskCtx.set(TaskProgressTracker.class, tracker);
+			notifyAll(FinishTask.class, taskCtx);
+		}
 
-				try {
-					// actually execute the task
-					executeSingleTask(log, task, taskCtx);
+		return taskCtx.get(IStatus.class);
+	}
 
-				} finally {
-					// override status if cancelled
-					if (rootMonitor.isCanceled()) {
-						taskCtx.set(IStatus.class, Status.CANCEL_STATUS);
-					}
+	/**
+	 * Handle ERROR and CANCEL status publishes when the task did not throw an
+	 * exception
+	 *
+	 * @return whether execution of the chain must be aborted
+	 */
+	private static boolean isAborted(TaskingLog log, IStatus taskStatus) {
+		if (taskStatus.getSeverity() >= IStatus.ERROR) {
+			if (taskStatus.getException() != null && taskStatus.getSeverity() != IStatus.CANCEL) {
+				// Already logged in
+				// org.eclipse.tea.core.internal.listeners.LifecycleAnnouncer#finishTask
+			} else {
+				log.error("Task aborted with status " + taskStatus);
+			}
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Executes a group of tasks added through
+	 * {@link #addParallelTask(Object, Object...)}. Each task is started as soon
+	 * as all of its dependencies within the group are finished. Once a task
+	 * fails, no further tasks are started, but running ones are awaited.
+	 *
+	 * @return whether all tasks in the group succeeded
+	 */
+	private boolean executeParallelGroup(TaskingLog log, CoreConfig config,
+			TaskProgressEstimationService progressService, List<Object> group,
+			Map<Object, IEclipseContext> taskContexts, SubMonitor rootMonitor) {
+		int groupAmount = 0;
+		for (Object task : group) {
+			groupAmount += (Integer) taskContexts.get(task).get(TaskingInjectionHelper.CTX_TASK_WORK_AMOUNT);
+		}
+		SubMonitor groupMonitor = rootMonitor.split(groupAmount).setWorkRemaining(groupAmount);
+		groupMonitor.setTaskName("Parallel: " + group.size() + " tasks");
 
-					// in case the task set it's own status
-					IStatus taskStatus = taskCtx.get(IStatus.class);
-					status.add(taskStatus);
+		int threads = config == null || config.maxParallelTasks == null || config.maxParallelTasks <= 0
+				? Runtime.getRuntime().availableProcessors()
+				: config.maxParallelTasks.intValue();
 
-					// stop estimated progress for this task
-					if (estimationId != null && progressService != null) {
-						progressService.finish(estimationId, taskStatus);
-					}
+		// tasks run on the engine's executor, without one they run in order.
+		TaskingEngine engine = context.get(TaskingEngine.class);
+		Executor executor = engine != null ? engine.getBackgroundExecutor() : Runnable::run;
+		CompletionService<IStatus> completion = new ExecutorCompletionService<>(executor);
 
-					notifyAll(FinishTask.class, taskCtx);
-				}
+		Set<Object> groupTasks = Collections.newSetFromMap(new IdentityHashMap<>());
+		groupTasks.addAll(group);
+		Set<Object> done = Collections.newSetFromMap(new IdentityHashMap<>());
+		List<Object> pending = new ArrayList<>(group);
+		Map<Future<IStatus>, Object> running = new IdentityHashMap<>();
 
-				// handle ERROR and CANCEL status publishes when the task did
-				// not throw an exception
-				IStatus taskStatus = taskCtx.get(IStatus.class);
-				if (taskStatus.getSeverity() >= IStatus.ERROR) {
-					if (taskStatus.getException() != null && taskStatus.getSeverity() != IStatus.CANCEL) {
-						// Already logged in
-						// org.eclipse.tea.core.internal.listeners.LifecycleAnnouncer#finishTask
-					} else {
-						log.error("Task aborted with status " + taskStatus);
+		boolean failed = false;
+		try {
+			while (true) {
+				if (!failed && !rootMonitor.isCanceled()) {
+					for (Iterator<Object> it = pending.iterator(); it.hasNext();) {
+						Object task = it.next();
+						if (running.size() >= threads) {
+							break;
+						}
+						if (!isReady(task, groupTasks, done)) {
+							continue;
+						}
+						it.remove();
+
+						IEclipseContext taskCtx = taskContexts.get(task);
+						Integer amount = (Integer) taskCtx.get(TaskingInjectionHelper.CTX_TASK_WORK_AMOUNT);
+
+						// monitors are not thread safe, so each task gets a
+						// detached one. work is reported once the task is done.
+						SubMonitor taskMonitor = SubMonitor.convert(new NullProgressMonitor() {
+							@Override
+							public boolean isCanceled() {
+								return rootMonitor.isCanceled();
+							}
+						}, TaskingModel.getTaskName(task), amount);
+
+						running.put(completion.submit(() -> runTask(log, progressService, task, taskCtx,
+								taskMonitor, rootMonitor, true)), task);
 					}
+				}
+
+				if (running.isEmpty()) {
 					break;
 				}
+
+				Future<IStatus> next = completion.take();
+				Object task = running.remove(next);
+				done.add(task);
+				groupMonitor.worked((Integer) taskContexts.get(task).get(TaskingInjectionHelper.CTX_TASK_WORK_AMOUNT));
+
+				if (isAborted(log, next.get())) {
+					failed = true;
+				}
 			}
-		} catch (Throwable t) {
-			status.add(
-					new Status(IStatus.ERROR, TaskingEngineActivator.PLUGIN_ID, "Failed to texecute " + toString(), t));
-			throw t;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OperationCanceledException("interrupted while waiting for parallel tasks");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException("failure while executing parallel task", e.getCause());
 		} finally {
-			notifyAll(FinishTaskChain.class, context);
+			// life cycle notifications must not overlap with running tasks
+			awaitRunning(completion, running.size());
+		}
 
-			// need a second step to avoid races with listener list.
-			notifyAll(DisposeContext.class, context);
-			context.deactivate();
+		return !failed && !rootMonitor.isCanceled();
+	}
+
+	/**
+	 * Waits for the given number of tasks to complete. The tasks notice
+	 * cancellation through their monitors.
+	 */
+	private static void awaitRunning(CompletionService<IStatus> completion, int count) {
+		boolean interrupted = false;
+		while (count > 0) {
+			try {
+				completion.take();
+				count--;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private boolean isReady(Object task, Set<Object> groupTasks, Set<Object> done) {
+		for (Object dep : parallelInstances.get(task)) {
+			if (groupTasks.contains(dep) && !done.contains(dep)) {
+				return false;
+			}
 		}
+		return true;
 	}
 
 	/**
@@ -311,9 +581,13 @@ public class TaskExecutionContext {
 	 *            the task to execute
 	 * @param taskCtx
 	 *            the {@link IEclipseContext} to use for dependency injection.
+	 * @param parallel
+	 *            whether the task runs concurrently to other tasks. In this
+	 *            case stdout/stderr are only redirected for the threads of the
+	 *            task.
 	 */
-	private static void executeSingleTask(TaskingLog log, Object task, IEclipseContext taskCtx) {
-		OutputRedirector redir = new OutputRedirector(task, log);
+	private static void executeSingleTask(TaskingLog log, Object task, IEclipseContext taskCtx, boolean parallel) {
+		OutputRedirector redir = new OutputRedirector(task, log, parallel);
 
 		taskCtx.set(IStatus.class,
 				new Status(IStatus.OK, TaskingEngineActivator.PLUGIN_ID, "Task: " + TaskingModel.getTaskName(task)));
@@ -321,8 +595,11 @@ public class TaskExecutionContext {
 			// possibly redirect system.out and system.err to the log
 			redir.begin();
 
-			// make task's context the active leaf
-			taskCtx.activate();
+			// make task's context the active leaf. parallel tasks only get
+			// their own context passed, as there is only one active leaf.
+			if (!parallel) {
+				taskCtx.activate();
+			}
 
 			// and run the task
 			Object result = ContextInjectionFactory.invoke(task, Execute.class, taskCtx);
@@ -345,7 +622,9 @@ public class TaskExecutionContext {
 			redir.finish();
 
 			// notify listeners and deactivate the context last.
-			taskCtx.deactivate();
+			if (!parallel) {
+				taskCtx.deactivate();
+			}
 		}
 	}
 
@@ -451,12 +730,28 @@ public class TaskExecutionContext {
 	 */
 	private List<Object> prepareTaskInstances() {
 		List<Object> result = new ArrayList<>();
+		Map<Object, Object> instances = new IdentityHashMap<>();
 
-		for (Object o : tasks) {
+		for (Object entry : tasks) {
+			Object o = unwrap(entry);
+			Object instance = o;
 			if (o instanceof Class) {
-				o = ContextInjectionFactory.make((Class<?>) o, context);
+				instance = ContextInjectionFactory.make((Class<?>) o, context);
+			}
+			instances.put(entry, instance);
+			result.add(instance);
+		}
+
+		// translate dependencies of parallel tasks to the actual instances
+		parallelInstances.clear();
+		for (Object entry : tasks) {
+			if (entry instanceof ParallelTask) {
+				List<Object> deps = new ArrayList<>();
+				for (Object dep : ((ParallelTask) entry).dependsOn) {
+					deps.add(instances.get(dep));
+				}
+				parallelInstances.put(instances.get(entry), deps);
 			}
-			result.add(o);
 		}
 
 		return result;
@@ -485,8 +780,12 @@ public class TaskExecutionContext {
 			return;
 		}
 
-		for (TaskingLifeCycleListener l : listeners) {
-			ContextInjectionFactory.invoke(l, event, ctx, null);
+		// parallel tasks may notify concurrently, listeners are not required to
+		// be thread safe.
+		synchronized (listeners) {
+			for (TaskingLifeCycleListener l : listeners) {
+				ContextInjectionFactory.invoke(l, event, ctx, null);
+			}
 		}
 	}
 
@@ -495,4 +794,19 @@ public class TaskExecutionContext {
 		return "ExecutionContext[" + chain.getClass().getName() + "]";
 	}
 
+	/**
+	 * A task added through {@link TaskExecutionContext#addParallelTask}, along
+	 * with the entries of the tasks it depends on.
+	 */
+	private static final class ParallelTask {
+
+		final Object task;
+		final List<Object> dependsOn;
+
+		ParallelTask(Object task, List<Object> dependsOn) {
+			this.task = task;
+			this.dependsOn = dependsOn;
+		}
+	}
+
 }
@@ -10,6 +10,21 @@
  *******************************************************************************/
 package org.eclipse.tea.core;
 
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 
 import org.eclipse.core.runtime.IStatus;
@@ -21,6 +36,7 @@ import org.eclipse.e4.core.di.annotations.Creatable;
 import org.eclipse.e4.core.di.annotations.Execute;
 import org.eclipse.tea.core.internal.TaskingConfigurationStore;
 import org.eclipse.tea.core.internal.TaskingEngineActivator;
+import org.eclipse.tea.core.internal.config.CoreConfig;
 import org.eclipse.tea.core.services.TaskingLog;
 
 /**
@@ -36,10 +52,22 @@ public class TaskingEngine {
 	private final IEclipseContext context;
 	private final TaskingLog log;
 
+	/**
+	 * The engine this engine is nested in (e.g. for lazily executed chains),
+	 * if any. Nested engines share resources with their parent.
+	 */
+	private final TaskingEngine parent;
+
+	private ExecutorService backgroundExecutor;
+
 	@Inject
 	public TaskingEngine(IEclipseContext context, TaskingLog log) {
 		this.context = context;
 		this.log = log;
+		this.parent = context.getParent() == null ? null : context.getParent().get(TaskingEngine.class);
+
+		// make the engine available to everything executed by it.
+		context.set(TaskingEngine.class, this);
 	}
 
 	/**
@@ -60,6 +88,64 @@ public class TaskingEngine {
 		return context;
 	}
 
+	/**
+	 * @return the executor used to run {@link BackgroundTask}s of all
+	 *         {@link TaskExecutionContext}s executed by this engine. The
+	 *         executor is created on first use according to the
+	 *         {@link CoreConfig} and shared by all chains run concurrently
+	 *         on this engine. Idle pooled threads are released after a
+	 *         minute.
+	 */
+	public synchronized ExecutorService getBackgroundExecutor() {
+		if (parent != null) {
+			return parent.getBackgroundExecutor();
+		}
+
+		if (backgroundExecutor == null || backgroundExecutor.isShutdown()) {
+			CoreConfig config = context.get(CoreConfig.class);
+
+			int threads = config.backgroundThreads == null || config.backgroundThreads <= 0
+					? Runtime.getRuntime().availableProcessors()
+					: config.backgroundThreads.intValue();
+			int queued = config.backgroundQueueSize == null || config.backgroundQueueSize <= 0 ? -1
+					: config.backgroundQueueSize.intValue();
+
+			if (Boolean.TRUE.equals(config.backgroundVirtualThreads)) {
+				backgroundExecutor = new BoundedVirtualThreadExecutor(threads, queued);
+			} else {
+				BlockingQueue<Runnable> queue = queued < 0 ? new LinkedBlockingQueue<>()
+						: new ArrayBlockingQueue<>(queued);
+				AtomicInteger threadNo = new AtomicInteger();
+				ThreadFactory factory = r -> {
+					Thread t = new Thread(r, "TEA Background Task #" + threadNo.incrementAndGet());
+					t.setDaemon(true);
+					return t;
+				};
+
+				// when the queue is full, the submitting task chain runs the
+				// task itself, which naturally throttles submission.
+				ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, queue,
+						factory, new ThreadPoolExecutor.CallerRunsPolicy());
+				pool.allowCoreThreadTimeOut(true);
+				backgroundExecutor = pool;
+			}
+		}
+		return backgroundExecutor;
+	}
+
+	/**
+	 * Cancels all running {@link BackgroundTask}s and releases all threads
+	 * owned by this engine, including those of other chains currently running
+	 * on it. The engine may still be used afterwards, in which case resources
+	 * are allocated again on demand.
+	 */
+	public synchronized void shutdown() {
+		if (backgroundExecutor != null) {
+			backgroundExecutor.shutdownNow();
+			backgroundExecutor = null;
+		}
+	}
+
 	/**
 	 * @param chain
 	 *            the context that should be run
@@ -89,4 +175,94 @@ public class TaskingEngine {
 		return status;
 	}
 
+	@PreDestroy
+	void dispose() {
+		shutdown();
+	}
+
+	/**
+	 * Runs each task in a new virtual thread. Virtual threads are not pooled,
+	 * the number of concurrently running tasks is bounded by a semaphore
+	 * instead. When too many tasks are waiting, the submitting thread runs the
+	 * task itself, like {@link ThreadPoolExecutor.CallerRunsPolicy} does.
+	 */
+	private static final class BoundedVirtualThreadExecutor extends AbstractExecutorService {
+
+		private final ExecutorService delegate = Executors
+				.newThreadPerTaskExecutor(Thread.ofVirtual().name("TEA Background Task #", 1).factory());
+		private final Semaphore running;
+		private final Semaphore accepted;
+
+		/**
+		 * @param threads
+		 *            the maximum number of concurrently running tasks
+		 * @param queued
+		 *            the maximum number of waiting tasks, negative for no limit
+		 */
+		BoundedVirtualThreadExecutor(int threads, int queued) {
+			this.running = new Semaphore(threads);
+			this.accepted = queued < 0 ? null : new Semaphore(threads + queued);
+		}
+
+		@Override
+		public void execute(Runnable command) {
+			if (accepted != null && !accepted.tryAcquire()) {
+				command.run();
+				return;
+			}
+
+			try {
+				delegate.execute(() -> {
+					try {
+						running.acquire();
+					} catch (InterruptedException e) {
+						// shut down while waiting
+						release();
+						return;
+					}
+					try {
+						command.run();
+					} finally {
+						running.release();
+						release();
+					}
+				});
+			} catch (RejectedExecutionException e) {
+				release();
+				throw e;
+			}
+		}
+
+		private void release() {
+			if (accepted != null) {
+				accepted.release();
+			}
+		}
+
+		@Override
+		public void shutdown() {
+			delegate.shutdown();
+		}
+
+		@Override
+		public List<Runnable> shutdownNow() {
+			return delegate.shutdownNow();
+		}
+
+		@Override
+		public boolean isShutdown() {
+			return delegate.isShutdown();
+		}
+
+		@Override
+		public boolean isTerminated() {
+			return delegate.isTerminated();
+		}
+
+		@Override
+		public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+			return delegate.awaitTermination(timeout, unit);
+		}
+	}
+
 }
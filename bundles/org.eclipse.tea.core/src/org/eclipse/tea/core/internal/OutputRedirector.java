@@ -10,6 +10,8 @@
  *******************************************************************************/
 package org.eclipse.tea.core.internal;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PrintStream;
 
 import org.eclipse.tea.core.annotations.TaskCaptureStdOutput;
@@ -18,17 +20,42 @@ import org.eclipse.tea.core.services.TaskingLog;
 /**
  * Takes care of redirecting stdout and stderr while a task is executing when
  * requested.
+ * <p>
+ * Tasks running in parallel cannot replace the global streams each. Instead,
+ * the global streams are replaced by streams dispatching to the target of the
+ * current thread as long as any parallel task is running. Threads created by
+ * a task inherit its targets.
  */
 public class OutputRedirector {
 
+	private static final InheritableThreadLocal<PrintStream> threadOut = new InheritableThreadLocal<>();
+	private static final InheritableThreadLocal<PrintStream> threadErr = new InheritableThreadLocal<>();
+
+	/** number of running parallel tasks that redirect their output */
+	private static int parallelCount;
+	private static PrintStream parallelOrigOut;
+	private static PrintStream parallelOrigErr;
+
 	private final TaskingLog log;
 	private final TaskCaptureStdOutput annotation;
+	private final boolean parallel;
 	private final PrintStream origErr;
 	private final PrintStream origOut;
 
 	public OutputRedirector(Object task, TaskingLog log) {
+		this(task, log, false);
+	}
+
+	/**
+	 * @param parallel
+	 *            whether the task runs concurrently to other tasks, in which
+	 *            case only output of the current thread (and threads created
+	 *            by it) is redirected.
+	 */
+	public OutputRedirector(Object task, TaskingLog log, boolean parallel) {
 		this.log = log;
 		this.annotation = task.getClass().getAnnotation(TaskCaptureStdOutput.class);
+		this.parallel = parallel;
 
 		this.origOut = System.out;
 		this.origErr = System.err;
@@ -39,6 +66,11 @@ public class OutputRedirector {
 			return;
 		}
 
+		if (parallel) {
+			beginParallel();
+			return;
+		}
+
 		if (annotation.out()) {
 			System.setOut(log.info());
 		}
@@ -52,9 +84,86 @@ public class OutputRedirector {
 		}
 	}
 
+	private void beginParallel() {
+		PrintStream out;
+		PrintStream err;
+		synchronized (OutputRedirector.class) {
+			if (parallelCount++ == 0) {
+				parallelOrigOut = System.out;
+				parallelOrigErr = System.err;
+				System.setOut(new PrintStream(new ThreadOutputStream(threadOut, parallelOrigOut), true));
+				System.setErr(new PrintStream(new ThreadOutputStream(threadErr, parallelOrigErr), true));
+			}
+			out = parallelOrigOut;
+			err = parallelOrigErr;
+		}
+
+		if (annotation.out()) {
+			out = log.info();
+			threadOut.set(out);
+		}
+
+		if (annotation.err()) {
+			threadErr.set(annotation.errToOut() ? out : log.error());
+		}
+	}
+
 	public void finish() {
-		System.setOut(origOut);
-		System.setErr(origErr);
+		if (!parallel) {
+			System.setOut(origOut);
+			System.setErr(origErr);
+			return;
+		}
+
+		if (annotation == null) {
+			return;
+		}
+
+		threadOut.remove();
+		threadErr.remove();
+		synchronized (OutputRedirector.class) {
+			if (--parallelCount == 0) {
+				System.setOut(parallelOrigOut);
+				System.setErr(parallelOrigErr);
+				parallelOrigOut = null;
+				parallelOrigErr = null;
+			}
+		}
+	}
+
+	/**
+	 * Forwards to the stream set for the current thread, or to the original
+	 * stream if there is none.
+	 */
+	private static final class ThreadOutputStream extends OutputStream {
+
+		private final ThreadLocal<PrintStream> target;
+		private final PrintStream fallback;
+
+		ThreadOutputStream(ThreadLocal<PrintStream> target, PrintStream fallback) {
+			this.target = target;
+			this.fallback = fallback;
+		}
+
+		private PrintStream target() {
+			PrintStream s = target.get();
+			return s != null ? s : fallback;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			target().write(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			target().write(b, off, len);
+		}
+
+		@Override
+		public void flush() throws IOException {
+			target().flush();
+		}
 	}
 
 }
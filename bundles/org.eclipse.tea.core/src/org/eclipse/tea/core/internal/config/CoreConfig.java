@@ -30,4 +30,16 @@ public class CoreConfig implements TaskingConfigurationExtension {
 	@TaskingConfigProperty(description = "Accessible Mode")
 	public Boolean useAccessibleMode = false;
 
+	@TaskingConfigProperty(description = "Maximum number of parallel tasks (0 = number of processors)")
+	public Long maxParallelTasks = 0l;
+
+	@TaskingConfigProperty(description = "Maximum number of background task threads per engine (0 = number of processors)")
+	public Long backgroundThreads = 0l;
+
+	@TaskingConfigProperty(description = "Use virtual threads for background tasks")
+	public Boolean backgroundVirtualThreads = false;
+
+	@TaskingConfigProperty(description = "Maximum number of queued background tasks (0 = unbounded)")
+	public Long backgroundQueueSize = 0l;
+
 }
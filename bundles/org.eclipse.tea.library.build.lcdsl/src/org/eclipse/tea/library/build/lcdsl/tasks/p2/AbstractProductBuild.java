@@ -72,9 +72,14 @@ public abstract class AbstractProductBuild {
 		addProductTasks(c, updateSite, true);
 	}
 
+	/**
+	 * Adds the product export. By default it runs in parallel to other product
+	 * exports added directly after it, the update site must be published by
+	 * tasks added before.
+	 */
 	public TaskRunProductExport addProductTasks(TaskExecutionContext c, String updateSite, boolean zip) {
 		final TaskRunProductExport task = createProductExportTask(updateSite, zip);
-		c.addTask(task);
+		c.addParallelTask(task);
 		return task;
 	}
 
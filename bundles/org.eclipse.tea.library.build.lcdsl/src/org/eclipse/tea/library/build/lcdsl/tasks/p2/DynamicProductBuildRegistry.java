@@ -19,7 +19,6 @@ import org.eclipse.e4.core.di.annotations.Creatable;
 import org.eclipse.tea.core.TaskExecutionContext;
 import org.eclipse.tea.core.annotations.TaskChainContextInit;
 import org.eclipse.tea.core.services.TaskChain;
-import org.eclipse.tea.library.build.config.BuildDirectories;
 import org.eclipse.tea.library.build.lcdsl.tasks.p2.SimpleProductBuild.SimpleProductBuildDescription;
 import org.eclipse.tea.library.build.model.FeatureBuild;
 import org.eclipse.tea.library.build.model.WorkspaceBuild;
@@ -63,8 +62,8 @@ public class DynamicProductBuildRegistry extends ProductBuildRegistry {
 		return new TaskChain() {
 
 			@TaskChainContextInit
-			public void init(TaskExecutionContext c, BuildDirectories dirs, DynamicProductBuildRegistry reg) {
-				reg.addAllUpdateSiteTasks(c, dirs, siteName, zipSites);
+			public void init(TaskExecutionContext c, DynamicProductBuildRegistry reg) {
+				reg.addAllUpdateSiteTasks(c, siteName, zipSites);
 				reg.addAllProductTasks(c, siteName);
 			}
 
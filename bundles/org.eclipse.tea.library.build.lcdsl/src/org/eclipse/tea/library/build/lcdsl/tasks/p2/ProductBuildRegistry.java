@@ -71,18 +71,38 @@ public class ProductBuildRegistry {
 	 * @param c
 	 *            the context to add to
 	 * @param dirs
-	 *            {@link BuildDirectories} used to calculate cache directory.
+	 *            not used, the JAR cache determines its directory itself.
 	 * @param siteName
 	 *            the site to build, <code>null</code> for all products
 	 * @param withZip
 	 *            whether the site is only used in follow up tasks, or should be
 	 *            archived to a ZIP file prior to deleting the temporary target
 	 *            directory.
+	 * @deprecated use
+	 *             {@link #addAllUpdateSiteTasks(TaskExecutionContext, String, boolean)}
 	 */
+	@Deprecated
 	public void addAllUpdateSiteTasks(TaskExecutionContext c, BuildDirectories dirs, String siteName, boolean withZip) {
+		addAllUpdateSiteTasks(c, siteName, withZip);
+	}
+
+	/**
+	 * Adds tasks required to build the compound update site for a given
+	 * definition.
+	 *
+	 * @param c
+	 *            the context to add to
+	 * @param siteName
+	 *            the site to build, <code>null</code> for all products
+	 * @param withZip
+	 *            whether the site is only used in follow up tasks, or should be
+	 *            archived to a ZIP file prior to deleting the temporary target
+	 *            directory.
+	 */
+	public void addAllUpdateSiteTasks(TaskExecutionContext c, String siteName, boolean withZip) {
 		String[] sites = siteName == null ? new String[] { "all" } : new String[] { siteName };
 		Collection<AbstractProductBuild> prods = siteName == null ? getAllProducts() : site2product.get(siteName);
-		TaskInitJarCache cache = new TaskInitJarCache(dirs.getNewCacheDirectory("jar"));
+		TaskInitJarCache cache = new TaskInitJarCache();
 		c.addTask(cache);
 		for (AbstractProductBuild product : prods) {
 			product.addUpdateSiteTasks(c, sites);
@@ -97,7 +117,7 @@ public class ProductBuildRegistry {
 	 * Adds tasks required to build the according product to the given context.
 	 * <p>
 	 * Caller <b>must</b> make sure that
-	 * {@link #addAllUpdateSiteTasks(TaskExecutionContext, BuildDirectories, String, boolean)}
+	 * {@link #addAllUpdateSiteTasks(TaskExecutionContext, String, boolean)}
 	 * or similar is called for the given product before this method.
 	 *
 	 * @param c
@@ -41,7 +41,6 @@ import org.eclipse.tea.core.services.TaskChain;
 import org.eclipse.tea.core.services.TaskChain.TaskChainId;
 import org.eclipse.tea.core.services.TaskingLog;
 import org.eclipse.tea.core.ui.annotations.TaskChainUiInit;
-import org.eclipse.tea.library.build.config.BuildDirectories;
 import org.eclipse.tea.library.build.config.TeaBuildConfig;
 import org.eclipse.tea.library.build.menu.BuildLibraryMenuDecoration;
 import org.eclipse.tea.library.build.menu.OtherMenuDecoration;
@@ -89,10 +88,10 @@ public class ProductBuildTaskChain implements TaskChain {
 	}
 
 	@TaskChainContextInit
-	public void init(TaskExecutionContext c, TaskingLog log, TeaBuildConfig cfg, DynamicProductBuildRegistry registry,
-			BuildDirectories dirs) {
-		TaskInitJarCache cache = new TaskInitJarCache(dirs.getNewCacheDirectory("jar"));
+	public void init(TaskExecutionContext c, TaskingLog log, TeaBuildConfig cfg, DynamicProductBuildRegistry registry) {
+		TaskInitJarCache cache = new TaskInitJarCache();
 		c.addTask(cache);
+		List<AbstractProductBuild> toBuild = new ArrayList<>();
 		if (builds.isEmpty()) {
 			List<String> productList = cfg.productsToExport == null ? Collections.emptyList()
 					: Splitter.on(',').splitToList(cfg.productsToExport);
@@ -103,22 +102,25 @@ public class ProductBuildTaskChain implements TaskChain {
 			for (final String product : productList) {
 				AbstractProductBuild productBuild = registry.findProductBuild(product);
 				if (productBuild != null) {
-					addProductBuildTasks(c, log, productBuild);
+					toBuild.add(productBuild);
 				} else {
 					log.error("Cannot build product:" + product + " . Product not found.");
 				}
 			}
 		} else {
-			for (AbstractProductBuild build : builds) {
-				addProductBuildTasks(c, log, build);
-			}
+			toBuild.addAll(builds);
 		}
-		c.addTask(cache.getCleanup());
-	}
 
-	private void addProductBuildTasks(TaskExecutionContext c, TaskingLog log, AbstractProductBuild productBuild) {
-		productBuild.addUpdateSiteTasks(c, new String[] { DUMMY_SITE });
-		productBuild.addProductTasks(c, DUMMY_SITE);
+		// all products share the update site, so it is built sequentially.
+		for (AbstractProductBuild build : toBuild) {
+			build.addUpdateSiteTasks(c, new String[] { DUMMY_SITE });
+		}
+
+		// the exports only read the site and write distinct products.
+		for (AbstractProductBuild build : toBuild) {
+			build.addProductTasks(c, DUMMY_SITE);
+		}
+		c.addTask(cache.getCleanup());
 	}
 
 	public static final class ProductSelectionDialog extends TitleAreaDialog {
@@ -0,0 +1,205 @@
+/*******************************************************************************
+ *  Copyright (c) 2026 SSI Schaefer IT Solutions GmbH and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  Contributors:
+ *      SSI Schaefer IT Solutions GmbH
+ *******************************************************************************/
+package org.eclipse.tea.library.build.chain;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IncrementalProjectBuilder;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.e4.core.contexts.EclipseContextFactory;
+import org.eclipse.tea.core.services.TaskingLog;
+import org.eclipse.tea.library.build.chain.IncrementalBuildState.Snapshot;
+import org.eclipse.tea.library.build.services.TeaBuildElementFactory;
+import org.eclipse.tea.library.build.services.TeaDependencyWireFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks which projects {@link IncrementalBuildState} skips or rebuilds. Uses
+ * two workspace projects, where {@link #B} depends on {@link #A}.
+ */
+public class IncrementalBuildStateTest {
+
+	private static final String A = "IncrementalBuildStateTest.a";
+	private static final String B = "IncrementalBuildStateTest.b";
+
+	private final TaskingLog log = new TaskingLog() {
+
+		@Override
+		public PrintStream debug() {
+			return System.out;
+		}
+
+		@Override
+		public PrintStream info() {
+			return System.out;
+		}
+
+		@Override
+		public PrintStream warn() {
+			return System.err;
+		}
+
+		@Override
+		public PrintStream error() {
+			return System.err;
+		}
+	};
+
+	private IncrementalBuildState state;
+	private IProject a;
+	private IProject b;
+
+	@Before
+	public void setUp() throws CoreException {
+		a = createProject(A);
+		b = createProject(B);
+		state = IncrementalBuildState.getDefault();
+		state.reset();
+	}
+
+	@After
+	public void tearDown() throws CoreException {
+		state.reset();
+		a.delete(true, null);
+		b.delete(true, null);
+	}
+
+	@Test
+	public void firstBuildIsFull() {
+		TeaBuildChain chain = createChain();
+		state.prepare(chain, log, false);
+
+		assertEquals(Arrays.asList(A, B), chain.getBuildOrder());
+		assertBuildKind(chain, IncrementalProjectBuilder.FULL_BUILD);
+	}
+
+	@Test
+	public void skipsUnchanged() {
+		build(IStatus.OK);
+
+		TeaBuildChain chain = createChain();
+		state.prepare(chain, log, false);
+		assertEquals(Collections.emptyList(), chain.getBuildOrder());
+	}
+
+	@Test
+	public void rebuildsDependents() throws CoreException {
+		build(IStatus.OK);
+		touch(a);
+
+		TeaBuildChain chain = createChain();
+		state.finish(state.prepare(chain, log, false), Status.OK_STATUS);
+		assertEquals(Arrays.asList(A, B), chain.getBuildOrder());
+		assertBuildKind(chain, IncrementalProjectBuilder.INCREMENTAL_BUILD);
+
+		touch(b);
+		chain = createChain();
+		state.prepare(chain, log, false);
+		assertEquals(Arrays.asList(B), chain.getBuildOrder());
+	}
+
+	@Test
+	public void rebuildsAfterFailure() throws CoreException {
+		build(IStatus.OK);
+		touch(a);
+		build(IStatus.ERROR);
+
+		// the change is still pending, the builder state is unknown
+		TeaBuildChain chain = createChain();
+		state.prepare(chain, log, false);
+		assertEquals(Arrays.asList(A, B), chain.getBuildOrder());
+		assertBuildKind(chain, IncrementalProjectBuilder.FULL_BUILD);
+	}
+
+	@Test
+	public void rebuildsAfterReset() {
+		build(IStatus.OK);
+		state.reset();
+
+		TeaBuildChain chain = createChain();
+		state.prepare(chain, log, false);
+		assertEquals(Arrays.asList(A, B), chain.getBuildOrder());
+	}
+
+	private void build(int severity) {
+		Snapshot snapshot = state.prepare(createChain(), log, false);
+		state.finish(snapshot, new Status(severity, getClass().getName(), "build"));
+	}
+
+	private TeaBuildChain createChain() {
+		TeaBuildElementFactory elements = (chain, prj) -> {
+			if (prj.equals(a) || prj.equals(b)) {
+				return Collections.singletonList(new TestElement(prj));
+			}
+			return null;
+		};
+		TeaDependencyWireFactory wires = chain -> chain.getElementFor(B)
+				.addDependencyWire(chain.getElementFor(A).createWire());
+
+		return new TeaBuildChain(EclipseContextFactory.create(), log, Arrays.asList(a, b),
+				Collections.singletonList(elements), Collections.singletonList(wires), Collections.emptyList());
+	}
+
+	private static void assertBuildKind(TeaBuildChain chain, int kind) {
+		for (TeaBuildElement e : chain.getAllElements()) {
+			if (e instanceof TestElement) {
+				assertEquals(e.getName(), kind, ((TestElement) e).getBuildKind());
+			}
+		}
+	}
+
+	private static IProject createProject(String name) throws CoreException {
+		IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(name);
+		if (project.exists()) {
+			project.delete(true, null);
+		}
+		project.create(null);
+		project.open(null);
+		return project;
+	}
+
+	private static void touch(IProject project) throws CoreException {
+		IFile file = project.getFile("source.txt");
+		ByteArrayInputStream content = new ByteArrayInputStream(
+				Long.toString(System.nanoTime()).getBytes(StandardCharsets.UTF_8));
+		if (file.exists()) {
+			file.setContents(content, true, false, null);
+		} else {
+			file.create(content, true, null);
+		}
+	}
+
+	private static final class TestElement extends TeaBuildProjectElement {
+
+		TestElement(IProject project) {
+			super(project);
+		}
+
+		@Override
+		public String getName() {
+			return getProject().getName();
+		}
+	}
+
+}
@@ -0,0 +1,213 @@
+/*******************************************************************************
+ *  Copyright (c) 2026 SSI Schaefer IT Solutions GmbH and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  Contributors:
+ *      SSI Schaefer IT Solutions GmbH
+ *******************************************************************************/
+package org.eclipse.tea.library.build.jar;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Reads archives written by {@link ParallelZipWriter} using
+ * {@link java.util.zip}.
+ */
+public class ParallelZipWriterTest {
+
+	private static final FileTime TIME = FileTime.fromMillis(1500000000000L);
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	@Test
+	public void roundTrip() throws IOException {
+		Map<String, byte[]> expected = new LinkedHashMap<>();
+		expected.put("empty.txt", new byte[0]);
+		expected.put("small.txt", "hello, world\n".getBytes(StandardCharsets.UTF_8));
+		expected.put("dir/random.bin", random(1, 10000));
+		// split into chunks, the last one being a partial chunk
+		expected.put("dir/large.txt", text(ParallelZipWriter.CHUNK_SIZE * 3 + 12345));
+		expected.put("dir/stored.jar", text(50000));
+		expected.put("data.txt", text(777));
+
+		File zip = write(expected, false);
+		assertContent(zip, expected);
+
+		try (ZipFile zf = new ZipFile(zip)) {
+			assertEquals(ZipEntry.STORED, zf.getEntry("dir/stored.jar").getMethod());
+			assertEquals(ZipEntry.DEFLATED, zf.getEntry("dir/large.txt").getMethod());
+			// does not compress, stored automatically
+			assertEquals(ZipEntry.STORED, zf.getEntry("dir/random.bin").getMethod());
+			assertTrue(zf.getEntry("dir/").isDirectory());
+		}
+	}
+
+	@Test
+	public void reproducible() throws IOException {
+		Map<String, byte[]> content = new LinkedHashMap<>();
+		content.put("a.txt", text(1000));
+		content.put("b.txt", text(ParallelZipWriter.CHUNK_SIZE * 2 + 1));
+
+		File first = write(content, true);
+		File second = write(content, true);
+		assertArrayEquals(Files.readAllBytes(first.toPath()), Files.readAllBytes(second.toPath()));
+	}
+
+	@Test
+	public void crcCombine() {
+		byte[] data = random(2, 100000);
+		CRC32 first = new CRC32();
+		first.update(data, 0, 30000);
+		CRC32 second = new CRC32();
+		second.update(data, 30000, data.length - 30000);
+		CRC32 all = new CRC32();
+		all.update(data);
+
+		assertEquals(all.getValue(),
+				ParallelZipWriter.crc32Combine(first.getValue(), second.getValue(), data.length - 30000));
+	}
+
+	@Test
+	public void failedEntry() throws IOException {
+		Path source = tmp.newFile("short.txt").toPath();
+		Files.write(source, text(1000));
+		File zip = new File(tmp.getRoot(), "failed.zip");
+
+		IOException e = assertThrows(IOException.class, () -> {
+			try (ParallelZipWriter writer = new ParallelZipWriter(zip, true)) {
+				// claims to be larger than the file, fails while reading
+				writer.addFile("short.txt", source, ParallelZipWriter.CHUNK_SIZE * 2, TIME, false);
+				for (int i = 0; i < ParallelZipWriter.MAX_IN_FLIGHT * 2; ++i) {
+					writer.addData("data" + i + ".txt", text(1000), TIME);
+				}
+			}
+		});
+		assertEquals("cannot compress short.txt", e.getMessage());
+	}
+
+	private File write(Map<String, byte[]> content, boolean fixedTime) throws IOException {
+		File dir = tmp.newFolder();
+		File zip = new File(tmp.getRoot(), dir.getName() + ".zip");
+		try (ParallelZipWriter writer = new ParallelZipWriter(zip, fixedTime)) {
+			boolean hasDir = false;
+			for (Map.Entry<String, byte[]> e : content.entrySet()) {
+				String name = e.getKey();
+				if (!hasDir && name.startsWith("dir/")) {
+					writer.addDirectory("dir/", TIME);
+					hasDir = true;
+				}
+				if (name.startsWith("data")) {
+					writer.addData(name, e.getValue(), TIME);
+					continue;
+				}
+				Path source = new File(dir, name).toPath();
+				Files.createDirectories(source.getParent());
+				Files.write(source, e.getValue());
+				writer.addFile(name, source, e.getValue().length, TIME, name.endsWith(".jar"));
+			}
+		}
+		return zip;
+	}
+
+	/**
+	 * Checks the archive both using the central directory and by streaming
+	 * the local headers, which is how data descriptors are read.
+	 */
+	private static void assertContent(File zip, Map<String, byte[]> expected) throws IOException {
+		List<String> names = new ArrayList<>();
+		try (ZipFile zf = new ZipFile(zip)) {
+			for (Enumeration<? extends ZipEntry> en = zf.entries(); en.hasMoreElements();) {
+				ZipEntry entry = en.nextElement();
+				names.add(entry.getName());
+				if (entry.isDirectory()) {
+					continue;
+				}
+				byte[] data = expected.get(entry.getName());
+				assertNotNull(entry.getName(), data);
+				assertEquals(entry.getName(), data.length, entry.getSize());
+				try (InputStream in = zf.getInputStream(entry)) {
+					assertArrayEquals(entry.getName(), data, readAll(in));
+				}
+			}
+		}
+		assertEquals(expected.size() + 1, names.size());
+		assertTrue(names.containsAll(expected.keySet()));
+
+		try (ZipInputStream in = new ZipInputStream(Files.newInputStream(zip.toPath()))) {
+			int count = 0;
+			ZipEntry entry;
+			while ((entry = in.getNextEntry()) != null) {
+				count++;
+				if (entry.isDirectory()) {
+					assertFalse(expected.containsKey(entry.getName()));
+					continue;
+				}
+				assertArrayEquals(entry.getName(), expected.get(entry.getName()), readAll(in));
+			}
+			assertEquals(names.size(), count);
+			assertNull(in.getNextEntry());
+		}
+	}
+
+	private static byte[] readAll(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		int n;
+		while ((n = in.read(buffer)) > 0) {
+			out.write(buffer, 0, n);
+		}
+		return out.toByteArray();
+	}
+
+	static byte[] random(long seed, int length) {
+		byte[] data = new byte[length];
+		new Random(seed).nextBytes(data);
+		return data;
+	}
+
+	/**
+	 * @return compressible content, repeating with some variation.
+	 */
+	static byte[] text(int length) {
+		StringBuilder builder = new StringBuilder(length + 64);
+		Random random = new Random(length);
+		while (builder.length() < length) {
+			builder.append("line ").append(random.nextInt(1000)).append(" of some compressible text\n");
+		}
+		return builder.substring(0, length).getBytes(StandardCharsets.US_ASCII);
+	}
+
+}
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ *  Copyright (c) 2026 SSI Schaefer IT Solutions GmbH and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  Contributors:
+ *      SSI Schaefer IT Solutions GmbH
+ *******************************************************************************/
+package org.eclipse.tea.library.build.jar;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Checks that {@link QualifierLedger} keeps qualifiers of unchanged content
+ * across instances reading the same file.
+ */
+public class QualifierLedgerTest {
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	@Test
+	public void keepsQualifierOfUnchangedContent() throws IOException {
+		QualifierLedger ledger = new QualifierLedger(new File(tmp.getRoot(), "qualifiers.properties"));
+
+		assertEquals("v1", ledger.qualify("a_1.0.0", "hash1", "v1"));
+		assertEquals("v1", ledger.qualify("a_1.0.0", "hash1", "v2"));
+		assertEquals("v3", ledger.qualify("a_1.0.0", "hash2", "v3"));
+		assertEquals("v3", ledger.qualify("a_1.0.0", "hash2", "v4"));
+
+		// same content, but another version
+		assertEquals("v4", ledger.qualify("a_1.1.0", "hash2", "v4"));
+	}
+
+	@Test
+	public void persistent() throws IOException {
+		File file = new File(tmp.getRoot(), "sub/qualifiers.properties");
+		String key = "b_1.0.0 with:special=chars\\";
+
+		QualifierLedger first = new QualifierLedger(file);
+		first.qualify("a_1.0.0", "hash1", "v1");
+		first.qualify(key, "hash2", "v1");
+		first.qualify("a_1.0.0", "hash3", "v2");
+
+		QualifierLedger second = new QualifierLedger(file);
+		assertEquals("v2", second.qualify("a_1.0.0", "hash3", "v3"));
+		assertEquals("v1", second.qualify(key, "hash2", "v3"));
+		assertEquals("v3", second.qualify(key, "hash4", "v3"));
+	}
+
+	@Test
+	public void compactedWhenOpened() throws IOException {
+		File file = new File(tmp.getRoot(), "qualifiers.properties");
+
+		QualifierLedger ledger = new QualifierLedger(file);
+		ledger.qualify("b_1.0.0", "hash", "v0");
+		for (int i = 0; i < 100; ++i) {
+			ledger.qualify("a_1.0.0", "hash" + i, "v" + i);
+		}
+		assertEquals(101, countEntries(file));
+
+		QualifierLedger reopened = new QualifierLedger(file);
+		assertEquals(2, countEntries(file));
+		assertEquals("v99", reopened.qualify("a_1.0.0", "hash99", "v100"));
+		assertEquals("v0", reopened.qualify("b_1.0.0", "hash", "v100"));
+		assertEquals("v99", new QualifierLedger(file).qualify("a_1.0.0", "hash99", "v101"));
+	}
+
+	private static long countEntries(File file) throws IOException {
+		return Files.readAllLines(file.toPath(), StandardCharsets.ISO_8859_1).stream()
+				.filter(l -> !l.isEmpty() && !l.startsWith("#")).count();
+	}
+
+}
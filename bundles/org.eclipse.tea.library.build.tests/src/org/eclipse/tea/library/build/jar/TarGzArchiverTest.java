@@ -0,0 +1,238 @@
+/*******************************************************************************
+ *  Copyright (c) 2026 SSI Schaefer IT Solutions GmbH and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  Contributors:
+ *      SSI Schaefer IT Solutions GmbH
+ *******************************************************************************/
+package org.eclipse.tea.library.build.jar;
+
+import static org.eclipse.tea.library.build.jar.ParallelZipWriterTest.random;
+import static org.eclipse.tea.library.build.jar.ParallelZipWriterTest.text;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Reads archives written by {@link TarGzArchiver} and
+ * {@link ParallelGzipOutputStream} using {@link GZIPInputStream} and a minimal
+ * tar reader.
+ */
+public class TarGzArchiverTest {
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	@Test
+	public void gzipRoundTrip() throws IOException {
+		assertGzip(new byte[0]);
+		assertGzip(text(100));
+		assertGzip(random(3, 200000));
+		// several blocks, the last one being a partial block
+		assertGzip(text(ParallelZipWriter.CHUNK_SIZE * 3 + 4321));
+	}
+
+	@Test
+	public void gzipReproducible() throws IOException {
+		byte[] data = text(ParallelZipWriter.CHUNK_SIZE * 2 + 17);
+		assertArrayEquals(gzip(data, 1000), gzip(data, data.length));
+	}
+
+	@Test
+	public void tarRoundTrip() throws IOException {
+		File dir = tmp.newFolder("product");
+		Map<String, byte[]> files = new LinkedHashMap<>();
+		files.put("readme.txt", text(123));
+		files.put("empty.txt", new byte[0]);
+		files.put("plugins/a.jar", random(4, 70000));
+		files.put("plugins/large.bin", text(ParallelZipWriter.CHUNK_SIZE + 99));
+		// needs the ustar prefix field
+		files.put("prefix/".repeat(20) + "file.txt", text(10));
+		// does not fit ustar at all, needs a pax header
+		files.put("long/" + "x".repeat(150) + ".txt", text(20));
+		for (Map.Entry<String, byte[]> e : files.entrySet()) {
+			Path p = new File(dir, e.getKey()).toPath();
+			Files.createDirectories(p.getParent());
+			Files.write(p, e.getValue());
+		}
+
+		Map<String, TarEntry> entries = create(dir);
+		for (Map.Entry<String, byte[]> e : files.entrySet()) {
+			TarEntry entry = entries.get(e.getKey());
+			assertNotNull(e.getKey(), entry);
+			assertEquals(e.getKey(), '0', entry.type);
+			assertArrayEquals(e.getKey(), e.getValue(), entry.content);
+		}
+		assertEquals('5', entries.get("plugins/").type);
+		assertEquals('5', entries.get("long/").type);
+	}
+
+	@Test
+	public void posixPermissions() throws IOException {
+		assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+
+		File dir = tmp.newFolder("product");
+		Path launcher = new File(dir, "launcher").toPath();
+		Files.write(launcher, text(10));
+		Files.setPosixFilePermissions(launcher, PosixFilePermissions.fromString("rwxr-x---"));
+		Path ini = new File(dir, "launcher.ini").toPath();
+		Files.write(ini, text(10));
+		Files.setPosixFilePermissions(ini, PosixFilePermissions.fromString("rw-r--r--"));
+		Files.createSymbolicLink(new File(dir, "link").toPath(), launcher.getFileName());
+
+		Map<String, TarEntry> entries = create(dir);
+		assertEquals(0750, entries.get("launcher").mode);
+		assertEquals(0644, entries.get("launcher.ini").mode);
+		assertEquals('2', entries.get("link").type);
+		assertEquals("launcher", entries.get("link").link);
+	}
+
+	private Map<String, TarEntry> create(File dir) throws IOException {
+		File archive = new File(tmp.getRoot(), dir.getName() + ".tar.gz");
+		TarGzArchiver.create(dir, archive);
+
+		byte[] tar;
+		try (InputStream in = new GZIPInputStream(Files.newInputStream(archive.toPath()))) {
+			tar = readAll(in);
+		}
+		assertEquals("padded to full records", 0, tar.length % (20 * 512));
+		return readTar(tar);
+	}
+
+	private static void assertGzip(byte[] data) throws IOException {
+		// odd write sizes, crossing block boundaries
+		byte[] compressed = gzip(data, 4099);
+		try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+			assertArrayEquals(data, readAll(in));
+		}
+	}
+
+	private static byte[] gzip(byte[] data, int writeSize) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (ParallelGzipOutputStream gz = new ParallelGzipOutputStream(out)) {
+			for (int off = 0; off < data.length; off += writeSize) {
+				gz.write(data, off, Math.min(writeSize, data.length - off));
+			}
+		}
+		return out.toByteArray();
+	}
+
+	private static Map<String, TarEntry> readTar(byte[] tar) {
+		Map<String, TarEntry> result = new LinkedHashMap<>();
+		String paxPath = null;
+		int pos = 0;
+		while (pos + 512 <= tar.length) {
+			byte[] h = Arrays.copyOfRange(tar, pos, pos + 512);
+			pos += 512;
+			if (isZero(h)) {
+				break;
+			}
+			assertEquals("header checksum", octal(h, 148, 8), checksum(h));
+
+			TarEntry e = new TarEntry();
+			e.type = (char) h[156];
+			e.mode = (int) octal(h, 100, 8);
+			e.link = string(h, 157, 100);
+			String prefix = string(h, 345, 155);
+			String name = prefix.isEmpty() ? string(h, 0, 100) : prefix + '/' + string(h, 0, 100);
+			int size = (int) octal(h, 124, 12);
+			e.content = Arrays.copyOfRange(tar, pos, pos + size);
+			pos += (size + 511) / 512 * 512;
+
+			if (e.type == 'x') {
+				paxPath = parsePaxPath(new String(e.content, StandardCharsets.UTF_8));
+				continue;
+			}
+			result.put(paxPath != null ? paxPath : name, e);
+			paxPath = null;
+		}
+		return result;
+	}
+
+	private static String parsePaxPath(String records) {
+		// "<length> <key>=<value>\n" each
+		int pos = 0;
+		while (pos < records.length()) {
+			int space = records.indexOf(' ', pos);
+			int length = Integer.parseInt(records.substring(pos, space));
+			String record = records.substring(space + 1, pos + length - 1);
+			if (record.startsWith("path=")) {
+				return record.substring(5);
+			}
+			pos += length;
+		}
+		return null;
+	}
+
+	private static long checksum(byte[] h) {
+		long sum = 0;
+		for (int i = 0; i < h.length; ++i) {
+			sum += i >= 148 && i < 156 ? ' ' : h[i] & 0xff;
+		}
+		return sum;
+	}
+
+	private static long octal(byte[] h, int offset, int length) {
+		String s = string(h, offset, length).trim();
+		return s.isEmpty() ? 0 : Long.parseLong(s, 8);
+	}
+
+	private static String string(byte[] h, int offset, int length) {
+		int end = offset;
+		while (end < offset + length && h[end] != 0) {
+			end++;
+		}
+		return new String(h, offset, end - offset, StandardCharsets.UTF_8);
+	}
+
+	private static boolean isZero(byte[] block) {
+		for (byte b : block) {
+			if (b != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static byte[] readAll(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		int n;
+		while ((n = in.read(buffer)) > 0) {
+			out.write(buffer, 0, n);
+		}
+		return out.toByteArray();
+	}
+
+	private static final class TarEntry {
+
+		char type;
+		int mode;
+		String link;
+		byte[] content;
+	}
+
+}
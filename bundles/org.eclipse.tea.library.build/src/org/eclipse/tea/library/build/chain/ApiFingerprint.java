@@ -0,0 +1,212 @@
+/*******************************************************************************
+ *  Copyright (c) 2026 SSI Schaefer IT Solutions GmbH and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  Contributors:
+ *      SSI Schaefer IT Solutions GmbH
+ *******************************************************************************/
+package org.eclipse.tea.library.build.chain;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.ToolFactory;
+import org.eclipse.jdt.core.util.IClassFileAttribute;
+import org.eclipse.jdt.core.util.IClassFileReader;
+import org.eclipse.jdt.core.util.IConstantPoolConstant;
+import org.eclipse.jdt.core.util.IConstantPoolEntry;
+import org.eclipse.jdt.core.util.IFieldInfo;
+import org.eclipse.jdt.core.util.IMethodInfo;
+import org.eclipse.jdt.core.util.IModifierConstants;
+import org.eclipse.jdt.core.util.ISignatureAttribute;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+/**
+ * Calculates a fingerprint of the API a project provides to its dependents.
+ * The fingerprint covers the signatures of all public and protected classes,
+ * fields and methods in the compiled output, values of constants (as they are
+ * inlined by the compiler) and the exported packages of the project.
+ * <p>
+ * If the fingerprint of a project did not change after building it, projects
+ * depending on it do not need to be compiled again.
+ */
+public final class ApiFingerprint {
+
+	/** modifiers that are relevant to the API */
+	private static final int ACCESS_MASK = IModifierConstants.ACC_PUBLIC | IModifierConstants.ACC_PROTECTED
+			| IModifierConstants.ACC_STATIC | IModifierConstants.ACC_FINAL | IModifierConstants.ACC_ABSTRACT
+			| IModifierConstants.ACC_INTERFACE | IModifierConstants.ACC_ANNOTATION | IModifierConstants.ACC_ENUM
+			| IModifierConstants.ACC_VARARGS;
+
+	private ApiFingerprint() {
+	}
+
+	/**
+	 * Calculates the fingerprint of the given element's current output.
+	 *
+	 * @param element
+	 *            the element to calculate the fingerprint for
+	 * @return the fingerprint, or <code>null</code> if it cannot be determined,
+	 *         e.g. as the project is not a Java project.
+	 */
+	public static String compute(TeaBuildProjectElement element) {
+		IProject project = element.getProject();
+		try {
+			if (!project.isOpen() || !project.hasNature(JavaCore.NATURE_ID)) {
+				return null;
+			}
+
+			Hasher hasher = Hashing.sha256().newHasher();
+
+			Collection<String> exports = element.getExportedPackages();
+			if (exports != null) {
+				new TreeSet<>(exports).forEach(e -> hasher.putUnencodedChars("export ").putUnencodedChars(e));
+			}
+
+			for (File output : getOutputFolders(JavaCore.create(project))) {
+				for (Path classFile : listClassFiles(output.toPath())) {
+					String pkg = output.toPath().relativize(classFile.getParent()).toString()
+							.replace(File.separatorChar, '.');
+					if (exports == null || exports.stream().anyMatch(e -> e.equals(pkg) || e.startsWith(pkg + ";"))) {
+						hashClass(hasher, classFile);
+					}
+				}
+			}
+			return hasher.hash().toString();
+		} catch (CoreException | IOException e) {
+			return null;
+		}
+	}
+
+	private static List<File> getOutputFolders(IJavaProject jp) throws CoreException {
+		TreeSet<IPath> paths = new TreeSet<>(Comparator.comparing(IPath::toString));
+		paths.add(jp.getOutputLocation());
+		for (IClasspathEntry entry : jp.getRawClasspath()) {
+			if (entry.getEntryKind() == IClasspathEntry.CPE_SOURCE && entry.getOutputLocation() != null) {
+				paths.add(entry.getOutputLocation());
+			}
+		}
+
+		List<File> result = new ArrayList<>();
+		for (IPath path : paths) {
+			IResource res = ResourcesPlugin.getWorkspace().getRoot().findMember(path);
+			if (res != null && res.getLocation() != null && res.getLocation().toFile().isDirectory()) {
+				result.add(res.getLocation().toFile());
+			}
+		}
+		return result;
+	}
+
+	private static List<Path> listClassFiles(Path root) throws IOException {
+		try (Stream<Path> files = Files.walk(root)) {
+			return files.filter(p -> p.getFileName().toString().endsWith(".class")).sorted()
+					.collect(Collectors.toList());
+		}
+	}
+
+	private static void hashClass(Hasher hasher, Path classFile) throws IOException {
+		IClassFileReader reader = ToolFactory.createDefaultClassFileReader(classFile.toString(),
+				IClassFileReader.ALL_BUT_METHOD_BODIES);
+		if (reader == null) {
+			throw new IOException("cannot read " + classFile);
+		}
+
+		// protected nested classes are public on class file level
+		if ((reader.getAccessFlags() & IModifierConstants.ACC_PUBLIC) == 0) {
+			return;
+		}
+
+		hasher.putUnencodedChars("class ").putUnencodedChars(new String(reader.getClassName()))
+				.putInt(reader.getAccessFlags() & ACCESS_MASK);
+		if (reader.getSuperclassName() != null) {
+			hasher.putUnencodedChars(new String(reader.getSuperclassName()));
+		}
+		Arrays.stream(reader.getInterfaceNames()).map(String::new).sorted().forEach(hasher::putUnencodedChars);
+		putSignature(hasher, reader.getAttributes());
+
+		List<String> members = new ArrayList<>();
+		for (IFieldInfo field : reader.getFieldInfos()) {
+			if (!field.isSynthetic() && isApi(field.getAccessFlags())) {
+				StringBuilder sb = new StringBuilder("field ").append(field.getName()).append(' ')
+						.append(field.getDescriptor()).append(' ').append(field.getAccessFlags() & ACCESS_MASK);
+				if (field.hasConstantValueAttribute()) {
+					sb.append(" = ").append(getConstant(field.getConstantValueAttribute().getConstantValue()));
+				}
+				members.add(sb.append(getSignature(field.getAttributes())).toString());
+			}
+		}
+		for (IMethodInfo method : reader.getMethodInfos()) {
+			if (!method.isSynthetic() && isApi(method.getAccessFlags())) {
+				StringBuilder sb = new StringBuilder("method ").append(method.getName()).append(' ')
+						.append(method.getDescriptor()).append(' ').append(method.getAccessFlags() & ACCESS_MASK);
+				if (method.getExceptionAttribute() != null) {
+					Arrays.stream(method.getExceptionAttribute().getExceptionNames()).map(String::new).sorted()
+							.forEach(e -> sb.append(" throws ").append(e));
+				}
+				members.add(sb.append(getSignature(method.getAttributes())).toString());
+			}
+		}
+		members.stream().sorted().forEach(hasher::putUnencodedChars);
+	}
+
+	private static boolean isApi(int accessFlags) {
+		return (accessFlags & (IModifierConstants.ACC_PUBLIC | IModifierConstants.ACC_PROTECTED)) != 0;
+	}
+
+	private static void putSignature(Hasher hasher, IClassFileAttribute[] attributes) {
+		hasher.putUnencodedChars(getSignature(attributes));
+	}
+
+	/**
+	 * @return the generic signature, which is not part of the descriptor.
+	 */
+	private static String getSignature(IClassFileAttribute[] attributes) {
+		for (IClassFileAttribute attribute : attributes) {
+			if (attribute instanceof ISignatureAttribute) {
+				return " " + new String(((ISignatureAttribute) attribute).getSignature());
+			}
+		}
+		return "";
+	}
+
+	private static String getConstant(IConstantPoolEntry entry) {
+		switch (entry.getKind()) {
+		case IConstantPoolConstant.CONSTANT_Integer:
+			return Integer.toString(entry.getIntegerValue());
+		case IConstantPoolConstant.CONSTANT_Long:
+			return Long.toString(entry.getLongValue());
+		case IConstantPoolConstant.CONSTANT_Float:
+			return Float.toString(entry.getFloatValue());
+		case IConstantPoolConstant.CONSTANT_Double:
+			return Double.toString(entry.getDoubleValue());
+		case IConstantPoolConstant.CONSTANT_String:
+			return '"' + entry.getStringValue() + '"';
+		default:
+			return "?" + entry.getKind();
+		}
+	}
+
+}
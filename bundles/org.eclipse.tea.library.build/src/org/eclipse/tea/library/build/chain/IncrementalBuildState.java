@@ -0,0 +1,356 @@
+/*******************************************************************************
+ *  Copyright (c) 2026 SSI Schaefer IT Solutions GmbH and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  Contributors:
+ *      SSI Schaefer IT Solutions GmbH
+ *******************************************************************************/
+package org.eclipse.tea.library.build.chain;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.resources.IBuildConfiguration;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IncrementalProjectBuilder;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.tea.core.services.TaskingLog;
+import org.eclipse.tea.library.build.chain.plugin.TeaBuildPluginElement;
+import org.eclipse.tea.library.build.internal.Activator;
+import org.eclipse.tea.library.build.model.ParameterValue;
+
+/**
+ * Keeps track of the projects that changed since the last successful
+ * {@link TeaBuildChain} execution, allowing to build only those projects and
+ * the projects depending on them.
+ * <p>
+ * Changes are tracked using resource deltas. Derived resources and Java output
+ * folders are ignored, so that the build itself does not invalidate the state.
+ * Cleaning a project (e.g. using "Project &gt; Clean") forces a full build of
+ * the project the next time.
+ * <p>
+ * Optionally, the {@link ApiFingerprint} of each rebuilt project is compared to
+ * the one recorded by the last successful build. Dependents of projects whose
+ * API did not change are not built again, unless they changed themselves.
+ * Fragments are always built again along with their host.
+ * <p>
+ * The state is kept in memory only. After a restart, the first build is always
+ * a full build, as changes done while the workspace was closed are unknown.
+ */
+public final class IncrementalBuildState {
+
+	private static IncrementalBuildState instance;
+
+	/** change counter per project, removed once a build picked up a change */
+	private final Map<String, Long> changes = new ConcurrentHashMap<>();
+	private final AtomicLong changeCounter = new AtomicLong();
+
+	/** projects that have been successfully built and not cleaned since */
+	private final Set<String> built = ConcurrentHashMap.newKeySet();
+
+	/** API fingerprints per project as of the last successful build */
+	private final Map<String, String> fingerprints = new ConcurrentHashMap<>();
+
+	/** whether a successful build has been recorded */
+	private volatile boolean valid;
+
+	private IncrementalBuildState() {
+	}
+
+	/**
+	 * @return the state for the current workspace. Starts tracking changes on
+	 *         first access.
+	 */
+	public static synchronized IncrementalBuildState getDefault() {
+		if (instance == null) {
+			IncrementalBuildState state = new IncrementalBuildState();
+			ResourcesPlugin.getWorkspace().addResourceChangeListener(state::resourceChanged,
+					IResourceChangeEvent.POST_CHANGE | IResourceChangeEvent.PRE_BUILD);
+			instance = state;
+		}
+		return instance;
+	}
+
+	/**
+	 * Restricts the given {@link TeaBuildChain} to the projects that changed
+	 * since the last successful build and all elements depending on them.
+	 * Projects that have been built successfully before are built using
+	 * {@link IncrementalProjectBuilder#INCREMENTAL_BUILD}.
+	 *
+	 * @param chain
+	 *            the chain to restrict
+	 * @param log
+	 *            the log to report to
+	 * @param apiAvoidance
+	 *            whether to skip building dependents of projects whose
+	 *            {@link ApiFingerprint} did not change.
+	 * @return a snapshot that must be passed to
+	 *         {@link #finish(Snapshot, IStatus)} after the chain has been
+	 *         executed.
+	 */
+	public Snapshot prepare(TeaBuildChain chain, TaskingLog log, boolean apiAvoidance) {
+		Map<String, Long> current = new HashMap<>(changes);
+
+		Collection<TeaBuildElement> toBuild;
+		Set<TeaBuildElement> changed = new HashSet<>();
+		if (!valid) {
+			log.info("no previous build state, building all projects");
+			toBuild = chain.getAllElements();
+			changed.addAll(toBuild);
+		} else {
+			for (TeaBuildElement e : chain.getAllElements()) {
+				if (e instanceof TeaBuildProjectElement
+						&& (current.containsKey(((TeaBuildProjectElement) e).getProject().getName())
+								|| !built.contains(((TeaBuildProjectElement) e).getProject().getName()))) {
+					changed.add(e);
+				}
+			}
+			toBuild = chain.restrictTo(changed);
+			log.info("incremental build: " + changed.size() + " changed, " + toBuild.size() + " elements to build");
+		}
+
+		Set<String> projects = new HashSet<>();
+		for (TeaBuildElement e : toBuild) {
+			if (e instanceof TeaBuildProjectElement) {
+				TeaBuildProjectElement pe = (TeaBuildProjectElement) e;
+				String name = pe.getProject().getName();
+				projects.add(name);
+				pe.setBuildKind(valid && built.contains(name) ? IncrementalProjectBuilder.INCREMENTAL_BUILD
+						: IncrementalProjectBuilder.FULL_BUILD);
+			}
+		}
+		Snapshot snapshot = new Snapshot(current, projects, apiAvoidance);
+		if (apiAvoidance) {
+			chain.setUpToDateCheck(e -> isUpToDate(e, changed, snapshot, log));
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Determines whether an element that did not change itself needs to be
+	 * built, because the API of one of its rebuilt dependencies changed.
+	 */
+	private boolean isUpToDate(TeaBuildElement element, Set<TeaBuildElement> changed, Snapshot snapshot,
+			TaskingLog log) {
+		if (!changed.contains(element)) {
+			boolean apiChanged = false;
+			for (TeaDependencyWire wire : element.getDependencyWires()) {
+				// fragments may use non-API members of their host
+				if (snapshot.visited.contains(wire.getTarget())
+						&& (isFragmentHost(element, wire.getTarget()) || hasApiChanged(wire.getTarget(), snapshot))) {
+					apiChanged = true;
+					break;
+				}
+			}
+			if (!apiChanged) {
+				log.debug("skipping " + element.getName() + ", API of dependencies did not change");
+				return true;
+			}
+		}
+
+		snapshot.visited.add(element);
+		return false;
+	}
+
+	private static boolean isFragmentHost(TeaBuildElement fragment, TeaBuildElement host) {
+		if (!(fragment instanceof TeaBuildPluginElement) || !(host instanceof TeaBuildPluginElement)) {
+			return false;
+		}
+		ParameterValue fragmentHost = ((TeaBuildPluginElement) fragment).getPlugin().getData().getFragmentHost();
+		return fragmentHost != null && fragmentHost.getValue().equals(host.getName());
+	}
+
+	private boolean hasApiChanged(TeaBuildElement element, Snapshot snapshot) {
+		if (!(element instanceof TeaBuildProjectElement)) {
+			return true;
+		}
+		return snapshot.apiChanged.computeIfAbsent(element, e -> {
+			String name = ((TeaBuildProjectElement) e).getProject().getName();
+			String fingerprint = ApiFingerprint.compute((TeaBuildProjectElement) e);
+			if (fingerprint != null) {
+				snapshot.fingerprints.put(name, fingerprint);
+			}
+			return fingerprint == null || !fingerprint.equals(fingerprints.get(name));
+		});
+	}
+
+	/**
+	 * Records the result of a build prepared using
+	 * {@link #prepare(TeaBuildChain, TaskingLog, boolean)}. Only a successful
+	 * build updates the state. Changes that happened while building are kept
+	 * for the next build.
+	 * <p>
+	 * The recorded {@link ApiFingerprint}s of all rebuilt projects are updated
+	 * if API avoidance was used. They are forgotten if the build failed or did
+	 * not use API avoidance, so that a later build never compares against an
+	 * outdated fingerprint.
+	 *
+	 * @param snapshot
+	 *            the snapshot returned by prepare
+	 * @param result
+	 *            the overall result of the build
+	 */
+	public synchronized void finish(Snapshot snapshot, IStatus result) {
+		if (result.getSeverity() > IStatus.WARNING) {
+			// the builder state of failed projects is unknown
+			built.removeAll(snapshot.projects);
+			fingerprints.keySet().removeAll(snapshot.projects);
+			return;
+		}
+
+		built.addAll(snapshot.projects);
+		snapshot.changes.forEach(changes::remove);
+		valid = true;
+
+		if (!snapshot.apiAvoidance) {
+			// rebuilt without computing fingerprints
+			fingerprints.keySet().removeAll(snapshot.projects);
+		} else {
+			for (TeaBuildElement e : snapshot.visited) {
+				if (e instanceof TeaBuildProjectElement) {
+					String name = ((TeaBuildProjectElement) e).getProject().getName();
+					String fingerprint = snapshot.fingerprints.containsKey(name) ? snapshot.fingerprints.get(name)
+							: ApiFingerprint.compute((TeaBuildProjectElement) e);
+					if (fingerprint == null) {
+						fingerprints.remove(name);
+					} else {
+						fingerprints.put(name, fingerprint);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Forgets all recorded state, causing the next build to be a full build.
+	 */
+	public synchronized void reset() {
+		valid = false;
+		built.clear();
+		changes.clear();
+		fingerprints.clear();
+	}
+
+	private void changed(IProject project) {
+		changes.put(project.getName(), changeCounter.incrementAndGet());
+	}
+
+	private void resourceChanged(IResourceChangeEvent event) {
+		if (event.getType() == IResourceChangeEvent.PRE_BUILD) {
+			if (event.getBuildKind() == IncrementalProjectBuilder.CLEAN_BUILD) {
+				Object source = event.getSource();
+				if (source instanceof IBuildConfiguration) {
+					source = ((IBuildConfiguration) source).getProject();
+				}
+				if (source instanceof IProject) {
+					built.remove(((IProject) source).getName());
+					changed((IProject) source);
+				} else {
+					reset();
+				}
+			}
+			return;
+		}
+
+		IResourceDelta delta = event.getDelta();
+		if (delta == null) {
+			return;
+		}
+		for (IResourceDelta projectDelta : delta.getAffectedChildren()) {
+			IProject project = (IProject) projectDelta.getResource();
+			if (projectDelta.getKind() != IResourceDelta.CHANGED
+					|| (projectDelta.getFlags() & (IResourceDelta.OPEN | IResourceDelta.DESCRIPTION)) != 0) {
+				built.remove(project.getName());
+				changed(project);
+			} else if (hasSourceChanges(project, projectDelta)) {
+				changed(project);
+			}
+		}
+	}
+
+	private static boolean hasSourceChanges(IProject project, IResourceDelta projectDelta) {
+		List<IPath> outputs = getOutputLocations(project);
+		boolean[] result = new boolean[1];
+		try {
+			projectDelta.accept(d -> {
+				IResource resource = d.getResource();
+				if (result[0] || resource.isDerived(IResource.CHECK_ANCESTORS)) {
+					return false;
+				}
+				for (IPath output : outputs) {
+					if (output.isPrefixOf(resource.getFullPath())) {
+						return false;
+					}
+				}
+				if (resource.getType() == IResource.FILE && (d.getKind() != IResourceDelta.CHANGED
+						|| (d.getFlags() & (IResourceDelta.CONTENT | IResourceDelta.REPLACED)) != 0)) {
+					result[0] = true;
+				}
+				return true;
+			});
+		} catch (CoreException e) {
+			Activator.log(IStatus.WARNING, "cannot process resource delta of " + project.getName(), e);
+			return true;
+		}
+		return result[0];
+	}
+
+	private static List<IPath> getOutputLocations(IProject project) {
+		List<IPath> result = new ArrayList<>();
+		try {
+			if (project.isOpen() && project.hasNature(JavaCore.NATURE_ID)) {
+				IJavaProject jp = JavaCore.create(project);
+				result.add(jp.getOutputLocation());
+				for (IClasspathEntry entry : jp.getRawClasspath()) {
+					if (entry.getOutputLocation() != null) {
+						result.add(entry.getOutputLocation());
+					}
+				}
+			}
+		} catch (CoreException e) {
+			// no output locations known, treat everything as source
+		}
+		return result;
+	}
+
+	/**
+	 * State captured when preparing a build.
+	 */
+	public static final class Snapshot {
+
+		private final Map<String, Long> changes;
+		private final Set<String> projects;
+		private final boolean apiAvoidance;
+
+		/** elements that have been visited by the chain */
+		private final Set<TeaBuildElement> visited = ConcurrentHashMap.newKeySet();
+		private final Map<TeaBuildElement, Boolean> apiChanged = new ConcurrentHashMap<>();
+		private final Map<String, String> fingerprints = new ConcurrentHashMap<>();
+
+		private Snapshot(Map<String, Long> changes, Set<String> projects, boolean apiAvoidance) {
+			this.changes = changes;
+			this.projects = projects;
+			this.apiAvoidance = apiAvoidance;
+		}
+	}
+
+}
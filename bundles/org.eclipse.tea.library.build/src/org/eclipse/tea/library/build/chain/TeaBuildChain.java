@@ -16,12 +16,17 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
@@ -72,6 +77,10 @@ public class TeaBuildChain {
 	private final Map<Integer, List<TeaBuildElement>> groupedElements = new TreeMap<>();
 	private final List<TeaBuildVisitor> visitors;
 	private final IEclipseContext context;
+	private Predicate<TeaBuildElement> upToDateCheck = e -> false;
+
+	/** elements that failed to build in the current execution */
+	private final Set<TeaBuildElement> failed = new HashSet<>();
 
 	private static final String PROJECTS_KEY = "TeaBuildChain.projectsToBuild";
 
@@ -186,6 +195,79 @@ public class TeaBuildChain {
 		return namedElements.values();
 	}
 
+	/**
+	 * Restricts further processing to the given elements and all elements
+	 * depending on them, directly or indirectly. All other elements are
+	 * considered to be up to date, see {@link TeaBuildElement#upToDate()}.
+	 *
+	 * @param changed
+	 *            the elements that need to be built
+	 * @return all elements that remain to be built.
+	 */
+	public Collection<TeaBuildElement> restrictTo(Collection<TeaBuildElement> changed) {
+		Map<TeaBuildElement, List<TeaBuildElement>> dependents = new HashMap<>();
+		for (TeaBuildElement e : namedElements.values()) {
+			for (TeaDependencyWire wire : e.getDependencyWires()) {
+				dependents.computeIfAbsent(wire.getTarget(), k -> new ArrayList<>()).add(e);
+			}
+		}
+
+		Set<TeaBuildElement> affected = new HashSet<>();
+		ArrayDeque<TeaBuildElement> queue = new ArrayDeque<>(changed);
+		while (!queue.isEmpty()) {
+			TeaBuildElement e = queue.poll();
+			if (affected.add(e)) {
+				queue.addAll(dependents.getOrDefault(e, Collections.emptyList()));
+			}
+		}
+
+		List<TeaBuildElement> result = new ArrayList<>();
+		for (Iterator<List<TeaBuildElement>> it = groupedElements.values().iterator(); it.hasNext();) {
+			List<TeaBuildElement> group = it.next();
+			for (Iterator<TeaBuildElement> git = group.iterator(); git.hasNext();) {
+				TeaBuildElement e = git.next();
+				if (affected.contains(e)) {
+					result.add(e);
+				} else {
+					e.upToDate();
+					git.remove();
+				}
+			}
+			if (group.isEmpty()) {
+				it.remove();
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Sets a check that is consulted right before an element is visited, once
+	 * all of its dependencies have been processed. Elements for which the check
+	 * returns <code>true</code> are not visited, but considered to be up to
+	 * date, see {@link TeaBuildElement#upToDate()}. The check is not consulted
+	 * for elements with a dependency that failed to build.
+	 *
+	 * @param check
+	 *            the check to use
+	 */
+	public void setUpToDateCheck(Predicate<TeaBuildElement> check) {
+		this.upToDateCheck = check;
+	}
+
+	private boolean skipIfUpToDate(TeaBuildElement element) {
+		for (TeaDependencyWire wire : element.getDependencyWires()) {
+			if (failed.contains(wire.getTarget())) {
+				// visit, so that the failure is propagated
+				return false;
+			}
+		}
+		if (upToDateCheck.test(element)) {
+			element.upToDate();
+			return true;
+		}
+		return false;
+	}
+
 	/**
 	 * @return the amount of work, equaling the amount of participating
 	 *         {@link TeaBuildElement}s.
@@ -210,14 +292,8 @@ public class TeaBuildChain {
 	 * @return {@link IStatus} describing the overall build status.
 	 */
 	public IStatus execute(TaskProgressTracker tracker, long failureThreshold) {
-		MultiStatus ms = new MultiStatus(Activator.PLUGIN_ID, IStatus.OK, "Build", null);
-		context.set(IStatus.class, ms);
-
-		for (TeaBuildVisitor visitor : visitors) {
-			ContextInjectionFactory.invoke(visitor, Execute.class, context, null);
-		}
-
-		long failures = 0;
+		MultiStatus ms = begin();
+		AtomicLong failures = new AtomicLong();
 
 		// elements are in order already
 		for (Map.Entry<Integer, List<TeaBuildElement>> entry : groupedElements.entrySet()) {
@@ -226,46 +302,159 @@ public class TeaBuildChain {
 			}
 
 			tracker.setTaskName("Processing Group " + entry.getKey());
-			for (TeaBuildVisitor visitor : visitors) {
-				for (TeaBuildElement e : entry.getValue()) {
-					if (getVisitPolicyFor(e) == VisitPolicy.ABORT_IF_PREVIOUS_ERROR) {
-						if (ms.getSeverity() > IStatus.WARNING) {
-							// report the Error
-							ms.add(new Status(ms.getSeverity(), Activator.PLUGIN_ID,
-									"Abort prior to executing " + e.getName() + " due to previous error"));
-							return ms;
-						}
+			List<TeaBuildElement> toVisit = entry.getValue().stream().filter(e -> !skipIfUpToDate(e))
+					.collect(Collectors.toList());
+			if (visitAll(toVisit, ms, failures, failureThreshold)) {
+				return ms;
+			}
+			tracker.worked(1);
+		}
+
+		return ms;
+	}
+
+	/**
+	 * Execute the {@link TeaBuildChain}, building all {@link TeaBuildElement}s
+	 * participating. In contrast to {@link #execute(TaskProgressTracker, long)}
+	 * there are no barriers between groups: each {@link TeaBuildVisitor} is
+	 * passed all elements at once, in build order, and is responsible to
+	 * process each element only after its dependencies. This allows visitors
+	 * to start an element as soon as its own dependencies are done, e.g. by
+	 * compiling all projects in a single workspace build.
+	 * <p>
+	 * Elements with {@link VisitPolicy#ABORT_IF_PREVIOUS_ERROR} still wait for
+	 * all elements before them in build order, so that they are not visited
+	 * after an error. The up-to-date check is not consulted, as it may depend
+	 * on the outcome of building the dependencies.
+	 *
+	 * @param tracker
+	 *            a {@link TaskProgressTracker} to update progress on. Also used
+	 *            for cancellation check. Total progress can be queried using
+	 *            {@link #getTotalProgress()} for tracker setup.
+	 * @param failureThreshold
+	 *            the amount of failed build elements before stopping any
+	 *            further processing. As all elements are visited at once, the
+	 *            threshold only stops evaluating results and visiting further
+	 *            visitors.
+	 * @return {@link IStatus} describing the overall build status.
+	 */
+	public IStatus executeGraph(TaskProgressTracker tracker, long failureThreshold) {
+		MultiStatus ms = begin();
+		AtomicLong failures = new AtomicLong();
+
+		List<TeaBuildElement> toVisit = new ArrayList<>();
+		for (List<TeaBuildElement> group : groupedElements.values()) {
+			for (TeaBuildElement e : group) {
+				if (getVisitPolicyFor(e) == VisitPolicy.ABORT_IF_PREVIOUS_ERROR && !toVisit.isEmpty()) {
+					if (visitSegment(tracker, toVisit, ms, failures, failureThreshold)) {
+						return ms;
 					}
+					toVisit = new ArrayList<>();
 				}
+				toVisit.add(e);
+			}
+		}
+		if (!visitSegment(tracker, toVisit, ms, failures, failureThreshold)) {
+			tracker.worked(groupedElements.size());
+		}
+
+		return ms;
+	}
+
+	private boolean visitSegment(TaskProgressTracker tracker, List<TeaBuildElement> toVisit, MultiStatus ms,
+			AtomicLong failures, long failureThreshold) {
+		if (tracker.isCanceled()) {
+			throw new OperationCanceledException();
+		}
+
+		tracker.setTaskName("Processing " + toVisit.size() + " elements");
+		return visitAll(toVisit, ms, failures, failureThreshold);
+	}
+
+	/**
+	 * Prepares all visitors for a new execution.
+	 *
+	 * @return the {@link MultiStatus} collecting the overall result.
+	 */
+	private MultiStatus begin() {
+		MultiStatus ms = new MultiStatus(Activator.PLUGIN_ID, IStatus.OK, "Build", null);
+		context.set(IStatus.class, ms);
+
+		for (TeaBuildVisitor visitor : visitors) {
+			ContextInjectionFactory.invoke(visitor, Execute.class, context, null);
+		}
 
-				Map<TeaBuildElement, IStatus> results = Optional.of(visitor.visit(entry.getValue()))
-						.orElse(Collections.emptyMap());
-
-				for (Entry<TeaBuildElement, IStatus> result : results.entrySet()) {
-					IStatus status = result.getValue();
-					if (status.getSeverity() > IStatus.WARNING) {
-						TeaBuildElement element = result.getKey();
-						switch (getFailurePolicyFor(element)) {
-						case ABORT_IMMEDIATE:
-							ms.add(status);
-							return ms;
-						case IGNORE:
-							ms.add(new Status(IStatus.WARNING, Activator.PLUGIN_ID,
-									"Ignored failure in element " + element.getName()));
-							break;
-						case USE_THRESHOLD:
-							ms.add(status);
-							if (failures++ >= failureThreshold) {
-								return ms;
-							}
-						}
+		failed.clear();
+		return ms;
+	}
+
+	/**
+	 * Passes the given elements to all visitors and records the results in the
+	 * order of the given elements.
+	 *
+	 * @return <code>true</code> if processing must stop.
+	 */
+	private boolean visitAll(List<TeaBuildElement> toVisit, MultiStatus ms, AtomicLong failures,
+			long failureThreshold) {
+		for (TeaBuildVisitor visitor : visitors) {
+			for (TeaBuildElement e : toVisit) {
+				if (getVisitPolicyFor(e) == VisitPolicy.ABORT_IF_PREVIOUS_ERROR) {
+					if (ms.getSeverity() > IStatus.WARNING) {
+						// report the Error
+						ms.add(new Status(ms.getSeverity(), Activator.PLUGIN_ID,
+								"Abort prior to executing " + e.getName() + " due to previous error"));
+						return true;
 					}
 				}
 			}
-			tracker.worked(1);
+
+			if (toVisit.isEmpty()) {
+				break;
+			}
+
+			Map<TeaBuildElement, IStatus> results = Optional.ofNullable(visitor.visit(toVisit))
+					.orElse(Collections.emptyMap());
+
+			for (TeaBuildElement e : toVisit) {
+				IStatus result = results.get(e);
+				if (result == null) {
+					continue;
+				}
+				if (result.getSeverity() > IStatus.WARNING) {
+					failed.add(e);
+				}
+				if (handleResult(ms, e, result, failures, failureThreshold)) {
+					return true;
+				}
+			}
 		}
+		return false;
+	}
 
-		return ms;
+	/**
+	 * Records the result of visiting a single element according to the
+	 * element's {@link FailurePolicy}.
+	 *
+	 * @return <code>true</code> if processing must stop.
+	 */
+	private static boolean handleResult(MultiStatus ms, TeaBuildElement element, IStatus status, AtomicLong failures,
+			long failureThreshold) {
+		if (status.getSeverity() <= IStatus.WARNING) {
+			return false;
+		}
+
+		switch (getFailurePolicyFor(element)) {
+		case ABORT_IMMEDIATE:
+			ms.add(status);
+			return true;
+		case IGNORE:
+			ms.add(new Status(IStatus.WARNING, Activator.PLUGIN_ID, "Ignored failure in element " + element.getName()));
+			return false;
+		case USE_THRESHOLD:
+		default:
+			ms.add(status);
+			return failures.getAndIncrement() >= failureThreshold;
+		}
 	}
 
 	/**
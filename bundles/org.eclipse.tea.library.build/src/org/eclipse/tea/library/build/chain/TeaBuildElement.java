@@ -132,6 +132,14 @@ public abstract class TeaBuildElement implements Comparable<TeaBuildElement> {
 		return selfWire;
 	}
 
+	/**
+	 * Called by the {@link TeaBuildChain} instead of visiting this element, in
+	 * case it does not need to be built as it is up to date.
+	 */
+	public void upToDate() {
+		// nothing to do by default
+	}
+
 	@Override
 	public String toString() {
 		return getClass().getSimpleName() + ", name=" + getName();
@@ -11,11 +11,13 @@
 package org.eclipse.tea.library.build.chain;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IncrementalProjectBuilder;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
@@ -30,6 +32,9 @@ public abstract class TeaBuildProjectElement extends TeaBuildElement {
 
 	private final IProject project;
 
+	/** the kind of build to use when compiling the project */
+	private int buildKind = IncrementalProjectBuilder.FULL_BUILD;
+
 	/**
 	 * @param project
 	 *            the {@link IProject} to associate with this
@@ -46,6 +51,34 @@ public abstract class TeaBuildProjectElement extends TeaBuildElement {
 		return project;
 	}
 
+	/**
+	 * @return the kind of build to use when compiling the associated
+	 *         {@link IProject}, see {@link IncrementalProjectBuilder}.
+	 */
+	public int getBuildKind() {
+		return buildKind;
+	}
+
+	/**
+	 * @param buildKind
+	 *            the kind of build to use when compiling the associated
+	 *            {@link IProject}, either
+	 *            {@link IncrementalProjectBuilder#FULL_BUILD} or
+	 *            {@link IncrementalProjectBuilder#INCREMENTAL_BUILD}.
+	 */
+	public void setBuildKind(int buildKind) {
+		this.buildKind = buildKind;
+	}
+
+	/**
+	 * @return the packages exported to dependents as manifest clauses
+	 *         (package name, optionally followed by attributes). <code>null</code>
+	 *         if all packages are visible to dependents.
+	 */
+	public Collection<String> getExportedPackages() {
+		return null;
+	}
+
 	/**
 	 * @return a {@link List} of all {@link IMarker}s of the associated
 	 *         {@link IProject} of type {@link IMarker#PROBLEM} converted to
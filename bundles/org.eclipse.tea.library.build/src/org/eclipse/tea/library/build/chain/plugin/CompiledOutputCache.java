@@ -0,0 +1,428 @@
+/*******************************************************************************
+ *  Copyright (c) 2026 SSI Schaefer IT Solutions GmbH and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  Contributors:
+ *      SSI Schaefer IT Solutions GmbH
+ *******************************************************************************/
+package org.eclipse.tea.library.build.chain.plugin;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaModelMarker;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.tea.core.services.TaskingLog;
+import org.eclipse.tea.library.build.chain.ApiFingerprint;
+import org.eclipse.tea.library.build.chain.TeaBuildElement;
+import org.eclipse.tea.library.build.chain.TeaBuildProjectElement;
+import org.eclipse.tea.library.build.chain.TeaDependencyWire;
+import org.eclipse.tea.library.build.config.TeaBuildConfig;
+import org.eclipse.tea.library.build.internal.Activator;
+import org.eclipse.tea.library.build.model.ParameterValue;
+import org.eclipse.tea.library.build.model.PluginData;
+import org.eclipse.tea.library.build.util.CacheDirectory;
+import org.eclipse.tea.library.build.util.FileUtils;
+import org.eclipse.tea.library.build.util.RemoteBuildCache;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+/**
+ * Persistent cache for the compiled output of plugins. Used by the
+ * {@link TeaBuildPluginVisitor} to restore the output folders of a plugin
+ * instead of compiling it.
+ * <p>
+ * The key of a plugin is calculated from its sources, project metadata and
+ * compiler settings, all libraries on its classpath, and the
+ * {@link ApiFingerprint} of all workspace projects it depends on. For the host
+ * of a fragment, its complete output is used instead, as fragments may use
+ * non-API members of their host. Thus dependencies must be built (or restored)
+ * before the key of a plugin can be calculated.
+ * <p>
+ * Entries contain all output folders ({@link PluginData#getBinaryFolders()}).
+ * Restored folders are refreshed in the workspace, but JDT does not know about
+ * them: a later incremental build of a restored plugin is a full build.
+ */
+public final class CompiledOutputCache {
+
+	/** increment whenever the key calculation or entry format changes */
+	private static final int FORMAT_VERSION = 1;
+
+	private static final String REMOTE_NAMESPACE = "bin";
+
+	/** one instance per directory, so statistics and content are shared */
+	private static final Map<File, CompiledOutputCache> caches = new HashMap<>();
+
+	private final CacheDirectory directory;
+	private volatile long maxSize;
+	private volatile RemoteBuildCache remote;
+
+	/** keys of plugins looked up but not restored, used to store them later */
+	private final Map<TeaBuildPluginElement, String> pending = new ConcurrentHashMap<>();
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong uncacheable = new AtomicLong();
+	private final AtomicLong stored = new AtomicLong();
+
+	private CompiledOutputCache(File directory) {
+		this.directory = new CacheDirectory(directory, ".zip");
+	}
+
+	/**
+	 * @param config
+	 *            the configuration determining whether and how to cache.
+	 * @return the cache configured in the given {@link TeaBuildConfig}, or
+	 *         <code>null</code> if the cache is disabled.
+	 */
+	public static synchronized CompiledOutputCache open(TeaBuildConfig config) {
+		if (!config.compiledOutputCache || config.compiledOutputCacheMaxSize <= 0) {
+			return null;
+		}
+
+		File dir = Platform.getStateLocation(Activator.getContext().getBundle()).append("output-cache").toFile();
+		CompiledOutputCache cache = caches.computeIfAbsent(dir, CompiledOutputCache::new);
+		cache.maxSize = config.compiledOutputCacheMaxSize * 1024 * 1024;
+		cache.remote = RemoteBuildCache.open(config);
+		return cache;
+	}
+
+	/**
+	 * Tries to restore the output folders of the given plugin from the cache.
+	 * All dependencies of the plugin must have been built already.
+	 *
+	 * @return <code>true</code> if the output has been restored, so the plugin
+	 *         does not need to be compiled.
+	 */
+	public boolean restore(TeaBuildPluginElement element, TaskingLog log) {
+		String key;
+		try {
+			key = computeKey(element);
+		} catch (Exception e) {
+			log.debug("cannot calculate output cache key for " + element.getName() + ": " + e);
+			key = null;
+		}
+
+		if (key == null) {
+			uncacheable.incrementAndGet();
+			return false;
+		}
+
+		File entry = directory.getEntry(key);
+		if (!directory.lookup(entry) && (remote == null || !remote.load(REMOTE_NAMESPACE, key, entry))) {
+			misses.incrementAndGet();
+			pending.put(element, key);
+			return false;
+		}
+
+		try {
+			extract(element, entry);
+			hits.incrementAndGet();
+			log.debug("restored output of " + element.getName() + " from cache");
+			return true;
+		} catch (Exception e) {
+			log.warn("cannot restore output of " + element.getName() + " from cache, compiling", e);
+			entry.delete();
+			misses.incrementAndGet();
+			pending.put(element, key);
+			return false;
+		}
+	}
+
+	/**
+	 * Stores the output folders of the given plugin after it has been compiled
+	 * successfully. Does nothing if the plugin has not been looked up before
+	 * using {@link #restore(TeaBuildPluginElement, TaskingLog)}.
+	 */
+	public void store(TeaBuildPluginElement element, TaskingLog log) {
+		String key = pending.remove(element);
+		if (key == null) {
+			return;
+		}
+
+		File tmp = directory.createTempDirectory();
+		try {
+			File archive = new File(tmp, key + ".zip");
+			archive(element, archive);
+			File entry = directory.getEntry(key);
+			directory.commit(archive, entry);
+			stored.incrementAndGet();
+			if (remote != null) {
+				remote.store(REMOTE_NAMESPACE, key, entry);
+			}
+		} catch (Exception e) {
+			log.warn("cannot store output of " + element.getName() + " in cache", e);
+		} finally {
+			FileUtils.deleteDirectory(tmp);
+		}
+	}
+
+	/**
+	 * Logs cache statistics, resets them and evicts the least recently used
+	 * entries until the cache fits its configured size.
+	 */
+	public void finish(TaskingLog log) {
+		pending.clear();
+
+		long hitCnt = hits.getAndSet(0);
+		long missCnt = misses.getAndSet(0);
+		int evicted = directory.trim(maxSize);
+		long total = hitCnt + missCnt;
+		log.info("Output cache: hit=" + hitCnt + ", miss=" + missCnt + ", uncacheable=" + uncacheable.getAndSet(0)
+				+ ", stored=" + stored.getAndSet(0) + ", hit rate=" + (total == 0 ? 0 : hitCnt * 100 / total)
+				+ "%, evicted=" + evicted + ", size=" + (directory.getSize() / 1024 / 1024) + "MB of "
+				+ (maxSize / 1024 / 1024) + "MB");
+		if (remote != null) {
+			remote.finish(log, "Output");
+		}
+	}
+
+	/**
+	 * @return the cache key of the given plugin, <code>null</code> if the
+	 *         plugin cannot be cached.
+	 */
+	private static String computeKey(TeaBuildPluginElement element) throws Exception {
+		PluginData data = element.getPlugin().getData();
+		IProject project = data.getProject();
+		File bundleDir = data.getBundleDir();
+		if (data.isBinary() || bundleDir == null || !project.hasNature(JavaCore.NATURE_ID)) {
+			return null;
+		}
+
+		// output folders are replaced on restore, they must be real sub-folders
+		Set<String> folders = getOutputFolders(data);
+		Path base = bundleDir.toPath().normalize();
+		for (String folder : folders) {
+			Path p = base.resolve(folder).normalize();
+			if (!p.startsWith(base) || p.equals(base)) {
+				return null;
+			}
+		}
+		if (folders.isEmpty()) {
+			return null;
+		}
+
+		Hasher hasher = Hashing.sha256().newHasher();
+		hasher.putInt(FORMAT_VERSION);
+		hasher.putUnencodedChars(JavaCore.getPlugin().getBundle().getVersion().toString()).putByte((byte) 0);
+		hasher.putUnencodedChars(project.getName()).putByte((byte) 0);
+
+		// compiler settings
+		IJavaProject javaProject = JavaCore.create(project);
+		for (Map.Entry<String, String> option : new TreeMap<>(javaProject.getOptions(true)).entrySet()) {
+			hasher.putUnencodedChars(option.getKey()).putByte((byte) 0);
+			hasher.putUnencodedChars(String.valueOf(option.getValue())).putByte((byte) 0);
+		}
+
+		// project metadata and sources
+		for (String meta : new String[] { ".project", ".classpath", ".factorypath", ".settings",
+				"META-INF/MANIFEST.MF", "build.properties" }) {
+			CacheDirectory.hashInput(hasher, bundleDir, new File(bundleDir, meta));
+		}
+		Set<String> sources = new TreeSet<>();
+		for (IClasspathEntry cpe : javaProject.getRawClasspath()) {
+			if (cpe.getEntryKind() == IClasspathEntry.CPE_SOURCE) {
+				sources.add(cpe.getPath().removeFirstSegments(1).toString());
+			}
+		}
+		for (String source : sources) {
+			CacheDirectory.hashInput(hasher, bundleDir, new File(bundleDir, source));
+		}
+
+		// everything on the classpath
+		Map<IProject, TeaBuildProjectElement> dependencies = getDependencies(element);
+		for (IClasspathEntry cpe : javaProject.getResolvedClasspath(true)) {
+			switch (cpe.getEntryKind()) {
+			case IClasspathEntry.CPE_LIBRARY:
+				File lib = getLocation(cpe.getPath());
+				hasher.putUnencodedChars(cpe.getPath().toString()).putByte((byte) 0);
+				if (lib != null) {
+					CacheDirectory.hashInput(hasher, lib.getParentFile(), lib);
+				}
+				break;
+			case IClasspathEntry.CPE_PROJECT:
+				IProject dependency = project.getWorkspace().getRoot().getProject(cpe.getPath().lastSegment());
+				TeaBuildProjectElement target = dependencies.get(dependency);
+				hasher.putUnencodedChars(dependency.getName()).putByte((byte) 0);
+				if (isFragmentHost(data, target)) {
+					// fragments may use non-API members of their host
+					if (!hashOutput(hasher, ((TeaBuildPluginElement) target).getPlugin().getData())) {
+						return null;
+					}
+					break;
+				}
+				String fingerprint = target == null ? null : ApiFingerprint.compute(target);
+				if (fingerprint == null) {
+					return null;
+				}
+				hasher.putUnencodedChars(fingerprint).putByte((byte) 0);
+				break;
+			default:
+				break;
+			}
+		}
+
+		return hasher.hash().toString();
+	}
+
+	private static boolean isFragmentHost(PluginData fragment, TeaBuildProjectElement host) {
+		ParameterValue fragmentHost = fragment.getFragmentHost();
+		return fragmentHost != null && host instanceof TeaBuildPluginElement
+				&& fragmentHost.getValue().equals(host.getName());
+	}
+
+	/**
+	 * Hashes the complete compiled output of the given plugin.
+	 *
+	 * @return <code>false</code> if the plugin has no output that can be
+	 *         hashed.
+	 */
+	private static boolean hashOutput(Hasher hasher, PluginData data) throws IOException {
+		File bundleDir = data.getBundleDir();
+		Set<String> folders = getOutputFolders(data);
+		if (data.isBinary() || bundleDir == null || folders.isEmpty()) {
+			return false;
+		}
+		for (String folder : folders) {
+			CacheDirectory.hashInput(hasher, bundleDir, new File(bundleDir, folder));
+		}
+		return true;
+	}
+
+	/**
+	 * @return the file system location of a classpath entry path, which is
+	 *         either workspace relative or absolute.
+	 */
+	private static File getLocation(IPath path) {
+		IResource resource = ResourcesPlugin.getWorkspace().getRoot().findMember(path);
+		if (resource != null && resource.getLocation() != null) {
+			return resource.getLocation().toFile();
+		}
+		return path.toFile();
+	}
+
+	/**
+	 * @return all project elements the given element depends on, directly or
+	 *         transitively.
+	 */
+	private static Map<IProject, TeaBuildProjectElement> getDependencies(TeaBuildElement element) {
+		Map<IProject, TeaBuildProjectElement> result = new HashMap<>();
+		Set<TeaBuildElement> seen = new HashSet<>();
+		Deque<TeaBuildElement> queue = new ArrayDeque<>();
+		queue.add(element);
+		while (!queue.isEmpty()) {
+			for (TeaDependencyWire wire : queue.poll().getDependencyWires()) {
+				TeaBuildElement target = wire.getTarget();
+				if (seen.add(target)) {
+					if (target instanceof TeaBuildProjectElement) {
+						TeaBuildProjectElement pe = (TeaBuildProjectElement) target;
+						result.put(pe.getProject(), pe);
+					}
+					queue.add(target);
+				}
+			}
+		}
+		return result;
+	}
+
+	private static Set<String> getOutputFolders(PluginData data) {
+		return data.getBinaryFolders().values().stream().flatMap(List::stream)
+				.collect(Collectors.toCollection(TreeSet::new));
+	}
+
+	private static void archive(TeaBuildPluginElement element, File archive) throws IOException {
+		PluginData data = element.getPlugin().getData();
+		Path base = data.getBundleDir().toPath();
+		try (ZipOutputStream zos = new ZipOutputStream(
+				new BufferedOutputStream(new FileOutputStream(archive)))) {
+			for (String folder : getOutputFolders(data)) {
+				Path root = base.resolve(folder);
+				if (!Files.isDirectory(root)) {
+					continue;
+				}
+				List<Path> files;
+				try (Stream<Path> s = Files.walk(root)) {
+					files = s.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+				}
+				for (Path file : files) {
+					ZipEntry ze = new ZipEntry(base.relativize(file).toString().replace('\\', '/'));
+					ze.setTime(Files.getLastModifiedTime(file).toMillis());
+					zos.putNextEntry(ze);
+					Files.copy(file, zos);
+					zos.closeEntry();
+				}
+			}
+		}
+	}
+
+	private static void extract(TeaBuildPluginElement element, File archive) throws Exception {
+		PluginData data = element.getPlugin().getData();
+		IProject project = data.getProject();
+		Path base = data.getBundleDir().toPath().normalize();
+
+		Set<String> folders = getOutputFolders(data);
+		for (String folder : folders) {
+			FileUtils.deleteDirectory(base.resolve(folder).toFile());
+		}
+
+		try (ZipInputStream zis = new ZipInputStream(new BufferedInputStream(new FileInputStream(archive)))) {
+			ZipEntry ze;
+			while ((ze = zis.getNextEntry()) != null) {
+				Path target = base.resolve(ze.getName()).normalize();
+				if (!target.startsWith(base) || ze.isDirectory()) {
+					continue;
+				}
+				Files.createDirectories(target.getParent());
+				Files.copy(zis, target);
+				Files.setLastModifiedTime(target, FileTime.fromMillis(ze.getTime()));
+			}
+		}
+
+		for (String folder : folders) {
+			IFolder f = project.getFolder(folder);
+			f.refreshLocal(IResource.DEPTH_INFINITE, null);
+			if (f.exists()) {
+				f.setDerived(true, null);
+			}
+		}
+
+		// entries are only created for plugins without errors
+		project.deleteMarkers(IJavaModelMarker.JAVA_MODEL_PROBLEM_MARKER, true, IResource.DEPTH_INFINITE);
+	}
+
+}
@@ -10,9 +10,16 @@
  *******************************************************************************/
 package org.eclipse.tea.library.build.chain.plugin;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
 import org.eclipse.tea.library.build.chain.TeaBuildElement;
 import org.eclipse.tea.library.build.chain.TeaBuildProjectElement;
 import org.eclipse.tea.library.build.chain.TeaDependencyWire;
+import org.eclipse.tea.library.build.model.ParameterValue;
 import org.eclipse.tea.library.build.model.PluginBuild;
 import org.eclipse.tea.library.build.services.TeaElementFailurePolicy;
 import org.eclipse.tea.library.build.services.TeaElementFailurePolicy.FailurePolicy;
@@ -75,6 +82,14 @@ public class TeaBuildPluginElement extends TeaBuildProjectElement {
 		state = State.OK;
 	}
 
+	/**
+	 * The plugin has been built before and did not change since.
+	 */
+	@Override
+	public void upToDate() {
+		state = State.OK;
+	}
+
 	/**
 	 * Marks this {@link TeaBuildPluginElement} as having error(s).
 	 */
@@ -82,6 +97,24 @@ public class TeaBuildPluginElement extends TeaBuildProjectElement {
 		state = State.ERROR;
 	}
 
+	@Override
+	public Collection<String> getExportedPackages() {
+		if (!plugin.getData().isMetadataOK()) {
+			return null;
+		}
+		List<String> result = new ArrayList<>();
+		for (ParameterValue export : plugin.getData().getPackageExports()) {
+			StringWriter clause = new StringWriter();
+			try {
+				export.write(clause);
+			} catch (IOException e) {
+				// cannot happen for a StringWriter
+			}
+			result.add(clause.toString());
+		}
+		return result;
+	}
+
 	@Override
 	public String getName() {
 		return plugin.getPluginName();
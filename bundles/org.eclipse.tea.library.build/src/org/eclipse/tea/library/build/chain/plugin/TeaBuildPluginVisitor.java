@@ -10,16 +10,18 @@
  *******************************************************************************/
 package org.eclipse.tea.library.build.chain.plugin;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 
-import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IncrementalProjectBuilder;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.e4.core.di.annotations.Execute;
+import org.eclipse.e4.core.di.annotations.Optional;
 import org.eclipse.tea.core.services.TaskProgressTracker;
 import org.eclipse.tea.core.services.TaskingLog;
 import org.eclipse.tea.library.build.chain.TeaBuildChain;
@@ -38,8 +40,27 @@ import org.osgi.service.component.annotations.Component;
  * Uses {@link TeaBuildConfig#batchCompile} to determine whether to batch
  * compile plugins that have no dependencies between each other.
  * <p>
- * Note that batch compile will severely reduce the usefulness of the returned
- * results, and also disable retry on project compile error.
+ * In batch mode, results are determined per plugin from the problem markers
+ * after the batch. Only if the batch build itself fails, it is split in halves
+ * which are compiled again until the failing plugins are isolated. Retry on
+ * project compile error is disabled in batch mode.
+ * <p>
+ * Uses {@link TeaBuildConfig#parallelCompile} to determine whether to compile
+ * all plugins of a group concurrently. In contrast to batch compile, results
+ * are reported per plugin, and plugins that failed are retried one by one. The
+ * number of concurrent builds is taken from the workspace preferences, which
+ * must allow more than one for plugins to actually compile concurrently.
+ * <p>
+ * Uses {@link TeaBuildConfig#graphBuild} to determine whether the given
+ * elements span all groups of the chain, see
+ * {@link TeaBuildChain#executeGraph}. All plugins are then compiled in a single
+ * workspace build, which starts each plugin as soon as the plugins it
+ * references are compiled. Results are evaluated and retried like in parallel
+ * mode, in build order. This takes precedence over batch and parallel mode.
+ * <p>
+ * If a {@link CompiledOutputCache} is available in the context, plugins are
+ * restored from it instead of being compiled where possible, and the output
+ * of compiled plugins is stored in it.
  */
 @Component
 public class TeaBuildPluginVisitor implements TeaBuildVisitor {
@@ -47,37 +68,40 @@ public class TeaBuildPluginVisitor implements TeaBuildVisitor {
 	private TaskingLog log;
 	private TeaBuildConfig config;
 	private TaskProgressTracker tracker;
+	private CompiledOutputCache outputCache;
+	private boolean concurrencyWarned;
 
 	@Execute
-	public void prepare(TaskingLog log, TaskProgressTracker tracker, TeaBuildConfig config) {
+	public void prepare(TaskingLog log, TaskProgressTracker tracker, TeaBuildConfig config,
+			@Optional CompiledOutputCache outputCache) {
 		this.log = log;
 		this.tracker = tracker;
 		this.config = config;
+		this.outputCache = outputCache;
+		this.concurrencyWarned = false;
 	}
 
 	@Override
-	public Map<TeaBuildElement, IStatus> visit(List<TeaBuildElement> elements) {
+	public Map<TeaBuildElement, IStatus> visit(List<TeaBuildElement> input) {
 		Map<TeaBuildElement, IStatus> results = new TreeMap<>();
+		List<TeaBuildElement> elements = outputCache == null ? input : restoreCached(input, results);
 
-		if (config.batchCompile) {
-			// Step 1: find all plugins and their projects
-			Map<IProject, TeaBuildPluginElement> projects = elements.stream()
-					.filter(e -> e instanceof TeaBuildPluginElement).map(e -> (TeaBuildPluginElement) e)
-					.collect(Collectors.toMap(e -> e.getPlugin().getData().getProject(), Function.identity()));
+		if (config.graphBuild) {
+			results.putAll(compileParallel(elements.stream().filter(e -> e instanceof TeaBuildPluginElement)
+					.map(e -> (TeaBuildPluginElement) e).collect(Collectors.toList()), "build"));
+		} else if (config.batchCompile) {
+			// Step 1: find all plugins that can be compiled
+			List<TeaBuildPluginElement> toCompile = findCompilable(elements, results);
 
-			log.info("compile " + projects.size() + " plugins in group.");
+			log.info("compile " + toCompile.size() + " plugins in group.");
 
 			// Step 2: compile all projects as a single batch to avoid multiple
-			// locks/events
-			try {
-				TeaBuildUtil.tryCompile(projects.keySet());
-				projects.values().stream().forEach(e -> {
-					results.put(e, Status.OK_STATUS);
-				});
-			} catch (Exception ex) {
-				projects.values().stream().forEach(e -> results.put(e,
-						new Status(IStatus.ERROR, Activator.PLUGIN_ID, "failed to batch compile group", ex)));
+			// locks/events. Failing batches are split to find the culprits.
+			if (!toCompile.isEmpty()) {
+				compileBatch(toCompile, results);
 			}
+		} else if (config.parallelCompile) {
+			results.putAll(compileParallel(findCompilable(elements, results), "group"));
 		} else {
 			// Step 1: compile all projects, each by itself
 			for (TeaBuildElement e : elements) {
@@ -98,6 +122,7 @@ public class TeaBuildPluginVisitor implements TeaBuildVisitor {
 						} else {
 							p.done();
 							results.put(p, Status.OK_STATUS);
+							storeCached(p);
 						}
 					}
 				}
@@ -108,4 +133,184 @@ public class TeaBuildPluginVisitor implements TeaBuildVisitor {
 		return results;
 	}
 
+	/**
+	 * Compiles all given plugins in a single concurrent workspace build, then
+	 * evaluates the result of each plugin in the given order. Plugins with
+	 * errors are compiled again one by one, applying the configured retries.
+	 * Plugins whose dependencies failed meanwhile are reported as skipped.
+	 */
+	private Map<TeaBuildElement, IStatus> compileParallel(List<TeaBuildPluginElement> toCompile, String scope) {
+		Map<TeaBuildElement, IStatus> results = new TreeMap<>();
+
+		// Step 1: compile all plugins concurrently
+		boolean compiled = false;
+		int threads = TeaBuildUtil.getMaxConcurrentBuilds();
+		if (threads <= 1 && !concurrencyWarned) {
+			concurrencyWarned = true;
+			log.warn("parallel compile requested, but the workspace allows only one build at a time. "
+					+ "Increase 'Max. simultaneously built projects' in the workspace build preferences.");
+		}
+		if (toCompile.size() > 1 && threads > 1) {
+			log.info("compile " + toCompile.size() + " plugins in " + scope + " (" + threads + " parallel).");
+			try {
+				TeaBuildUtil.tryCompile(
+						toCompile.stream().map(p -> p.getPlugin().getData().getProject()).collect(Collectors.toList()),
+						getBuildKind(toCompile));
+				compiled = true;
+			} catch (Exception ex) {
+				log.warn("failed to compile " + scope + " in parallel, compiling plugins one by one", ex);
+			}
+		}
+
+		// Step 2: evaluate each plugin, retry the ones with errors
+		for (TeaBuildPluginElement p : toCompile) {
+			tracker.setTaskName(p.getName());
+
+			if (!p.isAllDependenciesBuilt()) {
+				results.put(p, Status.CANCEL_STATUS);
+				log.warn("skipping " + p.getName() + " due to errors in dependencies.");
+				continue;
+			}
+
+			IStatus s = compiled ? TeaBuildUtil.getStatus(p) : null;
+			if (s == null || s.getSeverity() > IStatus.WARNING) {
+				s = TeaBuildUtil.tryCompile(log, tracker, p, config);
+			}
+
+			if (!record(p, s, results)) {
+				break; // fail fast
+			}
+		}
+
+		return results;
+	}
+
+	/**
+	 * Compiles the given plugins as a single batch and records the result of
+	 * each plugin from its problem markers. If the build itself fails, the
+	 * batch is split in halves which are compiled again, until each failure is
+	 * attributed to a single plugin. Stops as soon as a plugin with
+	 * {@link FailurePolicy#ABORT_IMMEDIATE} failed.
+	 *
+	 * @return <code>false</code> if processing must stop.
+	 */
+	private boolean compileBatch(List<TeaBuildPluginElement> batch, Map<TeaBuildElement, IStatus> results) {
+		if (tracker.isCanceled()) {
+			throw new OperationCanceledException();
+		}
+
+		Exception failure = null;
+		try {
+			TeaBuildUtil.tryCompile(
+					batch.stream().map(p -> p.getPlugin().getData().getProject()).collect(Collectors.toList()),
+					getBuildKind(batch));
+		} catch (Exception ex) {
+			failure = ex;
+		}
+
+		if (failure == null) {
+			// problem markers tell the result of each plugin
+			for (TeaBuildPluginElement p : batch) {
+				if (!record(p, TeaBuildUtil.getStatus(p), results)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		if (batch.size() == 1) {
+			TeaBuildPluginElement p = batch.get(0);
+			return record(p,
+					new Status(IStatus.ERROR, Activator.PLUGIN_ID, "failed to compile " + p.getName(), failure),
+					results);
+		}
+
+		log.warn("failed to batch compile " + batch.size() + " plugins, splitting batch", failure);
+		int half = batch.size() / 2;
+		return compileBatch(batch.subList(0, half), results)
+				&& compileBatch(batch.subList(half, batch.size()), results);
+	}
+
+	/**
+	 * @return {@link IncrementalProjectBuilder#INCREMENTAL_BUILD} if all given
+	 *         plugins may be built incrementally,
+	 *         {@link IncrementalProjectBuilder#FULL_BUILD} otherwise.
+	 */
+	private static int getBuildKind(List<TeaBuildPluginElement> plugins) {
+		for (TeaBuildPluginElement p : plugins) {
+			if (p.getBuildKind() != IncrementalProjectBuilder.INCREMENTAL_BUILD) {
+				return IncrementalProjectBuilder.FULL_BUILD;
+			}
+		}
+		return IncrementalProjectBuilder.INCREMENTAL_BUILD;
+	}
+
+	/**
+	 * Records the result for a single plugin.
+	 *
+	 * @return <code>false</code> if processing must stop due to the plugin's
+	 *         {@link FailurePolicy}.
+	 */
+	private boolean record(TeaBuildPluginElement p, IStatus s, Map<TeaBuildElement, IStatus> results) {
+		if (s.getSeverity() > IStatus.WARNING) {
+			p.error();
+			results.put(p, s);
+			return TeaBuildChain.getFailurePolicyFor(p) != FailurePolicy.ABORT_IMMEDIATE;
+		}
+		p.done();
+		results.put(p, Status.OK_STATUS);
+		storeCached(p);
+		return true;
+	}
+
+	/**
+	 * Restores all plugins whose output is available from the
+	 * {@link CompiledOutputCache}.
+	 *
+	 * @return the elements that still need to be processed.
+	 */
+	private List<TeaBuildElement> restoreCached(List<TeaBuildElement> elements,
+			Map<TeaBuildElement, IStatus> results) {
+		List<TeaBuildElement> remaining = new ArrayList<>();
+		for (TeaBuildElement e : elements) {
+			if (e instanceof TeaBuildPluginElement) {
+				TeaBuildPluginElement p = (TeaBuildPluginElement) e;
+				if (p.isAllDependenciesBuilt() && outputCache.restore(p, log)) {
+					p.done();
+					results.put(p, Status.OK_STATUS);
+					continue;
+				}
+			}
+			remaining.add(e);
+		}
+		return remaining;
+	}
+
+	private void storeCached(TeaBuildPluginElement p) {
+		if (outputCache != null) {
+			outputCache.store(p, log);
+		}
+	}
+
+	/**
+	 * @return all plugins in the given elements whose dependencies have been
+	 *         built successfully. All other plugins are reported as skipped.
+	 */
+	private List<TeaBuildPluginElement> findCompilable(List<TeaBuildElement> elements,
+			Map<TeaBuildElement, IStatus> results) {
+		List<TeaBuildPluginElement> toCompile = new ArrayList<>();
+		for (TeaBuildElement e : elements) {
+			if (e instanceof TeaBuildPluginElement) {
+				TeaBuildPluginElement p = (TeaBuildPluginElement) e;
+				if (!p.isAllDependenciesBuilt()) {
+					results.put(p, Status.CANCEL_STATUS);
+					log.warn("skipping " + p.getName() + " due to errors in dependencies.");
+				} else {
+					toCompile.add(p);
+				}
+			}
+		}
+		return toCompile;
+	}
+
 }
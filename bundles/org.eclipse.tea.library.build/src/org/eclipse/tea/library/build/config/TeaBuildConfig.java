@@ -27,6 +27,57 @@ public class TeaBuildConfig implements TaskingConfigurationExtension {
 	@TaskingConfigProperty(description = "Use batch compile mode (experimental)")
 	public boolean batchCompile = false;
 
+	@TaskingConfigProperty(description = "Build only projects changed since the last successful build and their dependents")
+	public boolean incrementalBuild = false;
+
+	@TaskingConfigProperty(description = "Skip dependents of projects whose API did not change (incremental build only)")
+	public boolean apiBuildAvoidance = true;
+
+	@TaskingConfigProperty(description = "Compile independent projects concurrently, requires the workspace preference for simultaneously built projects to be greater than 1 (experimental)")
+	public boolean parallelCompile = false;
+
+	@TaskingConfigProperty(description = "Compile all projects in a single workspace build, starting each project as soon as its own dependencies are compiled instead of waiting for the whole previous group (experimental, disables API build avoidance)")
+	public boolean graphBuild = false;
+
+	@TaskingConfigProperty(description = "Maximum number of platforms exported concurrently per product (0 = number of processors)")
+	public long productExportThreads = 0;
+
+	@TaskingConfigProperty(description = "Run the p2 director in a separate process per platform. Otherwise installations run one at a time, even if several platforms are exported concurrently; only archiving is concurrent then")
+	public boolean productExportChildProcess = false;
+
+	@TaskingConfigProperty(description = "Hard-link identical plugins and features of products exported as directories to a shared pool (saves disk space, files must not be modified in place, not used for archived products)")
+	public boolean productExportHardLinkPool = false;
+
+	@TaskingConfigProperty(description = "Archive exported Linux products as tar.gz instead of ZIP (keeps file permissions)")
+	public boolean productExportTarGz = false;
+
+	@TaskingConfigProperty(description = "Keep existing update sites and only publish bundles and features whose content changed since the last run (requires stable qualifiers to be effective)")
+	public boolean incrementalPublishing = false;
+
+	@TaskingConfigProperty(description = "Keep the qualifier of the previous build for bundles and features whose content did not change")
+	public boolean stableQualifiers = false;
+
+	@TaskingConfigProperty(description = "Location of the qualifier ledger used for stable qualifiers (empty = workspace metadata)")
+	public String qualifierLedgerFile = "";
+
+	@TaskingConfigProperty(description = "Restore compiled output of unchanged plugins from a cache instead of compiling")
+	public boolean compiledOutputCache = false;
+
+	@TaskingConfigProperty(description = "Maximum size of the compiled output cache in MB")
+	public long compiledOutputCacheMaxSize = 4096;
+
+	@TaskingConfigProperty(description = "URL of the shared remote build cache (empty = disabled)")
+	public String remoteCacheUrl = "";
+
+	@TaskingConfigProperty(description = "Remote build cache credentials ('user:password' or token)")
+	public String remoteCacheCredentials = "";
+
+	@TaskingConfigProperty(description = "Only download from the remote build cache, never upload")
+	public boolean remoteCacheReadOnly = true;
+
+	@TaskingConfigProperty(description = "Remote build cache connect/read timeout in seconds")
+	public long remoteCacheTimeout = 10;
+
 	@TaskingConfigProperty(description = "Location of the TEA maven configuration file")
 	public String mavenConfigFilePath;
 
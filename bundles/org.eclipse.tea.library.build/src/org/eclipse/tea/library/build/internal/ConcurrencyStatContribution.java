@@ -0,0 +1,39 @@
+/*******************************************************************************
+ *  Copyright (c) 2026 SSI Schaefer IT Solutions GmbH and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  Contributors:
+ *      SSI Schaefer IT Solutions GmbH
+ *******************************************************************************/
+package org.eclipse.tea.library.build.internal;
+
+import java.util.Map;
+
+import org.eclipse.tea.core.annotations.lifecycle.BeginTaskChain;
+import org.eclipse.tea.core.services.TaskingLifeCycleListener;
+import org.eclipse.tea.core.services.TaskingStatisticsContribution;
+import org.eclipse.tea.library.build.util.AdaptiveConcurrency;
+import org.osgi.service.component.annotations.Component;
+
+/**
+ * Contributes the number of parallel workers chosen by each
+ * {@link AdaptiveConcurrency} during the task chain to the statistics.
+ */
+@Component
+public class ConcurrencyStatContribution implements TaskingStatisticsContribution, TaskingLifeCycleListener {
+
+	@BeginTaskChain
+	public void reset() {
+		AdaptiveConcurrency.resetStatistics();
+	}
+
+	@TaskingStatisticProvider(qualifier = "concurrency")
+	public Map<String, Map<String, Object>> getConcurrency() {
+		Map<String, Map<String, Object>> stats = AdaptiveConcurrency.getStatistics();
+		return stats.isEmpty() ? null : stats;
+	}
+
+}
@@ -17,7 +17,9 @@ import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.tea.core.TaskExecutionContext;
 import org.eclipse.tea.core.TaskingInjectionHelper;
 import org.eclipse.tea.core.services.TaskingLog;
+import org.eclipse.tea.library.build.config.TeaBuildConfig;
 import org.eclipse.tea.library.build.jar.JarManager;
+import org.eclipse.tea.library.build.jar.QualifierLedger;
 import org.eclipse.tea.library.build.jar.ZipExecFactory;
 import org.eclipse.tea.library.build.services.TeaBuildVersionService;
 import org.osgi.service.component.annotations.Component;
@@ -35,7 +37,13 @@ public class JarManagerContextFunction extends ContextFunction {
 		TaskingLog log = context.get(TaskingLog.class);
 		ZipExecFactory zip = ContextInjectionFactory.make(ZipExecFactory.class, context);
 
-		JarManager jm = new JarManager(log, zip, context.get(TeaBuildVersionService.class));
+		TeaBuildConfig config = context.get(TeaBuildConfig.class);
+		QualifierLedger ledger = null;
+		if (config != null && config.stableQualifiers) {
+			ledger = QualifierLedger.open(config.qualifierLedgerFile);
+		}
+
+		JarManager jm = new JarManager(log, zip, context.get(TeaBuildVersionService.class), ledger);
 		TaskingInjectionHelper.findExecutionContext(context).set(JarManager.class, jm);
 
 		return jm;
@@ -16,7 +16,9 @@ import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.e4.core.di.IInjector;
 import org.eclipse.tea.core.TaskExecutionContext;
 import org.eclipse.tea.core.TaskingInjectionHelper;
+import org.eclipse.tea.core.services.TaskingLog;
 import org.eclipse.tea.library.build.config.BuildDirectories;
+import org.eclipse.tea.library.build.config.TeaBuildConfig;
 import org.eclipse.tea.library.build.jar.JarManager;
 import org.eclipse.tea.library.build.p2.UpdateSiteManager;
 import org.osgi.service.component.annotations.Component;
@@ -38,7 +40,14 @@ public class UpdateSiteManagerContextFunction extends ContextFunction {
 
 		BuildDirectories dirs = context.get(BuildDirectories.class);
 
-		UpdateSiteManager um = new UpdateSiteManager(dirs.getSiteDirectory(), jm);
+		TeaBuildConfig config = context.get(TeaBuildConfig.class);
+		if (config != null && config.incrementalPublishing && !config.stableQualifiers) {
+			context.get(TaskingLog.class).warn(
+					"incremental publishing without stable qualifiers republishes every bundle and feature whose qualifier changed");
+		}
+
+		UpdateSiteManager um = new UpdateSiteManager(dirs.getSiteDirectory(), jm,
+				config != null && config.incrementalPublishing);
 		TaskingInjectionHelper.findExecutionContext(context).set(UpdateSiteManager.class, um);
 
 		return um;
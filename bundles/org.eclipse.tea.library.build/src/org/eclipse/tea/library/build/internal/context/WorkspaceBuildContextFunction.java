@@ -0,0 +1,49 @@
+/*******************************************************************************
+ *  Copyright (c) 2026 SSI Schaefer IT Solutions GmbH and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  Contributors:
+ *      SSI Schaefer IT Solutions GmbH
+ *******************************************************************************/
+package org.eclipse.tea.library.build.internal.context;
+
+import org.eclipse.e4.core.contexts.ContextFunction;
+import org.eclipse.e4.core.contexts.IContextFunction;
+import org.eclipse.e4.core.contexts.IEclipseContext;
+import org.eclipse.tea.core.TaskExecutionContext;
+import org.eclipse.tea.core.TaskingInjectionHelper;
+import org.eclipse.tea.core.services.TaskingLog;
+import org.eclipse.tea.library.build.model.TaskInvalidatesWorkspaceModel;
+import org.eclipse.tea.library.build.model.WorkspaceBuild;
+import org.eclipse.tea.library.build.model.WorkspaceData;
+import org.osgi.service.component.annotations.Component;
+
+/**
+ * Assures that there is exactly one {@link WorkspaceBuild} per
+ * {@link TaskExecutionContext}, unless a task invalidates the model (see
+ * {@link TaskInvalidatesWorkspaceModel}). Outside of a task chain (e.g. in
+ * UI initialization), a fresh model is created on each request.
+ */
+@Component(service = IContextFunction.class, property = {
+		"service.context.key=org.eclipse.tea.library.build.model.WorkspaceBuild" })
+public class WorkspaceBuildContextFunction extends ContextFunction {
+
+	@Override
+	public Object compute(IEclipseContext context, String contextKey) {
+		WorkspaceBuild wb = new WorkspaceBuild(context.get(WorkspaceData.class));
+
+		IEclipseContext executionContext = TaskingInjectionHelper.findContextWith(context,
+				TaskExecutionContext.class);
+		if (executionContext != null) {
+			executionContext.set(WorkspaceBuild.class, wb);
+		} else {
+			context.get(TaskingLog.class).debug("no task chain running, not sharing workspace build");
+		}
+
+		return wb;
+	}
+
+}
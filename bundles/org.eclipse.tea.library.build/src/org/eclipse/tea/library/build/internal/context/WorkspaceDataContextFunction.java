@@ -0,0 +1,54 @@
+/*******************************************************************************
+ *  Copyright (c) 2026 SSI Schaefer IT Solutions GmbH and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  Contributors:
+ *      SSI Schaefer IT Solutions GmbH
+ *******************************************************************************/
+package org.eclipse.tea.library.build.internal.context;
+
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.e4.core.contexts.ContextFunction;
+import org.eclipse.e4.core.contexts.IContextFunction;
+import org.eclipse.e4.core.contexts.IEclipseContext;
+import org.eclipse.tea.core.TaskExecutionContext;
+import org.eclipse.tea.core.TaskingInjectionHelper;
+import org.eclipse.tea.core.services.TaskingLog;
+import org.eclipse.tea.library.build.model.TaskInvalidatesWorkspaceModel;
+import org.eclipse.tea.library.build.model.WorkspaceData;
+import org.eclipse.tea.library.build.services.TeaBuildVersionService;
+import org.osgi.service.component.annotations.Component;
+
+/**
+ * Assures that the workspace is scanned only once per
+ * {@link TaskExecutionContext}, unless a task invalidates the model (see
+ * {@link TaskInvalidatesWorkspaceModel}). Outside of a task chain (e.g. in
+ * UI initialization), the workspace is scanned on each request.
+ */
+@Component(service = IContextFunction.class, property = {
+		"service.context.key=org.eclipse.tea.library.build.model.WorkspaceData" })
+public class WorkspaceDataContextFunction extends ContextFunction {
+
+	@Override
+	public Object compute(IEclipseContext context, String contextKey) {
+		TaskingLog log = context.get(TaskingLog.class);
+
+		WorkspaceData data = new WorkspaceData(ResourcesPlugin.getWorkspace(), log,
+				context.get(TeaBuildVersionService.class));
+
+		// the model must not outlive the chain, it is not invalidated otherwise.
+		IEclipseContext executionContext = TaskingInjectionHelper.findContextWith(context,
+				TaskExecutionContext.class);
+		if (executionContext != null) {
+			executionContext.set(WorkspaceData.class, data);
+		} else {
+			log.debug("no task chain running, not sharing workspace model");
+		}
+
+		return data;
+	}
+
+}
@@ -11,10 +11,23 @@
 package org.eclipse.tea.library.build.jar;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.eclipse.tea.core.services.TaskingLog;
 
 /**
  * Base for common ZIP executors.
@@ -23,11 +36,20 @@ abstract class BaseZipExec implements ZipExec {
 
 	protected static final String GITIGNORE = ".gitignore";
 
+	/**
+	 * stream for warnings and errors; may be <code>null</code>
+	 */
+	protected final TaskingLog log;
+
 	protected File zipFile;
 	protected final List<ZipExecPart> parts = new ArrayList<>();
 	protected boolean isJar;
 	private ZipExecInterceptor zipExecInterceptor;
 
+	protected BaseZipExec(TaskingLog log) {
+		this.log = log;
+	}
+
 	@Override
 	public void setZipFile(File zipFile) {
 		this.zipFile = zipFile;
@@ -73,6 +95,88 @@ abstract class BaseZipExec implements ZipExec {
 	 */
 	protected abstract void doCreateZip();
 
+	/**
+	 * Collects the content of all parts with a single file tree walk per part.
+	 * In-memory content replaces files with the same name.
+	 *
+	 * @return all entries, sorted by entry name (so parent directories precede
+	 *         their content). In JAR mode, meta-data is sorted first.
+	 */
+	protected Map<String, Source> collectEntries() throws IOException {
+		Map<String, Source> entries = new TreeMap<>(isJar ? JarComparator.instance : null);
+		for (ZipExecPart part : parts) {
+			addZip(part, entries);
+		}
+		FileTime now = FileTime.fromMillis(System.currentTimeMillis());
+		for (ZipExecPart part : parts) {
+			for (Map.Entry<String, byte[]> virtual : part.virtualEntries.entrySet()) {
+				entries.put(virtual.getKey(), new Source(virtual.getValue(), now));
+			}
+		}
+		return entries;
+	}
+
+	private void addZip(ZipExecPart part, Map<String, Source> entries) throws IOException {
+		for (String relPath : part.relativePaths) {
+			if (".".equals(relPath)) {
+				addEntry(part, entries, part.sourceDirectory.toPath(), null);
+			} else {
+				Path source = part.sourceDirectory.toPath().resolve(relPath);
+				if (relPath.endsWith("/")) {
+					relPath = relPath.substring(0, relPath.length() - 1);
+				}
+				addEntry(part, entries, source, relPath);
+			}
+		}
+	}
+
+	private void addEntry(ZipExecPart part, Map<String, Source> entries, Path source, String entryName)
+			throws IOException {
+		if (!Files.exists(source)) {
+			// requested input does not exist. this is worth a warning only.
+			// command line zip ignores it completely.
+			warn("ZIP input " + source + " does not exist");
+			return;
+		}
+
+		Files.walkFileTree(source, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE,
+				new SimpleFileVisitor<Path>() {
+
+					@Override
+					public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+						return isExcluded(dir) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+					}
+
+					@Override
+					public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+						if (!attrs.isDirectory() && !isExcluded(file)) {
+							entries.put(getName(file), new Source(file, attrs));
+						}
+						return FileVisitResult.CONTINUE;
+					}
+
+					private boolean isExcluded(Path p) {
+						return part.excludeGit && !p.equals(source) && GITIGNORE.equals(p.getFileName().toString());
+					}
+
+					private String getName(Path file) {
+						String rel = source.relativize(file).toString().replace(File.separatorChar, '/');
+						if (entryName == null) {
+							return rel;
+						}
+						return rel.isEmpty() ? entryName : entryName + '/' + rel;
+					}
+				});
+	}
+
+	protected void warn(String message) {
+		if (log != null) {
+			log.warn(message);
+		} else {
+			System.err.println(message);
+		}
+	}
+
 	@Override
 	public ZipExecInterceptor getZipExecInterceptor() {
 		return zipExecInterceptor;
@@ -83,4 +187,29 @@ abstract class BaseZipExec implements ZipExec {
 		this.zipExecInterceptor = zipExecInterceptor;
 	}
 
+	/**
+	 * The origin of a single ZIP entry: either a file or in-memory content.
+	 */
+	protected static final class Source {
+
+		final Path path;
+		final byte[] data;
+		final long size;
+		final FileTime time;
+
+		Source(Path path, BasicFileAttributes attrs) {
+			this.path = path;
+			this.data = null;
+			this.size = attrs.size();
+			this.time = attrs.lastModifiedTime();
+		}
+
+		Source(byte[] data, FileTime time) {
+			this.path = null;
+			this.data = data;
+			this.size = data.length;
+			this.time = time;
+		}
+	}
+
 }
@@ -0,0 +1,104 @@
+/*******************************************************************************
+ *  Copyright (c) 2026 SSI Schaefer IT Solutions GmbH and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  Contributors:
+ *      SSI Schaefer IT Solutions GmbH
+ *******************************************************************************/
+package org.eclipse.tea.library.build.jar;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.eclipse.tea.library.build.util.FileUtils;
+
+/**
+ * Splits a binary JAR into the JARs nested in it and a JAR of the remaining
+ * content, without meta-data.
+ * <p>
+ * The source is read entry by entry and written to the targets directly, it is
+ * never extracted to disk.
+ */
+public final class BinaryJarSplitter {
+
+	private static final String META_INF = "META-INF/";
+	private static final String GITIGNORE = ".gitignore";
+	private static final String JAR_SUFFIX = ".jar";
+
+	private BinaryJarSplitter() {
+	}
+
+	/**
+	 * @param source
+	 *            the JAR to split
+	 * @param stripped
+	 *            the JAR to create from all content except META-INF and nested
+	 *            JARs
+	 * @param nestedDir
+	 *            the directory to write nested JARs to. They are flattened,
+	 *            existing files are replaced.
+	 * @return the nested JARs written
+	 */
+	public static List<File> split(File source, File stripped, File nestedDir) throws IOException {
+		FileUtils.delete(stripped);
+		FileUtils.mkdirs(nestedDir);
+
+		List<File> nested = new ArrayList<>();
+		try (ZipFile zip = new ZipFile(source);
+				ParallelZipWriter writer = new ParallelZipWriter(stripped, true)) {
+			// sorted by entry name, so parent directories precede their content
+			Map<String, ZipEntry> entries = new TreeMap<>();
+			for (Enumeration<? extends ZipEntry> e = zip.entries(); e.hasMoreElements();) {
+				ZipEntry entry = e.nextElement();
+				if (!entry.isDirectory() && !entry.getName().startsWith(META_INF)) {
+					entries.put(entry.getName(), entry);
+				}
+			}
+
+			FileTime time = FileTime.fromMillis(0);
+			Set<String> dirs = new HashSet<>();
+			for (Map.Entry<String, ZipEntry> entry : entries.entrySet()) {
+				String name = entry.getKey();
+				String simpleName = name.substring(name.lastIndexOf('/') + 1);
+				if (GITIGNORE.equals(simpleName)) {
+					continue;
+				}
+
+				try (InputStream is = zip.getInputStream(entry.getValue())) {
+					if (simpleName.endsWith(JAR_SUFFIX)) {
+						File target = new File(nestedDir, simpleName);
+						Files.copy(is, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+						nested.add(target);
+						continue;
+					}
+
+					for (int i = name.indexOf('/'); i >= 0; i = name.indexOf('/', i + 1)) {
+						String dir = name.substring(0, i + 1);
+						if (dirs.add(dir)) {
+							writer.addDirectory(dir, time);
+						}
+					}
+					writer.addData(name, is.readAllBytes(), time);
+				}
+			}
+		}
+		return nested;
+	}
+
+}
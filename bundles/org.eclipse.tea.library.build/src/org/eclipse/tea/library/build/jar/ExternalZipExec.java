@@ -12,71 +12,186 @@ package org.eclipse.tea.library.build.jar;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import org.eclipse.tea.core.services.TaskProgressTracker;
+import org.eclipse.tea.core.services.TaskingLog;
 import org.eclipse.tea.library.build.util.FileUtils;
+import org.eclipse.tea.library.build.util.ProcessRunner;
 
 /**
  * ZipExec implementation which calls an external ZIP application.
+ * <p>
+ * The names of all entries are passed to the application as a list, with one
+ * invocation per directory the names are relative to (usually the source
+ * directory of each part). In-memory entries are written to a temporary
+ * directory first. Output of the application is forwarded to the log.
  */
 public class ExternalZipExec extends BaseZipExec {
 
+	/** the time of written entries in JAR mode, the earliest the format supports */
+	private static final FileTime JAR_TIME = FileTime
+			.from(LocalDateTime.of(1980, 1, 1, 0, 0).atZone(ZoneId.systemDefault()).toInstant());
+
 	final File zipExe;
+	private final long timeout;
+	private final TaskProgressTracker tracker;
 
 	public ExternalZipExec(File zipExe) {
+		this(zipExe, null, 0, null);
+	}
+
+	/**
+	 * @param zipExe
+	 *            the ZIP application
+	 * @param log
+	 *            receives the output of the application; may be
+	 *            <code>null</code>
+	 * @param timeout
+	 *            maximum runtime of a single invocation in seconds, 0 for no
+	 *            timeout
+	 * @param tracker
+	 *            used to check for cancellation; may be <code>null</code>
+	 */
+	public ExternalZipExec(File zipExe, TaskingLog log, long timeout, TaskProgressTracker tracker) {
+		super(log);
 		this.zipExe = zipExe;
+		this.timeout = timeout;
+		this.tracker = tracker;
 	}
 
 	@Override
 	protected void doCreateZip() {
 		for (ZipExecPart part : parts) {
-			addZip(part);
+			if (part.relativePaths.isEmpty() && part.virtualEntries.isEmpty()) {
+				throw new IllegalStateException("no ZIP elements set");
+			}
 		}
-	}
 
-	private void addZip(ZipExecPart part) {
-		List<String> cmdTokens = new ArrayList<>();
-		cmdTokens.add(zipExe.getAbsolutePath());
-		cmdTokens.add("-rqX");
-		cmdTokens.add(zipFile.getAbsolutePath());
-
-		final Collection<String> elements = part.relativePaths;
-		if (elements.isEmpty()) {
-			throw new IllegalStateException("no ZIP elements set");
+		File staging = null;
+		try {
+			Map<String, Source> entries = collectEntries();
+			staging = Files.createTempDirectory(zipFile.getAbsoluteFile().getParentFile().toPath(), "zip_").toFile();
+
+			// -nw: names are literal, not patterns. -b: the temporary file of
+			// the application is removed with the staging directory.
+			String[] cmdArray = { zipExe.getAbsolutePath(), "-qX", "-nw", "-b", staging.getAbsolutePath(),
+					zipFile.getAbsolutePath(), "-@" };
+			for (Map.Entry<Path, List<String>> names : stage(staging.toPath(), entries).entrySet()) {
+				File directory = names.getKey().toFile();
+				if (execCmd(directory, names.getValue(), cmdArray) != 0) {
+					throw new IllegalStateException(
+							"command failed, dir=" + directory + ", cmd=" + Arrays.toString(cmdArray));
+				}
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("cannot create " + zipFile, e);
+		} finally {
+			if (staging != null) {
+				FileUtils.deleteDirectory(staging);
+			}
 		}
-		for (String element : elements) {
-			cmdTokens.add(element);
+	}
+
+	/**
+	 * Determines the directory each entry is read from. Files are read from the
+	 * directory their entry name is relative to. In-memory content, and files
+	 * whose path does not end with their entry name, are placed in the given
+	 * staging directory. As the application takes the timestamp of each entry
+	 * from the file system, written files get the time of their
+	 * {@link Source}, or a fixed time in JAR mode, as do staged directories.
+	 *
+	 * @return the names to pass to the application per directory, in order.
+	 *         Directories are ordered by their first entry, so that meta-data
+	 *         stays first in JAR mode.
+	 */
+	private Map<Path, List<String>> stage(Path staging, Map<String, Source> entries) throws IOException {
+		Map<Path, List<String>> result = new LinkedHashMap<>();
+		Set<String> dirs = new HashSet<>();
+		List<String> stagedDirs = new ArrayList<>();
+		for (Map.Entry<String, Source> entry : entries.entrySet()) {
+			String name = entry.getKey();
+			Source source = entry.getValue();
+
+			Path root = source.data == null ? getRoot(source.path, name) : null;
+			if (root == null) {
+				root = staging;
+				Path target = staging.resolve(name);
+				Files.createDirectories(target.getParent());
+				if (source.data != null) {
+					Files.write(target, source.data);
+					Files.setLastModifiedTime(target, isJar ? JAR_TIME : source.time);
+				} else {
+					link(source.path, target);
+				}
+			}
+			List<String> names = result.computeIfAbsent(root, k -> new ArrayList<>());
+
+			// directory entries right before their first child
+			for (int i = name.indexOf('/'); i >= 0; i = name.indexOf('/', i + 1)) {
+				String dir = name.substring(0, i + 1);
+				if (dirs.add(dir)) {
+					names.add(dir);
+					if (root == staging) {
+						stagedDirs.add(dir);
+					}
+				}
+			}
+			names.add(name);
 		}
 
-		if (part.excludeGit) {
-			cmdTokens.add("-x");
-			cmdTokens.add("*/" + GITIGNORE);
+		// after all content is written, which touches the directories
+		if (isJar) {
+			for (String dir : stagedDirs) {
+				Files.setLastModifiedTime(staging.resolve(dir), JAR_TIME);
+			}
 		}
+		return result;
+	}
 
-		final File directory = part.sourceDirectory;
-		final String[] cmdArray = cmdTokens.toArray(new String[cmdTokens.size()]);
-		if (execCmd(directory, cmdArray) != 0) {
-			throw new IllegalStateException("command failed, dir=" + directory + ", cmd=" + Arrays.toString(cmdArray));
+	/**
+	 * @return the directory the given entry name is relative to, or
+	 *         <code>null</code> if the path of the file does not end with the
+	 *         entry name.
+	 */
+	private static Path getRoot(Path file, String name) {
+		Path relative = Paths.get(name);
+		if (!file.endsWith(relative)) {
+			return null;
 		}
+		Path root = file.toAbsolutePath();
+		for (int i = 0; i < relative.getNameCount(); ++i) {
+			root = root.getParent();
+		}
+		return root;
 	}
 
-	private int execCmd(final File directory, final String... cmdArray) {
+	private static void link(Path source, Path target) throws IOException {
 		try {
-			Process proc = Runtime.getRuntime().exec(cmdArray, null, directory);
-			try {
-				return proc.waitFor();
-			} finally {
-				proc.destroy();
-			}
-		} catch (Exception ex) {
-			throw new IllegalStateException("command failed, dir=" + directory + ", cmd=" + Arrays.toString(cmdArray),
-					ex);
+			// the application follows symbolic links
+			Files.createSymbolicLink(target, source.toAbsolutePath());
+		} catch (IOException | UnsupportedOperationException e) {
+			FileUtils.hardLinkOrCopy(source.toFile(), target.toFile());
 		}
 	}
 
+	private int execCmd(File directory, List<String> input, String... cmdArray) {
+		return new ProcessRunner(log, "", tracker, timeout).run(directory, input, cmdArray);
+	}
+
 	@Override
 	public void unzip(File zip, File destDir) throws IOException {
 		FileUtils.mkdirs(destDir);
@@ -89,7 +204,7 @@ public class ExternalZipExec extends BaseZipExec {
 
 		String[] cmdArray = cmds.toArray(new String[cmds.size()]);
 
-		if (execCmd(destDir, cmdArray) != 0) {
+		if (execCmd(destDir, Collections.<String> emptyList(), cmdArray) != 0) {
 			throw new IllegalStateException("command failed, dir=" + destDir + ", cmd=" + Arrays.toString(cmdArray));
 		}
 	}
@@ -11,22 +11,18 @@
 package org.eclipse.tea.library.build.jar;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.file.Files;
-import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileTime;
-import java.util.Arrays;
+import java.util.Collections;
 import java.util.Enumeration;
-import java.util.List;
+import java.util.HashSet;
+import java.util.Locale;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.TreeMap;
+import java.util.Set;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
-import java.util.zip.ZipOutputStream;
 
 import org.eclipse.tea.core.services.TaskingLog;
 import org.eclipse.tea.library.build.util.FileUtils;
@@ -35,146 +31,99 @@ import com.google.common.base.Splitter;
 
 /**
  * ZipExec implementation which calls the JRE ZIP library.
+ * <p>
+ * Inputs are collected with a single file tree walk per part and sorted once.
+ * Files with one of the configured extensions (usually content which is
+ * compressed already, like nested JARs or images) can be stored without
+ * compression, see {@link ZipConfig#zipStoredExtensions}. By default, all
+ * files are compressed.
  */
 public class InternalZipExec extends BaseZipExec {
 
 	private final byte[] BUFFER = new byte[10240];
-	private final TaskingLog log;
+	private final Set<String> storedExtensions;
 
 	public InternalZipExec(TaskingLog log) {
-		this.log = log;
+		this(log, parseExtensions(new ZipConfig().zipStoredExtensions));
+	}
+
+	/**
+	 * @param log
+	 *            stream for warnings and errors
+	 * @param storedExtensions
+	 *            lower case file extensions to store without compression
+	 */
+	public InternalZipExec(TaskingLog log, Set<String> storedExtensions) {
+		super(log);
+		this.storedExtensions = storedExtensions;
+	}
+
+	/**
+	 * @param extensions
+	 *            comma separated list of file extensions, may be
+	 *            <code>null</code>
+	 * @return the lower case extensions without leading dots
+	 */
+	static Set<String> parseExtensions(String extensions) {
+		if (extensions == null) {
+			return Collections.emptySet();
+		}
+		Set<String> result = new HashSet<>();
+		for (String ext : Splitter.on(',').trimResults().omitEmptyStrings().split(extensions)) {
+			result.add(ext.replaceFirst("^\\.", "").toLowerCase(Locale.ROOT));
+		}
+		return Collections.unmodifiableSet(result);
 	}
 
 	@Override
 	protected void doCreateZip() {
 		try {
-			FileOutputStream fos = new FileOutputStream(zipFile);
-			ZipOutputStream zos = new ZipOutputStream(fos);
-			try {
-				Map<ZipEntry, File> entries = new TreeMap<>((a, b) -> a.getName().compareTo(b.getName()));
-				for (ZipExecPart part : parts) {
-					addZip(part, entries);
-				}
-				write(zos, entries);
-			} finally {
-				zos.close();
+			Map<String, Source> entries = collectEntries();
+
+			// JAR mode uses fixed timestamps, so output is reproducible
+			try (ParallelZipWriter writer = new ParallelZipWriter(zipFile, isJar)) {
+				write(writer, entries);
 			}
 		} catch (IOException e) {
 			throw new IllegalStateException("cannot create " + zipFile, e);
 		}
 	}
 
-	private void addZip(ZipExecPart part, Map<ZipEntry, File> entries) {
-		for (String relPath : part.relativePaths) {
-			if (".".equals(relPath)) {
-				addEntry(part, entries, part.sourceDirectory, null);
-			} else {
-				File source = new File(part.sourceDirectory, relPath);
-				addEntry(part, entries, source, relPath);
-			}
-		}
-	}
-
-	private void addEntry(ZipExecPart part, Map<ZipEntry, File> entries, File source, String entryName) {
-		if (!source.exists()) {
-			// requested input does not exist. this is worth a warning only.
-			// command line zip ignores it completely.
-			log.warn("ZIP input " + source + " does not exist");
-			return;
-		}
+	private void write(ParallelZipWriter writer, Map<String, Source> entries) {
+		FileTime dirTime = FileTime.fromMillis(isJar ? 0 : System.currentTimeMillis());
+		Set<String> dirs = new HashSet<>();
 
-		if (source.isDirectory()) {
-			if (entryName != null) {
-				int lastIndex = entryName.length() - 1;
-				if (entryName.charAt(lastIndex) == '/') {
-					entryName = entryName.substring(0, lastIndex);
-				}
-			}
-
-			String[] children = source.list();
-			Arrays.sort(children);
-
-			for (String childName : children) {
-				if (part.excludeGit) {
-					if (GITIGNORE.equals(childName)) {
-						continue;
+		// entries are deflated in parallel, but written in order
+		for (Map.Entry<String, Source> entry : entries.entrySet()) {
+			String name = entry.getKey();
+			Source source = entry.getValue();
+			try {
+				// directory entries sort right before their first child
+				for (int i = name.indexOf('/'); i >= 0; i = name.indexOf('/', i + 1)) {
+					String dir = name.substring(0, i + 1);
+					if (dirs.add(dir)) {
+						writer.addDirectory(dir, dirTime);
 					}
 				}
-				File child = new File(source, childName);
-				if (entryName == null) {
-					addEntry(part, entries, child, childName);
+				FileTime time = isJar ? FileTime.fromMillis(0) : source.time;
+				if (source.data != null) {
+					writer.addData(name, source.data, time);
 				} else {
-					addEntry(part, entries, child, entryName + '/' + childName);
+					writer.addFile(name, source.path, source.size, time, isStored(name));
 				}
+			} catch (Exception e) {
+				throw new IllegalStateException("cannot add " + (source.path != null ? source.path : name), e);
 			}
-			return;
-		}
-
-		// add file
-		ZipEntry ze = new ZipEntry(entryName);
-		try {
-			BasicFileAttributes attr = Files.readAttributes(source.toPath(), BasicFileAttributes.class);
-			if (!isJar) {
-				ze.setLastModifiedTime(attr.lastModifiedTime());
-				ze.setLastAccessTime(attr.lastAccessTime());
-				ze.setCreationTime(attr.creationTime());
-			} else {
-				ze.setLastModifiedTime(FileTime.fromMillis(0));
-				ze.setLastAccessTime(FileTime.fromMillis(0));
-				ze.setCreationTime(FileTime.fromMillis(0));
-			}
-		} catch (Exception e) {
-			System.out.println("cannot apply source file timestamps");
 		}
-
-		entries.put(ze, source);
 	}
 
-	private void write(ZipOutputStream zos, Map<ZipEntry, File> entries) {
-		// sort entries, create entries for directories
-		entries.keySet().stream().sorted((a, b) -> a.getName().compareTo(b.getName())).forEach((e) -> {
-			List<String> segments = Splitter.on('/').splitToList(e.getName());
-			if (segments.size() > 1) {
-				String rel = null;
-				for (int i = 0; i < segments.size() - 1; ++i) {
-					String seg = segments.get(i);
-					if (rel == null) {
-						rel = seg + "/";
-					} else {
-						rel = rel + seg + "/";
-					}
-					ZipEntry de = new ZipEntry(rel);
-					if (!isJar) {
-						de.setTime(System.currentTimeMillis());
-					} else {
-						de.setLastModifiedTime(FileTime.fromMillis(0));
-						de.setLastAccessTime(FileTime.fromMillis(0));
-						de.setCreationTime(FileTime.fromMillis(0));
-					}
-					entries.put(de, null);
-				}
-			}
-		});
-
-		for (Entry<ZipEntry, File> ze : entries.entrySet()) {
-			try {
-				zos.putNextEntry(ze.getKey());
-				if (!ze.getKey().isDirectory()) {
-					FileInputStream fis = new FileInputStream(ze.getValue());
-					try {
-						int count;
-						while ((count = fis.read(BUFFER)) >= 0) {
-							zos.write(BUFFER, 0, count);
-						}
-					} finally {
-						fis.close();
-					}
-				}
-				zos.closeEntry();
-			} catch (Exception e) {
-				throw new IllegalStateException("cannot add " + ze.getValue(), e);
-			}
+	private boolean isStored(String name) {
+		int slash = name.lastIndexOf('/');
+		int dot = name.lastIndexOf('.');
+		if (dot <= slash + 1) {
+			return false;
 		}
+		return storedExtensions.contains(name.substring(dot + 1).toLowerCase(Locale.ROOT));
 	}
 
 	/**
@@ -0,0 +1,195 @@
+/*******************************************************************************
+ *  Copyright (c) 2026 SSI Schaefer IT Solutions GmbH and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  Contributors:
+ *      SSI Schaefer IT Solutions GmbH
+ *******************************************************************************/
+package org.eclipse.tea.library.build.jar;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.tea.core.services.TaskingLog;
+import org.eclipse.tea.library.build.internal.Activator;
+import org.eclipse.tea.library.build.model.BundleBuild;
+import org.eclipse.tea.library.build.util.CacheDirectory;
+import org.eclipse.tea.library.build.util.FileUtils;
+import org.eclipse.tea.library.build.util.RemoteBuildCache;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+/**
+ * Persistent, content addressed cache for generated bundle JAR files.
+ * <p>
+ * Each entry is keyed on a hash of everything that goes into the JAR: the
+ * content of the bundle as hashed by {@link JarManager#getContentHash}, the
+ * target file name (including the version), as well as the ZIP implementation
+ * and its settings. Unchanged bundles are thus never zipped
+ * again, even across runs. As the file name and manifest contain the
+ * qualifier, this requires the qualifiers of unchanged bundles to be stable,
+ * see {@link JarManager#getBundleVersion(BundleBuild)}. Cached JARs are copied
+ * to the destination directory, so the entries are not affected if the
+ * resulting files are modified.
+ * <p>
+ * The cache is bounded in size. Entries are evicted in least recently used
+ * order when {@link #finish(TaskingLog)} is called.
+ * <p>
+ * Optionally a {@link RemoteBuildCache} is consulted on local misses, and
+ * locally created entries are uploaded to it.
+ */
+public final class JarCache {
+
+	private static final String REMOTE_NAMESPACE = "jar";
+
+	/** one instance per directory, so statistics and content are shared */
+	private static final Map<File, JarCache> caches = new HashMap<>();
+
+	private final CacheDirectory directory;
+	private volatile long maxSize;
+	private volatile RemoteBuildCache remote;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong uncacheable = new AtomicLong();
+	private final AtomicLong reusedBytes = new AtomicLong();
+
+	private JarCache(File directory) {
+		this.directory = new CacheDirectory(directory, ".jar");
+	}
+
+	/**
+	 * @param config
+	 *            the configuration determining location and size of the cache
+	 * @param stableQualifiers
+	 *            whether unchanged bundles keep their qualifier. The cache is
+	 *            not used otherwise, as it could never hit across builds.
+	 * @param remote
+	 *            the remote cache tier to use, may be <code>null</code>.
+	 * @return the cache configured by the given {@link ZipConfig}, or
+	 *         <code>null</code> if caching is disabled.
+	 */
+	public static synchronized JarCache open(ZipConfig config, boolean stableQualifiers, RemoteBuildCache remote) {
+		if (config.jarCacheMaxSize <= 0 || !stableQualifiers) {
+			return null;
+		}
+
+		File dir;
+		if (config.jarCacheDirectory == null || config.jarCacheDirectory.trim().isEmpty()) {
+			dir = Platform.getStateLocation(Activator.getContext().getBundle()).append("jar-cache").toFile();
+		} else {
+			dir = new File(config.jarCacheDirectory.trim());
+		}
+
+		JarCache cache = caches.computeIfAbsent(dir.getAbsoluteFile(), JarCache::new);
+		cache.maxSize = config.jarCacheMaxSize * 1024 * 1024;
+		cache.remote = remote;
+		return cache;
+	}
+
+	/**
+	 * @return the directory containing the cache entries
+	 */
+	public File getDirectory() {
+		return directory.getDirectory();
+	}
+
+	/**
+	 * Creates the JAR file for the given bundle in the given directory, re-using
+	 * a previously created JAR file with identical inputs if possible.
+	 *
+	 * @return the JAR file in the destination directory
+	 */
+	public File execJarCommands(JarManager jm, BundleBuild<?> build, File destDir) throws Exception {
+		String version = jm.getBundleVersion(build);
+		String key = computeKey(jm, build, version);
+		if (key == null) {
+			uncacheable.incrementAndGet();
+			return jm.execJarCommands(build, destDir);
+		}
+
+		File entry = directory.getEntry(key);
+		if (directory.lookup(entry)) {
+			hits.incrementAndGet();
+			reusedBytes.addAndGet(entry.length());
+		} else if (remote != null && remote.load(REMOTE_NAMESPACE, key, entry)) {
+			hits.incrementAndGet();
+			reusedBytes.addAndGet(entry.length());
+		} else {
+			misses.incrementAndGet();
+			store(jm, build, entry);
+			if (remote != null) {
+				remote.store(REMOTE_NAMESPACE, key, entry);
+			}
+		}
+
+		File destFile = new File(destDir, build.getJarFileName(version));
+		FileUtils.delete(destFile);
+		FileUtils.copyFile(entry, destFile);
+		return destFile;
+	}
+
+	private void store(JarManager jm, BundleBuild<?> build, File entry) throws Exception {
+		File tmp = directory.createTempDirectory();
+		try {
+			directory.commit(jm.execJarCommands(build, tmp), entry);
+		} finally {
+			FileUtils.deleteDirectory(tmp);
+		}
+	}
+
+	/**
+	 * Logs cache statistics, resets them and evicts the least recently used
+	 * entries until the cache fits its configured size.
+	 */
+	public void finish(TaskingLog log) {
+		long hitCnt = hits.getAndSet(0);
+		long missCnt = misses.getAndSet(0);
+		long skipCnt = uncacheable.getAndSet(0);
+		long reused = reusedBytes.getAndSet(0);
+
+		int evicted = directory.trim(maxSize);
+		long size = directory.getSize();
+
+		long total = hitCnt + missCnt;
+		log.info("JAR cache: hit=" + hitCnt + ", miss=" + missCnt + ", uncacheable=" + skipCnt + ", hit rate="
+				+ (total == 0 ? 0 : hitCnt * 100 / total) + "%, reused=" + (reused / 1024) + "kB, evicted=" + evicted
+				+ ", size=" + (size / 1024 / 1024) + "MB of " + (maxSize / 1024 / 1024) + "MB ("
+				+ directory.getDirectory() + ")");
+		if (remote != null) {
+			remote.finish(log, "JAR");
+		}
+	}
+
+	/**
+	 * Removes all entries from the cache.
+	 */
+	public void clear() {
+		directory.clear();
+	}
+
+	/**
+	 * @return the cache key for the given bundle, <code>null</code> if the
+	 *         bundle cannot be cached.
+	 */
+	private String computeKey(JarManager jm, BundleBuild<?> build, String version) throws Exception {
+		String content = jm.getContentHash(build);
+		if (content == null) {
+			return null;
+		}
+
+		Hasher hasher = Hashing.sha256().newHasher();
+		hasher.putUnencodedChars(content).putByte((byte) 0);
+		hasher.putUnencodedChars(build.getJarFileName(version)).putByte((byte) 0);
+		hasher.putUnencodedChars(jm.getZipExecFactory().getConfigurationKey()).putByte((byte) 0);
+		return hasher.hash().toString();
+	}
+
+}
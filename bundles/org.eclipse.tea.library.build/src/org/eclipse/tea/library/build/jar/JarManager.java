@@ -11,15 +11,30 @@
 package org.eclipse.tea.library.build.jar;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.tea.core.services.TaskingLog;
 import org.eclipse.tea.library.build.model.BundleBuild;
 import org.eclipse.tea.library.build.model.BundleData;
+import org.eclipse.tea.library.build.model.FeatureBuild;
+import org.eclipse.tea.library.build.model.FeatureData;
+import org.eclipse.tea.library.build.model.PluginBuild;
+import org.eclipse.tea.library.build.model.PluginData;
 import org.eclipse.tea.library.build.services.TeaBuildVersionService;
+import org.eclipse.tea.library.build.util.CacheDirectory;
+import org.eclipse.tea.library.build.util.FileUtils;
 import org.eclipse.tea.library.build.util.StringHelper;
 
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
 /**
  * Knows how to build JAR files with correct Version, etc.
  */
@@ -37,19 +52,43 @@ public final class JarManager {
 	private final TaskingLog log;
 	private final TeaBuildVersionService bvService;
 
+	private final QualifierLedger ledger;
+
+	/** versions of bundles with stable qualifiers, by kind and name */
+	private final Map<String, String> stableVersions = new ConcurrentHashMap<>();
+
+	/** content hashes of bundles, by kind and name */
+	private final Map<String, String> contentHashes = new ConcurrentHashMap<>();
+
 	/**
 	 * Creates the JAR manager.
 	 */
 	public JarManager(TaskingLog log, ZipExecFactory zipExecFactory, TeaBuildVersionService bvService) {
+		this(log, zipExecFactory, bvService, null);
+	}
+
+	/**
+	 * Creates the JAR manager.
+	 *
+	 * @param ledger
+	 *            if not <code>null</code>, bundles whose content did not change
+	 *            keep the qualifier recorded in this ledger instead of getting
+	 *            the qualifier of the current build.
+	 */
+	public JarManager(TaskingLog log, ZipExecFactory zipExecFactory, TeaBuildVersionService bvService,
+			QualifierLedger ledger) {
 		this.log = log;
 		this.zipExecFactory = zipExecFactory;
 		this.bvService = bvService;
+		this.ledger = ledger;
 
 		reset();
 	}
 
 	public void reset() {
 		final Date now = new Date();
+		stableVersions.clear();
+		contentHashes.clear();
 
 		// build qualifier: timestamp with an accuracy of one minute
 		SimpleDateFormat format = new SimpleDateFormat("yyyyMMddHHmm");
@@ -74,12 +113,28 @@ public final class JarManager {
 
 	/**
 	 * Return the current full version used during this build for a certain
-	 * bundle.
+	 * bundle. Stable qualifiers are only considered if they have already been
+	 * determined through {@link #getBundleVersion(BundleBuild)}.
 	 */
 	public String getBundleVersion(BundleData data) {
+		String stable = stableVersions.get(getStableKey(data));
+		if (stable != null) {
+			return stable;
+		}
 		return createNewVersion(data);
 	}
 
+	/**
+	 * Return the current full version used during this build for a certain
+	 * bundle.
+	 * <p>
+	 * With stable qualifiers, the version is determined on first use from the
+	 * content of the bundle, which thus must be complete (compiled) by then.
+	 */
+	public String getBundleVersion(BundleBuild<?> bundle) {
+		return createNewVersion(bundle);
+	}
+
 	/**
 	 * Calculates a new bundle version.
 	 */
@@ -89,6 +144,138 @@ public final class JarManager {
 		return newVersion;
 	}
 
+	/**
+	 * Calculates a new bundle version, re-using the qualifier of the previous
+	 * build if the content of the bundle did not change.
+	 */
+	private String createNewVersion(BundleBuild<?> bundle) {
+		BundleData data = bundle.getData();
+		String origVersion = data.getBundleVersion();
+
+		// versions without qualifier are the same in all builds anyway
+		if (ledger == null || origVersion.equals(createNewVersion(data))) {
+			return createNewVersion(data);
+		}
+
+		String key = getStableKey(data);
+		String version = stableVersions.get(key);
+		if (version != null) {
+			return version;
+		}
+
+		String bundleQualifier = qualifier;
+		try {
+			String hash = getContentHash(bundle);
+			if (hash != null) {
+				bundleQualifier = ledger.qualify(key + '/' + origVersion, hash, qualifier);
+			}
+		} catch (Exception e) {
+			log.warn("cannot determine stable qualifier for " + data.getBundleName() + ": " + e);
+		}
+		if (!bundleQualifier.equals(qualifier)) {
+			log.debug("unchanged: " + data.getBundleName() + ", keeping qualifier " + bundleQualifier);
+		}
+
+		version = StringHelper.replaceQualifier(origVersion, bundleQualifier);
+		String existing = stableVersions.putIfAbsent(key, version);
+		return existing != null ? existing : version;
+	}
+
+	private static String getStableKey(BundleData data) {
+		return (data instanceof FeatureData ? "feature/" : "plugin/") + data.getBundleName();
+	}
+
+	/**
+	 * Hashes everything that goes into the JAR file of a bundle, except for
+	 * its qualifier. The hash is computed once per build, so the bundle must
+	 * be complete (compiled) by then.
+	 *
+	 * @return the hash of the content of the given bundle, independent of its
+	 *         qualifier, or <code>null</code> if the bundle cannot be hashed.
+	 */
+	public String getContentHash(BundleBuild<?> bundle) throws Exception {
+		String key = getStableKey(bundle.getData());
+		String hash = contentHashes.get(key);
+		if (hash == null) {
+			hash = hashContent(bundle, bundle.getData().getBundleVersion());
+			if (hash != null) {
+				contentHashes.putIfAbsent(key, hash);
+			}
+		}
+		return hash;
+	}
+
+	private String hashContent(BundleBuild<?> bundle, String origVersion) throws Exception {
+		Hasher hasher = Hashing.sha256().newHasher();
+		hasher.putUnencodedChars(bundle.getClass().getName()).putByte((byte) 0);
+
+		if (bundle instanceof PluginBuild) {
+			if (!hashPluginInputs(hasher, ((PluginBuild) bundle).getData())) {
+				return null;
+			}
+		} else if (bundle instanceof FeatureBuild) {
+			FeatureBuild feature = (FeatureBuild) bundle;
+			File tmp = Files.createTempDirectory("tea_qualifier").toFile();
+			try {
+				CacheDirectory.hashInput(hasher, tmp, feature.writeUpdatedFeatureXml(tmp, origVersion, this));
+			} finally {
+				FileUtils.deleteDirectory(tmp);
+			}
+
+			File featureDir = feature.getData().getBundleDir();
+			CacheDirectory.hashInput(hasher, featureDir, new File(featureDir, "feature.properties"));
+
+			// p2 only updates the plugins of a feature if the feature changes
+			Set<PluginBuild> plugins;
+			try {
+				plugins = feature.getIncludedPlugins();
+			} catch (IllegalStateException e) {
+				// includes plugins which are not built here
+				return null;
+			}
+			for (PluginBuild plugin : plugins) {
+				hasher.putUnencodedChars(plugin.getPluginName()).putByte((byte) 0);
+				hasher.putUnencodedChars(getBundleVersion(plugin)).putByte((byte) 0);
+			}
+		} else {
+			return null;
+		}
+
+		return hasher.hash().toString();
+	}
+
+	/**
+	 * Hashes everything that goes into the JAR file of a plugin, except for
+	 * its version: the manifest, build.properties and the content of all
+	 * output folders and binary includes.
+	 *
+	 * @return <code>false</code> if the plugin is not built from a workspace
+	 *         project, and thus cannot be hashed.
+	 */
+	private static boolean hashPluginInputs(Hasher hasher, PluginData data) throws IOException {
+		File bundleDir = data.getBundleDir();
+		if (bundleDir == null || data.isBinary()) {
+			return false;
+		}
+
+		CacheDirectory.hashInput(hasher, bundleDir, data.getManifestFile());
+		CacheDirectory.hashInput(hasher, bundleDir, new File(bundleDir, "build.properties"));
+
+		// same inputs as PluginBuild#doExecJarCommands
+		Map<String, List<String>> binaryFolders = data.getBinaryFolders();
+		for (String inc : data.getBinaryIncludes()) {
+			List<String> paths = binaryFolders.get(inc);
+			if (paths == null) {
+				CacheDirectory.hashInput(hasher, bundleDir, new File(bundleDir, inc));
+			} else {
+				for (String path : paths) {
+					CacheDirectory.hashInput(hasher, bundleDir, new File(bundleDir, path));
+				}
+			}
+		}
+		return true;
+	}
+
 	/**
 	 * Returns the ZIP execution factory.
 	 */
@@ -113,7 +300,7 @@ public final class JarManager {
 
 	public File execJarCommands(BundleBuild<?> bundle, File destDirectory, boolean withSource,
 			ZipExecInterceptor zipExecInterceptor) throws Exception {
-		String version = createNewVersion(bundle.getData());
+		String version = createNewVersion(bundle);
 		return bundle.execJarCommands(zipExecFactory, destDirectory, version, this, withSource, zipExecInterceptor);
 	}
 
@@ -0,0 +1,184 @@
+/*******************************************************************************
+ *  Copyright (c) 2026 SSI Schaefer IT Solutions GmbH and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  Contributors:
+ *      SSI Schaefer IT Solutions GmbH
+ *******************************************************************************/
+package org.eclipse.tea.library.build.jar;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * GZIP output stream which deflates blocks of input in parallel, using the
+ * deflater pool of {@link ParallelZipWriter}.
+ * <p>
+ * Each block is primed with the preceding 32 KB as dictionary, and all blocks
+ * are concatenated to a single deflate stream, so the result is a regular
+ * single member GZIP file. As with {@link ParallelZipWriter}, the output does
+ * not depend on the number of threads.
+ */
+final class ParallelGzipOutputStream extends OutputStream {
+
+	private static final int BLOCK_SIZE = ParallelZipWriter.CHUNK_SIZE;
+	private static final int DICTIONARY_SIZE = ParallelZipWriter.DICTIONARY_SIZE;
+
+	/** magic, deflate, no flags, no time, no extra flags, unix */
+	private static final byte[] HEADER = { 0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, 3 };
+
+	private final OutputStream out;
+	private final Deque<Future<Block>> pending = new ArrayDeque<>();
+
+	/** the dictionary followed by the input of the current block */
+	private byte[] buffer = new byte[DICTIONARY_SIZE + BLOCK_SIZE];
+	private int dictLength = 0;
+	private int count = 0;
+
+	private long crc = 0;
+	private long length = 0;
+	private boolean closed = false;
+
+	ParallelGzipOutputStream(OutputStream out) throws IOException {
+		this.out = out;
+		out.write(HEADER);
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		write(new byte[] { (byte) b }, 0, 1);
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		while (len > 0) {
+			int n = Math.min(len, BLOCK_SIZE - count);
+			System.arraycopy(b, off, buffer, dictLength + count, n);
+			count += n;
+			off += n;
+			len -= n;
+			if (count == BLOCK_SIZE) {
+				submit(false);
+			}
+		}
+	}
+
+	private void submit(boolean last) throws IOException {
+		// bound memory: write finished blocks before producing more.
+		while (pending.size() >= ParallelZipWriter.MAX_IN_FLIGHT) {
+			writeOne();
+		}
+
+		byte[] data = buffer;
+		int dict = dictLength;
+		int len = count;
+		pending.add(ParallelZipWriter.POOL.submit(() -> deflate(data, dict, len, last)));
+
+		// the end of this block is the dictionary of the next one
+		int next = Math.min(DICTIONARY_SIZE, dict + len);
+		buffer = new byte[DICTIONARY_SIZE + BLOCK_SIZE];
+		System.arraycopy(data, dict + len - next, buffer, 0, next);
+		dictLength = next;
+		count = 0;
+	}
+
+	private void writeOne() throws IOException {
+		Block block;
+		try {
+			block = pending.poll().get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		} catch (ExecutionException e) {
+			throw new IOException("cannot deflate", e.getCause());
+		}
+		out.write(block.data);
+		crc = ParallelZipWriter.crc32Combine(crc, block.crc, block.length);
+		length += block.length;
+	}
+
+	private static Block deflate(byte[] buffer, int dictLength, int length, boolean last) {
+		Block block = new Block();
+		block.length = length;
+
+		CRC32 crc = new CRC32();
+		crc.update(buffer, dictLength, length);
+		block.crc = crc.getValue();
+
+		Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+		try {
+			if (dictLength > 0) {
+				deflater.setDictionary(buffer, 0, dictLength);
+			}
+			deflater.setInput(buffer, dictLength, length);
+
+			ByteArrayOutputStream result = new ByteArrayOutputStream(Math.max(64, length / 2));
+			byte[] out = new byte[64 * 1024];
+			if (last) {
+				deflater.finish();
+				while (!deflater.finished()) {
+					int n = deflater.deflate(out);
+					result.write(out, 0, n);
+				}
+			} else {
+				// byte aligned, non-final blocks, so blocks can be concatenated
+				int n;
+				do {
+					n = deflater.deflate(out, 0, out.length, Deflater.SYNC_FLUSH);
+					result.write(out, 0, n);
+				} while (n == out.length);
+			}
+			block.data = result.toByteArray();
+		} finally {
+			deflater.end();
+		}
+		return block;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			submit(true);
+			while (!pending.isEmpty()) {
+				writeOne();
+			}
+			writeInt(crc);
+			writeInt(length);
+		} finally {
+			while (!pending.isEmpty()) {
+				pending.poll().cancel(true);
+			}
+			out.close();
+		}
+	}
+
+	private void writeInt(long v) throws IOException {
+		out.write((int) (v & 0xff));
+		out.write((int) ((v >>> 8) & 0xff));
+		out.write((int) ((v >>> 16) & 0xff));
+		out.write((int) ((v >>> 24) & 0xff));
+	}
+
+	private static final class Block {
+
+		byte[] data;
+		long crc;
+		int length;
+	}
+
+}
@@ -0,0 +1,746 @@
+/*******************************************************************************
+ *  Copyright (c) 2026 SSI Schaefer IT Solutions GmbH and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  Contributors:
+ *      SSI Schaefer IT Solutions GmbH
+ *******************************************************************************/
+package org.eclipse.tea.library.build.jar;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes ZIP files, deflating entries in parallel on a shared pool of worker
+ * threads. Entries are written in the order they are added.
+ * <p>
+ * Files are read through {@link FileChannel}s into direct buffers. Files up to
+ * {@link #CHUNK_SIZE} are deflated as a whole. Larger files are
+ * split into chunks which are deflated independently (primed with the
+ * preceding 32 KB as dictionary) and concatenated to a single deflate stream.
+ * Compression only depends on the file content, never on the number of
+ * threads or scheduling, so the output is reproducible. With fixed
+ * timestamps, identical inputs yield byte-identical archives.
+ * <p>
+ * Entries can be stored instead of deflated, e.g. for content that is
+ * compressed already. Their content is copied directly from the source file
+ * channel to the target.
+ * <p>
+ * The number of chunks in flight is bounded to limit memory usage. ZIP64
+ * extensions are written where required.
+ */
+final class ParallelZipWriter implements Closeable {
+
+	/** size of the chunks large files are split into */
+	static final int CHUNK_SIZE = 1024 * 1024;
+
+	static final int DICTIONARY_SIZE = 32 * 1024;
+	private static final long ZIP64_LIMIT = 0xFFFFFFFFL;
+
+	/** DOS date/time used for fixed timestamps (1980-01-01 00:00) */
+	private static final int FIXED_DOS_TIME = (1 << 21) | (1 << 16);
+
+	private static final int LOCAL_HEADER = 0x04034b50;
+	private static final int DATA_DESCRIPTOR = 0x08074b50;
+	private static final int CENTRAL_HEADER = 0x02014b50;
+	private static final int ZIP64_END = 0x06064b50;
+	private static final int ZIP64_LOCATOR = 0x07064b50;
+	private static final int END = 0x06054b50;
+
+	private static final int FLAG_DESCRIPTOR = 0x0008;
+	private static final int FLAG_UTF8 = 0x0800;
+
+	static final int THREADS = Math.max(1, Runtime.getRuntime().availableProcessors());
+	static final int MAX_IN_FLIGHT = THREADS * 4;
+
+	private static final AtomicInteger threadNo = new AtomicInteger();
+	static final ExecutorService POOL = Executors.newFixedThreadPool(THREADS, r -> {
+		Thread t = new Thread(r, "TEA ZIP Deflater #" + threadNo.incrementAndGet());
+		t.setDaemon(true);
+		return t;
+	});
+
+	/** per worker buffer holding the dictionary and one chunk of a file */
+	private static final ThreadLocal<ByteBuffer> READ_BUFFER = ThreadLocal
+			.withInitial(() -> ByteBuffer.allocateDirect(DICTIONARY_SIZE + CHUNK_SIZE));
+
+	private final ChannelOutput out;
+	private final boolean fixedTime;
+
+	private final Deque<Step> steps = new ArrayDeque<>();
+	private final List<Entry> written = new ArrayList<>();
+	private int inFlight = 0;
+	private boolean failed = false;
+
+	/**
+	 * @param file
+	 *            the ZIP file to create
+	 * @param fixedTime
+	 *            whether to write a fixed timestamp for all entries instead of
+	 *            the modification time.
+	 */
+	ParallelZipWriter(File file, boolean fixedTime) throws IOException {
+		this.out = new ChannelOutput(FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
+		this.fixedTime = fixedTime;
+	}
+
+	/**
+	 * Adds a directory entry. The name must end with a slash.
+	 */
+	void addDirectory(String name, FileTime time) throws IOException {
+		Entry e = new Entry(name, time);
+		e.method = Entry.STORED;
+		steps.add(new Step(e, null, Step.SINGLE));
+		drain(false);
+	}
+
+	/**
+	 * Adds a file entry. The file is read and deflated asynchronously.
+	 *
+	 * @param store
+	 *            whether to store the file without compression
+	 */
+	void addFile(String name, Path source, long length, FileTime time, boolean store) throws IOException {
+		Entry e = new Entry(name, time);
+		if (store) {
+			submit(new Step(e, () -> checksum(source, length), Step.SINGLE));
+			return;
+		}
+		if (length <= CHUNK_SIZE) {
+			submit(new Step(e, () -> deflate(source, 0, (int) length, true), Step.SINGLE));
+			return;
+		}
+
+		e.method = Entry.DEFLATED;
+		e.zip64 = length >= ZIP64_LIMIT - (length >> 8);
+		steps.add(new Step(e, null, Step.START));
+		for (long off = 0; off < length; off += CHUNK_SIZE) {
+			final long offset = off;
+			final int len = (int) Math.min(CHUNK_SIZE, length - off);
+			final boolean last = offset + len >= length;
+			submit(new Step(e, () -> deflate(source, offset, len, last), Step.CHUNK));
+		}
+		steps.add(new Step(e, null, Step.END));
+	}
+
+	/**
+	 * Adds a file entry with the given content. The content is deflated
+	 * asynchronously and must not be modified afterwards.
+	 */
+	void addData(String name, byte[] data, FileTime time) throws IOException {
+		Entry e = new Entry(name, time);
+		ByteBuffer buffer = ByteBuffer.wrap(data);
+		submit(new Step(e, () -> deflate(buffer, 0, data.length, true), Step.SINGLE));
+	}
+
+	private void submit(Step step) throws IOException {
+		// bound memory: write finished work before producing more.
+		while (inFlight >= MAX_IN_FLIGHT) {
+			drainOne();
+		}
+		step.future = POOL.submit(step.work);
+		inFlight++;
+		steps.add(step);
+	}
+
+	private void drain(boolean all) throws IOException {
+		while (!steps.isEmpty() && (all || steps.peek().future == null || steps.peek().future.isDone())) {
+			drainOne();
+		}
+	}
+
+	private void drainOne() throws IOException {
+		try {
+			write(steps.poll());
+		} catch (IOException | RuntimeException | Error ex) {
+			cancel();
+			throw ex;
+		}
+	}
+
+	/**
+	 * Cancels all pending work after a failure, so the shared workers don't
+	 * keep compressing entries that are never written.
+	 */
+	private void cancel() {
+		failed = true;
+		for (Step step : steps) {
+			if (step.future != null) {
+				step.future.cancel(false);
+			}
+		}
+		steps.clear();
+		inFlight = 0;
+	}
+
+	private void write(Step step) throws IOException {
+		Entry e = step.entry;
+		Chunk chunk = null;
+		if (step.future != null) {
+			inFlight--;
+			chunk = await(step.future, e.name);
+		}
+
+		switch (step.kind) {
+		case Step.SINGLE:
+			if (chunk != null) {
+				e.crc = chunk.crc;
+				e.size = chunk.rawLength;
+				if (chunk.source != null || chunk.raw != null) {
+					e.method = Entry.STORED;
+					e.compressedSize = chunk.rawLength;
+				} else {
+					e.method = Entry.DEFLATED;
+					e.compressedSize = chunk.length;
+				}
+			}
+			writeLocalHeader(e);
+			if (chunk != null) {
+				if (chunk.source != null) {
+					out.transferFrom(chunk.source, chunk.rawLength);
+				} else if (chunk.raw != null) {
+					out.write(chunk.raw, 0, chunk.raw.length);
+				} else {
+					out.write(chunk.data, 0, chunk.length);
+				}
+			}
+			written.add(e);
+			break;
+		case Step.START:
+			writeLocalHeader(e);
+			break;
+		case Step.CHUNK:
+			e.crc = e.size == 0 ? chunk.crc : crc32Combine(e.crc, chunk.crc, chunk.rawLength);
+			e.size += chunk.rawLength;
+			e.compressedSize += chunk.length;
+			out.write(chunk.data, 0, chunk.length);
+			break;
+		case Step.END:
+			writeInt(DATA_DESCRIPTOR);
+			writeInt(e.crc);
+			if (e.zip64) {
+				writeLong(e.compressedSize);
+				writeLong(e.size);
+			} else {
+				writeInt(e.compressedSize);
+				writeInt(e.size);
+			}
+			written.add(e);
+			break;
+		default:
+			throw new IllegalStateException();
+		}
+	}
+
+	private static Chunk await(Future<Chunk> future, String name) throws IOException {
+		try {
+			return future.get();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IOException("interrupted while compressing " + name, ex);
+		} catch (ExecutionException ex) {
+			throw new IOException("cannot compress " + name, ex.getCause());
+		}
+	}
+
+	/**
+	 * Reads and deflates a range of the given file.
+	 */
+	private static Chunk deflate(Path source, long offset, int length, boolean last) throws IOException {
+		int dictLength = (int) Math.min(DICTIONARY_SIZE, offset);
+		ByteBuffer buffer = READ_BUFFER.get();
+		buffer.clear().limit(dictLength + length);
+		try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+			read(channel, buffer, offset - dictLength, source);
+		}
+		return deflate(buffer, dictLength, length, last);
+	}
+
+	/**
+	 * Deflates the given range of the buffer, using the bytes in front of it
+	 * as dictionary.
+	 */
+	private static Chunk deflate(ByteBuffer buffer, int dictLength, int length, boolean last) {
+		ByteBuffer dictionary = buffer.duplicate().position(0).limit(dictLength);
+		ByteBuffer data = buffer.duplicate().position(dictLength).limit(dictLength + length);
+
+		Chunk chunk = new Chunk();
+		chunk.rawLength = length;
+
+		CRC32 crc = new CRC32();
+		crc.update(data.duplicate());
+		chunk.crc = crc.getValue();
+
+		Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+		try {
+			if (dictLength > 0) {
+				deflater.setDictionary(dictionary);
+			}
+			deflater.setInput(data.duplicate());
+
+			ByteArrayOutputStream result = new ByteArrayOutputStream(Math.max(64, length / 2));
+			byte[] out = new byte[64 * 1024];
+			if (last) {
+				deflater.finish();
+				while (!deflater.finished()) {
+					int n = deflater.deflate(out);
+					result.write(out, 0, n);
+				}
+			} else {
+				// byte aligned, non-final blocks, so chunks can be concatenated
+				int n;
+				do {
+					n = deflater.deflate(out, 0, out.length, Deflater.SYNC_FLUSH);
+					result.write(out, 0, n);
+				} while (n == out.length);
+			}
+			chunk.data = result.toByteArray();
+			chunk.length = chunk.data.length;
+		} finally {
+			deflater.end();
+		}
+
+		// store small entries that do not compress
+		if (dictLength == 0 && last && chunk.length >= length) {
+			chunk.raw = new byte[length];
+			data.get(chunk.raw);
+			chunk.data = null;
+		}
+		return chunk;
+	}
+
+	/**
+	 * Calculates the CRC of a file that is stored, its content is transferred
+	 * when writing the entry.
+	 */
+	private static Chunk checksum(Path source, long length) throws IOException {
+		ByteBuffer buffer = READ_BUFFER.get();
+		CRC32 crc = new CRC32();
+		try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+			for (long pos = 0; pos < length; pos += buffer.limit()) {
+				buffer.clear().limit((int) Math.min(buffer.capacity(), length - pos));
+				read(channel, buffer, pos, source);
+				buffer.flip();
+				crc.update(buffer);
+				buffer.limit(buffer.position());
+			}
+		}
+
+		Chunk chunk = new Chunk();
+		chunk.source = source;
+		chunk.rawLength = length;
+		chunk.crc = crc.getValue();
+		return chunk;
+	}
+
+	private static void read(FileChannel channel, ByteBuffer buffer, long position, Path source)
+			throws IOException {
+		long pos = position;
+		while (buffer.hasRemaining()) {
+			int n = channel.read(buffer, pos);
+			if (n < 0) {
+				throw new EOFException(source + " changed while compressing");
+			}
+			pos += n;
+		}
+	}
+
+	private void writeLocalHeader(Entry e) throws IOException {
+		e.offset = out.count;
+		boolean descriptor = e.streamed;
+		boolean zip64 = e.zip64 || (!descriptor && (e.size >= ZIP64_LIMIT || e.compressedSize >= ZIP64_LIMIT));
+		e.zip64 = zip64;
+
+		byte[] name = e.name.getBytes(StandardCharsets.UTF_8);
+		byte[] extra = localExtra(e);
+
+		writeInt(LOCAL_HEADER);
+		writeShort(e.versionNeeded());
+		writeShort(FLAG_UTF8 | (descriptor ? FLAG_DESCRIPTOR : 0));
+		writeShort(e.method);
+		writeInt(dosTime(e.time));
+		if (descriptor) {
+			writeInt(0);
+			writeInt(zip64 ? ZIP64_LIMIT : 0);
+			writeInt(zip64 ? ZIP64_LIMIT : 0);
+		} else {
+			writeInt(e.crc);
+			writeInt(zip64 ? ZIP64_LIMIT : e.compressedSize);
+			writeInt(zip64 ? ZIP64_LIMIT : e.size);
+		}
+		writeShort(name.length);
+		writeShort(extra.length);
+		out.write(name);
+		out.write(extra);
+	}
+
+	private byte[] localExtra(Entry e) throws IOException {
+		ByteArrayOutputStream extra = new ByteArrayOutputStream();
+		if (e.zip64) {
+			writeShort(extra, 0x0001);
+			writeShort(extra, 16);
+			writeLong(extra, e.streamed ? 0 : e.size);
+			writeLong(extra, e.streamed ? 0 : e.compressedSize);
+		}
+		writeTimestamp(extra, e);
+		return extra.toByteArray();
+	}
+
+	private void writeTimestamp(OutputStream extra, Entry e) throws IOException {
+		if (!fixedTime && e.time != null) {
+			// extended timestamp, modification time only
+			writeShort(extra, 0x5455);
+			writeShort(extra, 5);
+			extra.write(1);
+			writeInt(extra, e.time.toMillis() / 1000);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			// after a failure, the archive is incomplete anyway
+			if (!failed) {
+				drain(true);
+				writeCentralDirectory();
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	private void writeCentralDirectory() throws IOException {
+		long start = out.count;
+		for (Entry e : written) {
+			boolean offset64 = e.offset >= ZIP64_LIMIT;
+			boolean zip64 = e.zip64 || offset64;
+
+			byte[] name = e.name.getBytes(StandardCharsets.UTF_8);
+			ByteArrayOutputStream extra = new ByteArrayOutputStream();
+			if (zip64) {
+				writeShort(extra, 0x0001);
+				writeShort(extra, (e.zip64 ? 16 : 0) + (offset64 ? 8 : 0));
+				if (e.zip64) {
+					writeLong(extra, e.size);
+					writeLong(extra, e.compressedSize);
+				}
+				if (offset64) {
+					writeLong(extra, e.offset);
+				}
+			}
+			writeTimestamp(extra, e);
+
+			writeInt(CENTRAL_HEADER);
+			writeShort(zip64 ? 45 : 20);
+			writeShort(zip64 ? 45 : e.versionNeeded());
+			writeShort(FLAG_UTF8 | (e.streamed ? FLAG_DESCRIPTOR : 0));
+			writeShort(e.method);
+			writeInt(dosTime(e.time));
+			writeInt(e.crc);
+			writeInt(e.zip64 ? ZIP64_LIMIT : e.compressedSize);
+			writeInt(e.zip64 ? ZIP64_LIMIT : e.size);
+			writeShort(name.length);
+			writeShort(extra.size());
+			writeShort(0); // comment
+			writeShort(0); // disk
+			writeShort(0); // internal attributes
+			writeInt(0); // external attributes
+			writeInt(offset64 ? ZIP64_LIMIT : e.offset);
+			out.write(name);
+			extra.writeTo(out);
+		}
+		long end = out.count;
+		long size = end - start;
+		int count = written.size();
+
+		boolean zip64 = count >= 0xFFFF || start >= ZIP64_LIMIT || size >= ZIP64_LIMIT;
+		if (zip64) {
+			writeInt(ZIP64_END);
+			writeLong(44);
+			writeShort(45);
+			writeShort(45);
+			writeInt(0);
+			writeInt(0);
+			writeLong(count);
+			writeLong(count);
+			writeLong(size);
+			writeLong(start);
+
+			writeInt(ZIP64_LOCATOR);
+			writeInt(0);
+			writeLong(end);
+			writeInt(1);
+		}
+
+		writeInt(END);
+		writeShort(0);
+		writeShort(0);
+		writeShort(zip64 ? 0xFFFF : count);
+		writeShort(zip64 ? 0xFFFF : count);
+		writeInt(zip64 ? ZIP64_LIMIT : size);
+		writeInt(zip64 ? ZIP64_LIMIT : start);
+		writeShort(0);
+	}
+
+	private int dosTime(FileTime time) {
+		if (fixedTime || time == null) {
+			return FIXED_DOS_TIME;
+		}
+		LocalDateTime ldt = LocalDateTime.ofInstant(time.toInstant(), ZoneId.systemDefault());
+		if (ldt.getYear() < 1980) {
+			return FIXED_DOS_TIME;
+		}
+		return (ldt.getYear() - 1980) << 25 | ldt.getMonthValue() << 21 | ldt.getDayOfMonth() << 16
+				| ldt.getHour() << 11 | ldt.getMinute() << 5 | ldt.getSecond() >> 1;
+	}
+
+	private void writeShort(int v) throws IOException {
+		writeShort(out, v);
+	}
+
+	private void writeInt(long v) throws IOException {
+		writeInt(out, v);
+	}
+
+	private void writeLong(long v) throws IOException {
+		writeLong(out, v);
+	}
+
+	private static void writeShort(OutputStream os, int v) throws IOException {
+		os.write(v & 0xff);
+		os.write((v >>> 8) & 0xff);
+	}
+
+	private static void writeInt(OutputStream os, long v) throws IOException {
+		writeShort(os, (int) (v & 0xffff));
+		writeShort(os, (int) ((v >>> 16) & 0xffff));
+	}
+
+	private static void writeLong(OutputStream os, long v) throws IOException {
+		writeInt(os, v & ZIP64_LIMIT);
+		writeInt(os, v >>> 32);
+	}
+
+	/**
+	 * Combines the CRC-32 of two consecutive blocks, see zlib's
+	 * <code>crc32_combine</code>.
+	 */
+	static long crc32Combine(long crc1, long crc2, long len2) {
+		if (len2 <= 0) {
+			return crc1;
+		}
+
+		long[] even = new long[32];
+		long[] odd = new long[32];
+
+		// operator for one zero bit
+		odd[0] = 0xedb88320L;
+		long row = 1;
+		for (int n = 1; n < 32; n++) {
+			odd[n] = row;
+			row <<= 1;
+		}
+		gf2MatrixSquare(even, odd); // two zero bits
+		gf2MatrixSquare(odd, even); // four zero bits
+
+		do {
+			gf2MatrixSquare(even, odd);
+			if ((len2 & 1) != 0) {
+				crc1 = gf2MatrixTimes(even, crc1);
+			}
+			len2 >>= 1;
+			if (len2 == 0) {
+				break;
+			}
+			gf2MatrixSquare(odd, even);
+			if ((len2 & 1) != 0) {
+				crc1 = gf2MatrixTimes(odd, crc1);
+			}
+			len2 >>= 1;
+		} while (len2 != 0);
+
+		return crc1 ^ crc2;
+	}
+
+	private static long gf2MatrixTimes(long[] mat, long vec) {
+		long sum = 0;
+		int i = 0;
+		while (vec != 0) {
+			if ((vec & 1) != 0) {
+				sum ^= mat[i];
+			}
+			vec >>= 1;
+			i++;
+		}
+		return sum;
+	}
+
+	private static void gf2MatrixSquare(long[] square, long[] mat) {
+		for (int n = 0; n < 32; n++) {
+			square[n] = gf2MatrixTimes(mat, mat[n]);
+		}
+	}
+
+	private static final class Entry {
+
+		static final int STORED = 0;
+		static final int DEFLATED = 8;
+
+		final String name;
+		final FileTime time;
+
+		int method = -1;
+		long crc;
+		long size;
+		long compressedSize;
+		long offset;
+		boolean zip64;
+		boolean streamed;
+
+		Entry(String name, FileTime time) {
+			this.name = name;
+			this.time = time;
+		}
+
+		int versionNeeded() {
+			if (zip64) {
+				return 45;
+			}
+			return method == DEFLATED ? 20 : 10;
+		}
+	}
+
+	private static final class Step {
+
+		static final int SINGLE = 0;
+		static final int START = 1;
+		static final int CHUNK = 2;
+		static final int END = 3;
+
+		final Entry entry;
+		final Callable<Chunk> work;
+		final int kind;
+		Future<Chunk> future;
+
+		Step(Entry entry, Callable<Chunk> work, int kind) {
+			this.entry = entry;
+			this.work = work;
+			this.kind = kind;
+			if (kind == START) {
+				entry.streamed = true;
+			}
+		}
+	}
+
+	private static final class Chunk {
+
+		byte[] data;
+		int length;
+		byte[] raw;
+		Path source;
+		long rawLength;
+		long crc;
+	}
+
+	/**
+	 * Buffered output to a {@link FileChannel}, counting the bytes written.
+	 */
+	private static final class ChannelOutput extends OutputStream {
+
+		private final FileChannel channel;
+		private final ByteBuffer buffer = ByteBuffer.allocateDirect(256 * 1024);
+		long count;
+
+		ChannelOutput(FileChannel channel) {
+			this.channel = channel;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			if (!buffer.hasRemaining()) {
+				flushBuffer();
+			}
+			buffer.put((byte) b);
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			while (len > 0) {
+				if (!buffer.hasRemaining()) {
+					flushBuffer();
+				}
+				int n = Math.min(len, buffer.remaining());
+				buffer.put(b, off, n);
+				off += n;
+				len -= n;
+				count += n;
+			}
+		}
+
+		/**
+		 * Copies the given file to the output without passing it through the
+		 * Java heap.
+		 */
+		void transferFrom(Path source, long length) throws IOException {
+			flushBuffer();
+			try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+				long pos = 0;
+				while (pos < length) {
+					long n = in.transferTo(pos, length - pos, channel);
+					if (n <= 0) {
+						throw new EOFException(source + " changed while compressing");
+					}
+					pos += n;
+				}
+			}
+			count += length;
+		}
+
+		private void flushBuffer() throws IOException {
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				flushBuffer();
+			} finally {
+				channel.close();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,141 @@
+/*******************************************************************************
+ *  Copyright (c) 2026 SSI Schaefer IT Solutions GmbH and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  Contributors:
+ *      SSI Schaefer IT Solutions GmbH
+ *******************************************************************************/
+package org.eclipse.tea.library.build.jar;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.tea.library.build.internal.Activator;
+import org.eclipse.tea.library.build.util.FileUtils;
+
+/**
+ * Persistent record of the qualifier each bundle was last built with, along
+ * with a hash of its content.
+ * <p>
+ * The {@link JarManager} uses it to keep the qualifier of bundles whose
+ * content did not change, so p2 does not consider them updated. New entries
+ * are appended to the file; superseded lines are removed when the ledger is
+ * opened.
+ */
+public final class QualifierLedger {
+
+	/** one instance per file, so appends are serialized */
+	private static final Map<File, QualifierLedger> ledgers = new HashMap<>();
+
+	private final File file;
+	private final Map<String, String> entries = new HashMap<>();
+
+	/**
+	 * Reads the ledger from the given file. Use {@link #open(String)} to share
+	 * the instance with other users of the file.
+	 */
+	QualifierLedger(File file) {
+		this.file = file;
+		if (file.isFile()) {
+			load();
+		}
+	}
+
+	/**
+	 * @param location
+	 *            the ledger file, empty or <code>null</code> to use the default
+	 *            location in the workspace metadata.
+	 * @return the ledger stored at the given location
+	 */
+	public static synchronized QualifierLedger open(String location) {
+		File f;
+		if (location == null || location.trim().isEmpty()) {
+			f = Platform.getStateLocation(Activator.getContext().getBundle()).append("qualifiers.properties")
+					.toFile();
+		} else {
+			f = new File(location.trim());
+		}
+		return ledgers.computeIfAbsent(f.getAbsoluteFile(), QualifierLedger::new);
+	}
+
+	private void load() {
+		Properties props = FileUtils.readProperties(file);
+		for (String key : props.stringPropertyNames()) {
+			entries.put(key, props.getProperty(key));
+		}
+
+		try {
+			List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.ISO_8859_1);
+			if (lines.size() > 2 * entries.size() + 16) {
+				compact(props);
+			}
+		} catch (IOException e) {
+			// keep the file as is, it is still valid.
+		}
+	}
+
+	private void compact(Properties props) throws IOException {
+		File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+		FileUtils.writeProperties(props, tmp);
+		Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Determines the qualifier to use for a bundle.
+	 *
+	 * @param key
+	 *            identifies the bundle, including its version without
+	 *            qualifier
+	 * @param hash
+	 *            the content hash of the bundle, independent of its qualifier
+	 * @param qualifier
+	 *            the qualifier of the current build
+	 * @return the recorded qualifier if the content did not change, otherwise
+	 *         the given qualifier, which is recorded for the next build.
+	 */
+	public synchronized String qualify(String key, String hash, String qualifier) throws IOException {
+		String entry = entries.get(key);
+		if (entry != null && entry.startsWith(hash + ',')) {
+			return entry.substring(hash.length() + 1);
+		}
+
+		String value = hash + ',' + qualifier;
+		entries.put(key, value);
+		append(key, value);
+		return qualifier;
+	}
+
+	private void append(String key, String value) throws IOException {
+		// let Properties take care of escaping, but skip the date comment
+		Properties single = new Properties();
+		single.setProperty(key, value);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		single.store(bytes, null);
+
+		StringBuilder builder = new StringBuilder();
+		for (String line : new String(bytes.toByteArray(), StandardCharsets.ISO_8859_1).split("\\R")) {
+			if (!line.isEmpty() && !line.startsWith("#")) {
+				builder.append(line).append('\n');
+			}
+		}
+
+		FileUtils.mkdirs(file.getParentFile());
+		Files.write(file.toPath(), builder.toString().getBytes(StandardCharsets.ISO_8859_1),
+				StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+	}
+
+}
@@ -0,0 +1,253 @@
+/*******************************************************************************
+ *  Copyright (c) 2026 SSI Schaefer IT Solutions GmbH and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  Contributors:
+ *      SSI Schaefer IT Solutions GmbH
+ *******************************************************************************/
+package org.eclipse.tea.library.build.jar;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Creates gzip compressed tar archives (POSIX pax format) of a directory tree.
+ * <p>
+ * Unlike ZIP archives, tar archives keep file permissions and symbolic links,
+ * which matters for launchers of Linux products. On hosts without POSIX file
+ * permissions, regular files are archived with mode 0644. Compression runs in
+ * parallel, see {@link ParallelGzipOutputStream}.
+ */
+public final class TarGzArchiver {
+
+	private static final int BLOCK = 512;
+	private static final int RECORD = 20 * BLOCK;
+	private static final int NAME_LENGTH = 100;
+	private static final int PREFIX_LENGTH = 155;
+	private static final long MAX_OCTAL_SIZE = 077777777777L;
+
+	private static final byte TYPE_FILE = '0';
+	private static final byte TYPE_SYMLINK = '2';
+	private static final byte TYPE_DIRECTORY = '5';
+	private static final byte TYPE_PAX = 'x';
+
+	private final OutputStream out;
+	private long written = 0;
+
+	private TarGzArchiver(OutputStream out) {
+		this.out = out;
+	}
+
+	/**
+	 * Archives all files below the given directory, named relative to it.
+	 *
+	 * @param sourceDir
+	 *            the directory to archive
+	 * @param target
+	 *            the archive to create
+	 */
+	public static void create(File sourceDir, File target) throws IOException {
+		Path root = sourceDir.toPath();
+		List<Path> paths;
+		try (Stream<Path> s = Files.walk(root)) {
+			paths = s.filter(p -> !p.equals(root)).sorted().collect(Collectors.toList());
+		}
+
+		try (OutputStream os = new ParallelGzipOutputStream(
+				new BufferedOutputStream(Files.newOutputStream(target.toPath()), 256 * 1024))) {
+			TarGzArchiver tar = new TarGzArchiver(os);
+			for (Path p : paths) {
+				tar.add(root.relativize(p).toString().replace(File.separatorChar, '/'), p);
+			}
+			tar.finish();
+		}
+	}
+
+	private void add(String name, Path path) throws IOException {
+		BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+		int mode = getMode(path, attrs);
+		long mtime = attrs.lastModifiedTime().toMillis() / 1000;
+
+		if (attrs.isSymbolicLink()) {
+			String link = Files.readSymbolicLink(path).toString().replace(File.separatorChar, '/');
+			writeHeader(name, link, TYPE_SYMLINK, mode, 0, mtime);
+		} else if (attrs.isDirectory()) {
+			writeHeader(name + '/', null, TYPE_DIRECTORY, mode, 0, mtime);
+		} else {
+			long size = attrs.size();
+			writeHeader(name, null, TYPE_FILE, mode, size, mtime);
+			long copied = Files.copy(path, out);
+			if (copied != size) {
+				throw new IOException(path + " changed while archiving");
+			}
+			written += size;
+			pad();
+		}
+	}
+
+	private static int getMode(Path path, BasicFileAttributes attrs) throws IOException {
+		try {
+			Set<PosixFilePermission> perms = Files
+					.readAttributes(path, PosixFileAttributes.class, LinkOption.NOFOLLOW_LINKS).permissions();
+			int mode = 0;
+			for (PosixFilePermission perm : perms) {
+				// enum order: owner rwx, group rwx, others rwx
+				mode |= 0400 >> perm.ordinal();
+			}
+			return mode;
+		} catch (UnsupportedOperationException e) {
+			// no permissions to keep (e.g. Windows). Files.isExecutable is
+			// true for every file there, so regular files are never marked
+			// executable.
+			if (attrs.isDirectory() || attrs.isSymbolicLink()) {
+				return 0755;
+			}
+			return 0644;
+		}
+	}
+
+	private void writeHeader(String name, String link, byte type, int mode, long size, long mtime)
+			throws IOException {
+		byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+		byte[] linkBytes = link == null ? new byte[0] : link.getBytes(StandardCharsets.UTF_8);
+
+		// names that do not fit into the ustar fields are stored in a pax
+		// extended header in front of the entry
+		int split = findSplit(nameBytes);
+		StringBuilder pax = new StringBuilder();
+		if (split < 0) {
+			addPaxRecord(pax, "path", name);
+		}
+		if (linkBytes.length > NAME_LENGTH) {
+			addPaxRecord(pax, "linkpath", link);
+		}
+		if (size > MAX_OCTAL_SIZE) {
+			addPaxRecord(pax, "size", Long.toString(size));
+		}
+		if (pax.length() > 0) {
+			byte[] data = pax.toString().getBytes(StandardCharsets.UTF_8);
+			writeBlock(buildHeader(truncate(nameBytes, NAME_LENGTH), 0, new byte[0], TYPE_PAX, 0644, data.length,
+					mtime));
+			out.write(data);
+			written += data.length;
+			pad();
+		}
+
+		writeBlock(buildHeader(split < 0 ? truncate(nameBytes, NAME_LENGTH) : nameBytes, Math.max(split, 0),
+				truncate(linkBytes, NAME_LENGTH), type, mode, size > MAX_OCTAL_SIZE ? 0 : size, mtime));
+	}
+
+	/**
+	 * @return 0 if the name fits into the name field, the index of the slash
+	 *         separating prefix and name if it needs to be split, or -1 if it
+	 *         does not fit at all.
+	 */
+	private static int findSplit(byte[] name) {
+		if (name.length <= NAME_LENGTH) {
+			return 0;
+		}
+		for (int i = Math.min(PREFIX_LENGTH, name.length - 1); i > 0; --i) {
+			if (name[i] == '/' && name.length - i - 1 <= NAME_LENGTH && name.length - i - 1 > 0) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static byte[] buildHeader(byte[] name, int split, byte[] link, byte type, int mode, long size,
+			long mtime) {
+		byte[] h = new byte[BLOCK];
+		if (split > 0) {
+			System.arraycopy(name, split + 1, h, 0, name.length - split - 1);
+			System.arraycopy(name, 0, h, 345, split);
+		} else {
+			System.arraycopy(name, 0, h, 0, name.length);
+		}
+		putOctal(h, 100, 8, mode);
+		putOctal(h, 108, 8, 0); // uid
+		putOctal(h, 116, 8, 0); // gid
+		putOctal(h, 124, 12, size);
+		putOctal(h, 136, 12, Math.max(0, mtime));
+		h[156] = type;
+		System.arraycopy(link, 0, h, 157, link.length);
+		System.arraycopy("ustar\u000000".getBytes(StandardCharsets.US_ASCII), 0, h, 257, 8);
+
+		// checksum is calculated with the checksum field set to blanks
+		for (int i = 148; i < 156; ++i) {
+			h[i] = ' ';
+		}
+		long sum = 0;
+		for (byte b : h) {
+			sum += b & 0xff;
+		}
+		putOctal(h, 148, 7, sum);
+		return h;
+	}
+
+	private static void putOctal(byte[] h, int offset, int length, long value) {
+		String s = Long.toOctalString(value);
+		int digits = length - 1;
+		for (int i = 0; i < digits; ++i) {
+			int idx = s.length() - digits + i;
+			h[offset + i] = idx < 0 ? (byte) '0' : (byte) s.charAt(idx);
+		}
+		h[offset + digits] = 0;
+	}
+
+	private static byte[] truncate(byte[] bytes, int length) {
+		if (bytes.length <= length) {
+			return bytes;
+		}
+		byte[] result = new byte[length];
+		System.arraycopy(bytes, 0, result, 0, length);
+		return result;
+	}
+
+	private static void addPaxRecord(StringBuilder pax, String key, String value) {
+		// "<length> <key>=<value>\n", the length includes itself
+		int len = key.length() + value.getBytes(StandardCharsets.UTF_8).length + 3;
+		int total = len + Integer.toString(len).length();
+		if (Integer.toString(total).length() > Integer.toString(len).length()) {
+			total++;
+		}
+		pax.append(total).append(' ').append(key).append('=').append(value).append('\n');
+	}
+
+	private void writeBlock(byte[] block) throws IOException {
+		out.write(block);
+		written += block.length;
+	}
+
+	private void pad() throws IOException {
+		int rest = (int) (written % BLOCK);
+		if (rest != 0) {
+			writeBlock(new byte[BLOCK - rest]);
+		}
+	}
+
+	private void finish() throws IOException {
+		// two empty blocks, padded to a full record
+		writeBlock(new byte[2 * BLOCK]);
+		int rest = (int) (written % RECORD);
+		if (rest != 0) {
+			writeBlock(new byte[RECORD - rest]);
+		}
+	}
+
+}
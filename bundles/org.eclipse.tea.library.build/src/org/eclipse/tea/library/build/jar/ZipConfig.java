@@ -12,6 +12,8 @@ package org.eclipse.tea.library.build.jar;
 
 import org.eclipse.tea.core.services.TaskingConfigurationExtension;
 import org.eclipse.tea.core.services.TaskingConfigurationExtension.TaskingConfig;
+import org.eclipse.tea.core.services.TaskingLog;
+import org.eclipse.tea.library.build.util.AdaptiveConcurrency;
 import org.osgi.service.component.annotations.Component;
 
 @TaskingConfig(description = "TEA ZIP Configuration")
@@ -28,4 +30,36 @@ public class ZipConfig implements TaskingConfigurationExtension {
 	@TaskingConfigProperty(description = "Maximum parallel ZIP threads", name = "jarInstallThreadCount")
 	public long zipParallelThreads = 5;
 
+	@TaskingConfigProperty(description = "Adapt the number of parallel workers (JAR export, update site ZIPs, Maven downloads) to the observed throughput, starting at the maximum parallel ZIP threads. Otherwise that number is used throughout.")
+	public boolean adaptiveParallelThreads = false;
+
+	@TaskingConfigProperty(description = "Maximum number of adaptive parallel workers (0: twice the number of processors)")
+	public long maxParallelThreads = 0;
+
+	@TaskingConfigProperty(description = "Timeout for a single run of the external ZIP application in seconds (0: none)")
+	public long zipTimeout = 1800;
+
+	@TaskingConfigProperty(description = "File extensions stored without compression by the internal ZIP (comma separated, e.g. jar,zip,png). Empty compresses all files.")
+	public String zipStoredExtensions = "";
+
+	@TaskingConfigProperty(description = "Directory of the persistent JAR cache (default: workspace metadata)")
+	public String jarCacheDirectory = "";
+
+	@TaskingConfigProperty(description = "Maximum size of the persistent JAR cache in MB (0 disables the cache, requires stable qualifiers)")
+	public long jarCacheMaxSize = 0;
+
+	/**
+	 * Creates a controller for the number of parallel workers, starting with
+	 * {@link #zipParallelThreads}.
+	 *
+	 * @param name
+	 *            the name of the controller used in log and statistics
+	 * @param log
+	 *            used to log limit changes
+	 */
+	public AdaptiveConcurrency createConcurrency(String name, TaskingLog log) {
+		return new AdaptiveConcurrency(name, log, (int) zipParallelThreads, (int) maxParallelThreads,
+				adaptiveParallelThreads);
+	}
+
 }
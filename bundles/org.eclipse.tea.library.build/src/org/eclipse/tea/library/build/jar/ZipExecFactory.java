@@ -11,10 +11,13 @@
 package org.eclipse.tea.library.build.jar;
 
 import java.io.File;
+import java.util.Set;
+import java.util.TreeSet;
 
 import javax.inject.Inject;
 
 import org.eclipse.e4.core.di.annotations.Creatable;
+import org.eclipse.tea.core.services.TaskProgressTracker;
 import org.eclipse.tea.core.services.TaskingLog;
 
 /**
@@ -33,6 +36,22 @@ public class ZipExecFactory {
 	 */
 	public final TaskingLog log;
 
+	/**
+	 * file extensions stored without compression by the internal ZIP
+	 */
+	private final Set<String> storedExtensions;
+
+	/**
+	 * maximum runtime of the external ZIP application in seconds; 0 for none
+	 */
+	private final long timeout;
+
+	/**
+	 * progress tracker of the task using this factory on the current thread
+	 * (or the thread that created it); not set if unknown
+	 */
+	private final InheritableThreadLocal<TaskProgressTracker> tracker = new InheritableThreadLocal<>();
+
 	private boolean showWarning = true;
 
 	/**
@@ -43,7 +62,7 @@ public class ZipExecFactory {
 
 	@Inject
 	public ZipExecFactory(TaskingLog log, ZipConfig config) {
-		this(log, config.zipProgramExecutable);
+		this(log, config.zipProgramExecutable, config.zipStoredExtensions, config.zipTimeout);
 	}
 
 	/**
@@ -56,7 +75,44 @@ public class ZipExecFactory {
 	 *            have an external ZIP application
 	 */
 	public ZipExecFactory(TaskingLog log, String zipProgramExecutable) {
+		this(log, zipProgramExecutable, new ZipConfig().zipStoredExtensions);
+	}
+
+	/**
+	 * Creates the factory by (optionally) using an external ZIP application.
+	 *
+	 * @param log
+	 *            stream for warnings and errors
+	 * @param zipProgramExecutable
+	 *            path and name of the ZIP application; {@code null} if we don't
+	 *            have an external ZIP application
+	 * @param storedExtensions
+	 *            comma separated list of file extensions to store without
+	 *            compression when using the internal ZIP
+	 */
+	public ZipExecFactory(TaskingLog log, String zipProgramExecutable, String storedExtensions) {
+		this(log, zipProgramExecutable, storedExtensions, new ZipConfig().zipTimeout);
+	}
+
+	/**
+	 * Creates the factory by (optionally) using an external ZIP application.
+	 *
+	 * @param log
+	 *            stream for warnings and errors
+	 * @param zipProgramExecutable
+	 *            path and name of the ZIP application; {@code null} if we don't
+	 *            have an external ZIP application
+	 * @param storedExtensions
+	 *            comma separated list of file extensions to store without
+	 *            compression when using the internal ZIP
+	 * @param timeout
+	 *            maximum runtime of the external ZIP application in seconds; 0
+	 *            for no timeout
+	 */
+	public ZipExecFactory(TaskingLog log, String zipProgramExecutable, String storedExtensions, long timeout) {
 		this.log = log;
+		this.storedExtensions = InternalZipExec.parseExtensions(storedExtensions);
+		this.timeout = timeout;
 
 		if (zipProgramExecutable == null) {
 			this.zipExe = null;
@@ -74,12 +130,38 @@ public class ZipExecFactory {
 		ZipExecFactory.ignoreExternalZipExe = ignoreExternalZipExe;
 	}
 
+	/**
+	 * Defines the progress tracker used to cancel running external ZIP
+	 * applications. Tasks set it while they use the factory, and reset it to
+	 * {@code null} afterwards. The tracker applies to the current thread and
+	 * threads created by it, so tasks running in parallel don't interfere.
+	 */
+	public void setProgressTracker(TaskProgressTracker tracker) {
+		if (tracker == null) {
+			this.tracker.remove();
+		} else {
+			this.tracker.set(tracker);
+		}
+	}
+
+	/**
+	 * @return a description of the ZIP implementation {@link #createZipExec()}
+	 *         uses and its settings, which determine the created archives
+	 *         along with their content.
+	 */
+	public synchronized String getConfigurationKey() {
+		if (ignoreExternalZipExe || zipExe == null || !zipExe.isFile()) {
+			return "internal:" + new TreeSet<>(storedExtensions);
+		}
+		return "external:" + zipExe.getAbsolutePath();
+	}
+
 	/**
 	 * Creates a fresh ZIP executor.
 	 */
 	public synchronized ZipExec createZipExec() {
 		if (ignoreExternalZipExe) {
-			return new InternalZipExec(log);
+			return new InternalZipExec(log, storedExtensions);
 		}
 
 		if (zipExe == null) {
@@ -87,16 +169,16 @@ public class ZipExecFactory {
 				log.info("no ZIP application defined");
 				showWarning = false;
 			}
-			return new InternalZipExec(log);
+			return new InternalZipExec(log, storedExtensions);
 		}
 		if (!zipExe.isFile()) {
 			if (showWarning) {
 				log.info("cannot find " + zipExe);
 				showWarning = false;
 			}
-			return new InternalZipExec(log);
+			return new InternalZipExec(log, storedExtensions);
 		}
-		return new ExternalZipExec(zipExe);
+		return new ExternalZipExec(zipExe, log, timeout, tracker.get());
 	}
 
 }
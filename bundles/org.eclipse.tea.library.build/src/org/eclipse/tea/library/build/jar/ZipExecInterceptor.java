@@ -47,6 +47,7 @@ public interface ZipExecInterceptor {
 
 				ZipExecPart additionalPart = new ZipExecPart(part);
 				additionalPart.relativePaths.clear();
+				additionalPart.virtualEntries.clear();
 				additionalPart.sourceDirectory = replacementSourceDirectory;
 				additionalPart.relativePaths.add(replacementRelativePath);
 				parts.add(additionalPart);
@@ -14,6 +14,8 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * contains the elements for one part of an add/create operation
@@ -30,6 +32,13 @@ public class ZipExecPart {
 	 */
 	public final List<String> relativePaths = new ArrayList<>();
 
+	/**
+	 * entries whose content is held in memory, by entry name. They replace
+	 * files with the same entry name from any part of the operation, and never
+	 * touch the {@link #sourceDirectory}.
+	 */
+	public final Map<String, byte[]> virtualEntries = new TreeMap<>();
+
 	/**
 	 * exclude Git files
 	 */
@@ -45,6 +54,7 @@ public class ZipExecPart {
 	public ZipExecPart(ZipExecPart source) {
 		sourceDirectory = source.sourceDirectory;
 		relativePaths.addAll(source.relativePaths);
+		virtualEntries.putAll(source.virtualEntries);
 		excludeGit = source.excludeGit;
 	}
 
@@ -54,7 +64,7 @@ public class ZipExecPart {
 	String getJarKey() {
 		if (jarKey == null) {
 			if (relativePaths.isEmpty()) {
-				jarKey = "";
+				jarKey = virtualEntries.isEmpty() ? "" : virtualEntries.keySet().iterator().next();
 			} else {
 				Collections.sort(relativePaths, JarComparator.instance);
 				jarKey = relativePaths.get(0);
@@ -0,0 +1,53 @@
+/*******************************************************************************
+ *  Copyright (c) 2026 SSI Schaefer IT Solutions GmbH and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  Contributors:
+ *      SSI Schaefer IT Solutions GmbH
+ *******************************************************************************/
+package org.eclipse.tea.library.build.lifecycle;
+
+import javax.inject.Named;
+
+import org.eclipse.e4.core.contexts.IEclipseContext;
+import org.eclipse.tea.core.BackgroundTask;
+import org.eclipse.tea.core.TaskingInjectionHelper;
+import org.eclipse.tea.core.annotations.TaskReloadConfiguration;
+import org.eclipse.tea.core.annotations.lifecycle.FinishTask;
+import org.eclipse.tea.core.services.TaskingLifeCycleListener;
+import org.eclipse.tea.core.services.TaskingLog;
+import org.eclipse.tea.library.build.model.TaskInvalidatesWorkspaceModel;
+import org.eclipse.tea.library.build.model.WorkspaceBuild;
+import org.eclipse.tea.library.build.model.WorkspaceData;
+import org.osgi.service.component.annotations.Component;
+
+/**
+ * Discards the workspace model shared by tasks of a task chain after a task
+ * that changed the underlying files.
+ */
+@Component
+public class WorkspaceModelInvalidator implements TaskingLifeCycleListener {
+
+	@FinishTask
+	public void invalidate(IEclipseContext taskContext, TaskingLog log,
+			@Named(TaskingInjectionHelper.CTX_TASK) Object task) {
+		// the model is discarded as soon as the task was started in the
+		// background, so following tasks don't keep using the old one.
+		Class<?> type = (task instanceof BackgroundTask ? ((BackgroundTask) task).getTask() : task).getClass();
+		if (type.getAnnotation(TaskInvalidatesWorkspaceModel.class) == null
+				&& type.getAnnotation(TaskReloadConfiguration.class) == null) {
+			return;
+		}
+
+		IEclipseContext executionContext = TaskingInjectionHelper.findExecutionContext(taskContext);
+		if (executionContext.getLocal(WorkspaceData.class) != null) {
+			log.debug("discarding workspace model");
+		}
+		executionContext.remove(WorkspaceBuild.class);
+		executionContext.remove(WorkspaceData.class);
+	}
+
+}
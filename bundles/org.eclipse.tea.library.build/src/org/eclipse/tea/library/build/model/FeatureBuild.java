@@ -171,7 +171,7 @@ public class FeatureBuild extends BundleBuild<FeatureData> {
 		}
 
 		if (strictVersion && pluginElement != null) {
-			String version = jm.getBundleVersion(plugin.getData());
+			String version = jm.getBundleVersion(plugin);
 			pluginElement.setAttribute("version", version);
 		}
 	}
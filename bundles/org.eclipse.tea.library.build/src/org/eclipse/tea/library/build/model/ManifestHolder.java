@@ -12,12 +12,16 @@ package org.eclipse.tea.library.build.model;
 
 import static org.eclipse.tea.library.build.model.BundleData.splitList;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.LineNumberReader;
+import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -281,7 +285,32 @@ final class ManifestHolder {
 
 	private static final String MANIFEST_VERSION = "Manifest-Version";
 
-	void write(File mfFile) throws IOException {
+	synchronized void write(File mfFile) throws IOException {
+		try (Writer ps = new FileWriter(mfFile)) {
+			write(ps);
+		}
+	}
+
+	/**
+	 * @return the manifest as written to disk, encoded as UTF-8
+	 */
+	synchronized byte[] toByteArray() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (Writer ps = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+			write(ps);
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * @return an independent copy of this manifest, which can be modified
+	 *         without affecting this one.
+	 */
+	ManifestHolder copy() throws IOException {
+		return new ManifestHolder(new Manifest(new ByteArrayInputStream(toByteArray())), referenceFile);
+	}
+
+	private void write(Writer ps) throws IOException {
 		// calculate the order of the manifest entries
 		if (referenceFile != null) {
 			calculateOrder();
@@ -312,13 +341,8 @@ final class ManifestHolder {
 		});
 
 		// write the manifest
-		Writer ps = new FileWriter(mfFile);
-		try {
-			for (ManifestAttribute mf : sorted) {
-				writeAttribute(mf.name, mf.values, ps);
-			}
-		} finally {
-			ps.close();
+		for (ManifestAttribute mf : sorted) {
+			writeAttribute(mf.name, mf.values, ps);
 		}
 	}
 
@@ -12,6 +12,7 @@ package org.eclipse.tea.library.build.model;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -21,6 +22,7 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.eclipse.core.resources.IResource;
+import org.eclipse.tea.library.build.jar.BinaryJarSplitter;
 import org.eclipse.tea.library.build.jar.JarManager;
 import org.eclipse.tea.library.build.jar.ZipExec;
 import org.eclipse.tea.library.build.jar.ZipExecFactory;
@@ -38,6 +40,8 @@ public class PluginBuild extends BundleBuild<PluginData> implements Comparable<P
 	protected Set<String> workspaceDependencies;
 	protected final Set<PluginBuild> fragments = new TreeSet<>();
 
+	private static final String MANIFEST_ENTRY = "META-INF/MANIFEST.MF";
+
 	public static final Pattern MAVEN_COORDINATE_PATTERN = Pattern
 			.compile("([^: ]+):([^: ]+)(:([^: ]*)(:([^: ]+))?)?:([^: ]+)");
 
@@ -217,24 +221,12 @@ public class PluginBuild extends BundleBuild<PluginData> implements Comparable<P
 	public File execJarCommands(ZipExecFactory zip, File distDirectory, String buildVersion, boolean withBinInc,
 			boolean withSource, ZipExecInterceptor zipExecInterceptor) throws Exception {
 
-		final String oldBundleVersion = data.getBundleVersion();
-		final File manifest = data.getManifestFile();
-		if (oldBundleVersion == null || manifest == null) {
-			// simply create the JAR
-			return doExecJarCommands(zip, distDirectory, buildVersion, withBinInc, withSource, zipExecInterceptor);
-		}
-
-		// backup the manifest file
-		File rootDir = manifest.getParentFile().getParentFile();
-		final File backup = new File(rootDir, "__manifest__.bak");
-		FileUtils.copyFile(manifest, backup);
-		final long timeStamp = manifest.lastModified();
-
-		String[] classPath = data.getClassPath();
-
-		try {
-			// create the new manifest
-			data.setBundleVersion(buildVersion);
+		// the manifest is created in memory, the workspace is not touched.
+		final byte[] manifest;
+		if (data.getBundleVersion() == null) {
+			manifest = data.createBinaryDeploymentManifest(null, null);
+		} else {
+			String[] classPath = data.getClassPath();
 
 			// TODO: what to do about this? don't want to have it always?
 			String[] enhancedCP = new String[classPath.length + (classPath.length == 0 ? 2 : 1)];
@@ -243,23 +235,13 @@ public class PluginBuild extends BundleBuild<PluginData> implements Comparable<P
 				enhancedCP[1] = ".";
 			}
 			System.arraycopy(classPath, 0, enhancedCP, 1, classPath.length);
-			data.setClassPath(enhancedCP);
-
-			data.writeManifest();
-			if (!manifest.setLastModified(timeStamp)) {
-				zip.log.debug("cannot set last modified time: " + manifest);
-			}
 
-			// create the JAR
-			return doExecJarCommands(zip, distDirectory, buildVersion, withBinInc, withSource, zipExecInterceptor);
-		} finally {
-			// restore the old manifest
-			FileUtils.copyFile(backup, manifest);
-			FileUtils.delete(backup);
-			data.setBundleVersion(oldBundleVersion);
-			data.setClassPath(classPath);
-			data.refreshProject();
+			manifest = data.createBinaryDeploymentManifest(buildVersion, enhancedCP);
 		}
+
+		// create the JAR
+		return doExecJarCommands(zip, distDirectory, buildVersion, withBinInc, withSource, zipExecInterceptor,
+				manifest);
 	}
 
 	public boolean isPreserveBinaryStructure() {
@@ -267,21 +249,26 @@ public class PluginBuild extends BundleBuild<PluginData> implements Comparable<P
 	}
 
 	private File doExecJarCommands(ZipExecFactory zip, File distDirectory, String buildVersion, boolean withBinInc,
-			boolean withSource, ZipExecInterceptor zipExecInterceptor) throws Exception {
+			boolean withSource, ZipExecInterceptor zipExecInterceptor, byte[] manifest) throws Exception {
 		final File jarFile = new File(distDirectory, getJarFileName(buildVersion));
 
 		// remove the jar file
 		FileUtils.delete(jarFile);
 
-		// update the manifest for binary deployment
-		data.updateManifestForBinaryDeployment();
-
 		// create the ZIP executor
 		final ZipExec exec = zip.createZipExec();
 		exec.setZipExecInterceptor(zipExecInterceptor);
 		exec.setZipFile(jarFile);
 		exec.setJarMode(true);
 
+		// the manifest for binary deployment replaces the one on disk
+		if (manifest != null) {
+			ZipExecPart part = new ZipExecPart();
+			part.sourceDirectory = data.getBundleDir();
+			part.virtualEntries.put(MANIFEST_ENTRY, manifest);
+			exec.addPart(part);
+		}
+
 		// run ZIP on 'bin' directories
 		Map<String, List<String>> binaryFolders = data.getBinaryFolders();
 		String[] binInc = data.getBinaryIncludes();
@@ -391,8 +378,7 @@ public class PluginBuild extends BundleBuild<PluginData> implements Comparable<P
 	 *            ZIP file to build
 	 */
 	public void buildSelfContainedZip(ZipExecFactory zipFactory, String buildVersion, File output) throws Exception {
-		File outputDirectory = output.getParentFile();
-		File temp = new File(outputDirectory, "zip_" + String.valueOf(System.currentTimeMillis()));
+		File temp = Files.createTempDirectory(output.getAbsoluteFile().getParentFile().toPath(), "zip_").toFile();
 		File libs = new File(temp, getPluginName());
 
 		FileUtils.mkdirs(libs);
@@ -419,7 +405,7 @@ public class PluginBuild extends BundleBuild<PluginData> implements Comparable<P
 	private void copyLibsForSelfContainment(ZipExecFactory zipFactory, File destDir, String buildVersion)
 			throws Exception {
 		if (data.isBinary()) {
-			disruptBinaryJar(zipFactory, destDir);
+			disruptBinaryJar(destDir);
 		} else {
 			execJarCommands(zipFactory, destDir, buildVersion, false);
 		}
@@ -433,7 +419,10 @@ public class PluginBuild extends BundleBuild<PluginData> implements Comparable<P
 
 				File binFile = new File(pd, inc);
 				if (binFile.exists() && binFile.isFile() && binFile.getName().toLowerCase().endsWith(".jar")) {
-					FileUtils.copyFileToDirectory(binFile, destDir);
+					// the temporary tree is only read, no need to copy
+					File target = new File(destDir, binFile.getName());
+					FileUtils.delete(target);
+					FileUtils.hardLinkOrCopy(binFile, target);
 				}
 			}
 		}
@@ -443,56 +432,13 @@ public class PluginBuild extends BundleBuild<PluginData> implements Comparable<P
 		}
 	}
 
-	private void disruptBinaryJar(ZipExecFactory zipFactory, File destDir) throws Exception {
-		// unpack the binary, remove META-INF, move all jars to destDir, re-pack
-		// all remaining
-		// files into new jar
+	/**
+	 * Writes all JARs nested in the binary to destDir, and all remaining
+	 * content except META-INF into a new JAR.
+	 */
+	private void disruptBinaryJar(File destDir) throws IOException {
 		File binFile = getBinaryJarFile();
-		File tmp = new File(destDir, binFile.getName() + "_" + System.currentTimeMillis());
-		tmp.mkdirs();
-
-		final ZipExec exec = zipFactory.createZipExec();
-		exec.unzip(binFile, tmp);
-		File meta = new File(tmp, "META-INF");
-		if (meta.exists() && meta.isDirectory()) {
-			FileUtils.deleteDirectory(meta);
-		}
-
-		moveJarsRecursive(tmp, destDir);
-
 		File target = new File(destDir, getPluginName() + "_stripped.jar");
-
-		// now create jar of the "remains"
-		FileUtils.delete(target);
-
-		// create the ZIP executor
-		exec.setZipFile(target);
-		exec.setJarMode(true);
-
-		// run ZIP on the remains of the original jar
-		ZipExecPart part = new ZipExecPart();
-		part.sourceDirectory = tmp;
-		part.relativePaths.add(".");
-		part.excludeGit = true;
-		exec.addPart(part);
-		exec.createZip();
-
-		FileUtils.deleteDirectory(tmp);
-	}
-
-	private void moveJarsRecursive(File tmp, File destDir) throws IOException {
-		File[] files = tmp.listFiles();
-		if (files == null || files.length == 0) {
-			return;
-		}
-
-		for (File f : files) {
-			if (f.isFile() && f.getName().endsWith(".jar")) {
-				FileUtils.moveFile(f, new File(destDir, f.getName()));
-			}
-			if (f.isDirectory()) {
-				moveJarsRecursive(f, destDir);
-			}
-		}
+		BinaryJarSplitter.split(binFile, target, destDir);
 	}
 }
@@ -399,10 +399,45 @@ public class PluginData extends BundleData {
 		// no support for PDEs old "unpack" guessing
 	}
 
+	/**
+	 * Creates the manifest for the binary deployment of this plugin. Neither
+	 * the MANIFEST.MF file nor the in-memory model of this plugin are modified.
+	 *
+	 * @param bundleVersion
+	 *            the version to use; {@code null} to keep the current one
+	 * @param classPath
+	 *            the class path to use; {@code null} to keep the current one
+	 * @return the content of the manifest; {@code null} if this plugin has no
+	 *         manifest file
+	 */
+	public byte[] createBinaryDeploymentManifest(String bundleVersion, String[] classPath) {
+		if (getManifestFile() == null || manifest == null) {
+			return null;
+		}
+
+		try {
+			ManifestHolder temp = manifest.copy();
+			if (bundleVersion != null) {
+				temp.setBundleVersion(bundleVersion);
+			}
+			if (classPath != null) {
+				temp.setClassPath(classPath);
+			}
+			applyBinaryDeployment(temp, temp.getClassPath());
+			return temp.toByteArray();
+		} catch (IOException e) {
+			throw new RuntimeException("cannot create manifest for binary deployment", e);
+		}
+	}
+
 	/**
 	 * ATTENTION: this method may ONLY be called while building JAR files. The
 	 * MANIFEST.MF file MUST be backed up and restored after the operation.
+	 *
+	 * @deprecated modifies the workspace, use
+	 *             {@link #createBinaryDeploymentManifest(String, String[])}
 	 */
+	@Deprecated
 	public void updateManifestForBinaryDeployment() {
 		if (getManifestFile() == null || manifest == null) {
 			return;
@@ -412,14 +447,27 @@ public class PluginData extends BundleData {
 
 		// re-read the manifest, manipulate and write the changes.
 		ManifestHolder temp = readManifestFromDirectory(bundleDir);
-		Map<String, String> updates = getExternalizeClasspath();
-		updates.putAll(getWamasExternalizeClasspath());
-
 		if (temp == null) {
 			return;
 		}
+		applyBinaryDeployment(temp, manifest.getClassPath());
+
+		try {
+			temp.write(getManifestFile());
+			getManifestFile().setLastModified(timeStamp);
+		} catch (Exception e) {
+			throw new RuntimeException("cannot update manifest for binary deployment", e);
+		}
+	}
+
+	/**
+	 * Externalizes class path entries and prefixes native code as required
+	 * for binary deployment.
+	 */
+	private void applyBinaryDeployment(ManifestHolder temp, String[] cp) {
+		Map<String, String> updates = getExternalizeClasspath();
+		updates.putAll(getWamasExternalizeClasspath());
 
-		String[] cp = manifest.getClassPath();
 		if (!updates.isEmpty() && cp.length > 0) {
 			String[] target = new String[cp.length];
 			System.arraycopy(cp, 0, target, 0, cp.length);
@@ -444,12 +492,5 @@ public class PluginData extends BundleData {
 				nc[i].setValue(prefix + nc[i].getValue());
 			}
 		}
-
-		try {
-			temp.write(getManifestFile());
-			getManifestFile().setLastModified(timeStamp);
-		} catch (Exception e) {
-			throw new RuntimeException("cannot update manifest for binary deployment", e);
-		}
 	}
 }
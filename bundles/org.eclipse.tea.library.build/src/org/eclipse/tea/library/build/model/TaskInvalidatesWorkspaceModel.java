@@ -0,0 +1,40 @@
+/*******************************************************************************
+ *  Copyright (c) 2026 SSI Schaefer IT Solutions GmbH and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  Contributors:
+ *      SSI Schaefer IT Solutions GmbH
+ *******************************************************************************/
+package org.eclipse.tea.library.build.model;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import javax.inject.Qualifier;
+
+import org.eclipse.tea.core.TaskExecutionContext;
+
+/**
+ * Annotates a task, hinting the framework to discard the {@link WorkspaceData}
+ * and {@link WorkspaceBuild} shared by all tasks of a
+ * {@link TaskExecutionContext} <em>after</em> this task has run.
+ * <p>
+ * Tasks that modify MANIFEST.MF, build.properties or feature.xml files without
+ * updating the model (or add and remove projects) must use this annotation, so
+ * that follow up tasks see the changes.
+ */
+@Documented
+@Qualifier
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface TaskInvalidatesWorkspaceModel {
+
+}
@@ -15,6 +15,10 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 
@@ -60,51 +64,41 @@ public class WorkspaceData {
 	 */
 	public WorkspaceData(IWorkspace workspace, TaskingLog console, TeaBuildVersionService bvService) {
 		final IWorkspaceRoot root = workspace.getRoot();
+		final List<ProjectScan> scans = new ArrayList<>();
 		for (IProject project : root.getProjects()) {
-			try {
-				if (!project.exists()) {
-					console.error("project doesn't exist: " + project.getName());
-					continue;
-				}
-				if (!project.isOpen()) {
-					continue;
-				}
-
-				final IProjectDescription desc;
-				try {
-					desc = project.getDescription();
-				} catch (org.eclipse.core.internal.resources.ResourceException ex) {
-					// Resource does not exist. - project is still opening
-					console.warn("Failed to check project " + project.getName() + "", ex);
-					continue;
-				} catch (CoreException ex) {
-					throw new IllegalStateException(ex);
-				}
-				if (isPluginProject(project)) {
-					PluginData pd = new PluginData(project);
-					plugins.put(pd.getBundleName(), pd);
-					continue;
-				}
-				if (isFeatureProject(project)) {
-					FeatureData fd = new FeatureData(project, bvService);
-					features.put(fd.getBundleName(), fd);
-					continue;
-				}
+			scans.add(new ProjectScan(project, bvService));
+		}
 
-				if (desc.hasNature(JAVA_NATURE)) {
-					if (!org.eclipse.pde.internal.core.SearchablePluginsManager.PROXY_PROJECT_NAME
-							.equals(project.getName())) {
-						console.warn("skipping plain Java project: " + project.getName());
-					}
-				}
-				unknownProjects.add(project);
+		// reading descriptors is I/O bound, so use more threads than CPUs.
+		ForkJoinPool pool = new ForkJoinPool(Math.max(2, Runtime.getRuntime().availableProcessors() * 2));
+		try {
+			pool.invokeAll(scans);
+		} finally {
+			pool.shutdown();
+		}
 
-			} catch (Throwable t) {
-				console.error(t.getMessage(), t);
-				throw t;
+		// merge in workspace order to keep the output stable
+		final List<ProjectScan> failed = new ArrayList<>();
+		for (ProjectScan scan : scans) {
+			scan.messages.forEach(m -> m.accept(console));
+			if (scan.error != null) {
+				console.error(scan.project.getName() + ": " + scan.error.getMessage(), scan.error);
+				failed.add(scan);
+			} else if (scan.plugin != null) {
+				plugins.put(scan.plugin.getBundleName(), scan.plugin);
+			} else if (scan.feature != null) {
+				features.put(scan.feature.getBundleName(), scan.feature);
+			} else if (scan.unknown) {
+				unknownProjects.add(scan.project);
 			}
 		}
 
+		if (!failed.isEmpty()) {
+			IllegalStateException ex = new IllegalStateException("failed to read " + failed.size() + " project(s): "
+					+ failed.stream().map(f -> f.project.getName()).collect(Collectors.joining(", ")));
+			failed.forEach(f -> ex.addSuppressed(f.error));
+			throw ex;
+		}
 	}
 
 	/**
@@ -213,4 +207,72 @@ public class WorkspaceData {
 		return plugins.get(name);
 	}
 
+	/**
+	 * Reads the descriptors of a single project. Messages are recorded and
+	 * written once all projects have been read.
+	 */
+	private static final class ProjectScan implements Callable<Void> {
+
+		private final IProject project;
+		private final TeaBuildVersionService bvService;
+
+		private final List<Consumer<TaskingLog>> messages = new ArrayList<>();
+		private PluginData plugin;
+		private FeatureData feature;
+		private boolean unknown;
+		private Throwable error;
+
+		ProjectScan(IProject project, TeaBuildVersionService bvService) {
+			this.project = project;
+			this.bvService = bvService;
+		}
+
+		@Override
+		public Void call() {
+			try {
+				scan();
+			} catch (Throwable t) {
+				error = t;
+			}
+			return null;
+		}
+
+		private void scan() {
+			if (!project.exists()) {
+				messages.add(c -> c.error("project doesn't exist: " + project.getName()));
+				return;
+			}
+			if (!project.isOpen()) {
+				return;
+			}
+
+			final IProjectDescription desc;
+			try {
+				desc = project.getDescription();
+			} catch (org.eclipse.core.internal.resources.ResourceException ex) {
+				// Resource does not exist. - project is still opening
+				messages.add(c -> c.warn("Failed to check project " + project.getName() + "", ex));
+				return;
+			} catch (CoreException ex) {
+				throw new IllegalStateException(ex);
+			}
+			if (isPluginProject(project)) {
+				plugin = new PluginData(project);
+				return;
+			}
+			if (isFeatureProject(project)) {
+				feature = new FeatureData(project, bvService);
+				return;
+			}
+
+			if (desc.hasNature(JAVA_NATURE)) {
+				if (!org.eclipse.pde.internal.core.SearchablePluginsManager.PROXY_PROJECT_NAME
+						.equals(project.getName())) {
+					messages.add(c -> c.warn("skipping plain Java project: " + project.getName()));
+				}
+			}
+			unknown = true;
+		}
+	}
+
 }
@@ -0,0 +1,338 @@
+/*******************************************************************************
+ *  Copyright (c) 2026 SSI Schaefer IT Solutions GmbH and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  Contributors:
+ *      SSI Schaefer IT Solutions GmbH
+ *******************************************************************************/
+package org.eclipse.tea.library.build.p2;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.equinox.internal.p2.publisher.eclipse.FeatureParser;
+import org.eclipse.equinox.p2.metadata.IArtifactKey;
+import org.eclipse.equinox.p2.metadata.IInstallableUnit;
+import org.eclipse.equinox.p2.publisher.eclipse.BundlesAction;
+import org.eclipse.equinox.p2.publisher.eclipse.Feature;
+import org.eclipse.equinox.p2.publisher.eclipse.FeaturesAction;
+import org.eclipse.equinox.p2.query.QueryUtil;
+import org.eclipse.equinox.p2.repository.artifact.IArtifactRepository;
+import org.eclipse.equinox.p2.repository.metadata.IMetadataRepository;
+import org.eclipse.osgi.service.resolver.BundleDescription;
+import org.eclipse.tea.core.services.TaskingLog;
+import org.eclipse.tea.library.build.util.CacheDirectory;
+import org.eclipse.tea.library.build.util.FileUtils;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+/**
+ * Publishes only those bundles and features into an existing update site whose
+ * content changed since the last run.
+ * <p>
+ * A ledger next to the site directory records the content hash, ID and version
+ * of each published location. {@link #prepare} compares the current locations
+ * against it, removes the installable units and artifacts of changed and
+ * removed locations from the repositories and determines the locations that
+ * need to be published again. Everything else (products, categories, ...) is
+ * removed as well, as it is regenerated on each run anyway. After the publisher
+ * ran successfully, {@link #commit()} writes the new ledger.
+ * <p>
+ * Locations are only recognized as unchanged if their content is identical,
+ * which includes the qualifier in the manifest. Unless
+ * {@link org.eclipse.tea.library.build.config.TeaBuildConfig#stableQualifiers}
+ * is enabled, the qualifier changes on every build, and so everything is
+ * published again.
+ */
+public final class IncrementalPublisher {
+
+	private static final String LEDGER_SUFFIX = ".publish.properties";
+
+	private static final String KIND_BUNDLE = "bundle";
+	private static final String KIND_FEATURE = "feature";
+
+	/** installable units generated for a feature, in addition to the ID */
+	private static final String[] FEATURE_SUFFIXES = { ".feature.group", ".feature.jar" };
+
+	/** generated for hosts of fragments providing translations */
+	private static final String TRANSLATION_SUFFIX = ".translated_host_properties";
+
+	private final TaskingLog log;
+	private final File ledgerFile;
+	private final Map<String, Entry> previous = new TreeMap<>();
+	private final Map<String, Entry> current = new TreeMap<>();
+
+	private final Set<String> forced = new HashSet<>();
+	private final List<File> changedFeatures = new ArrayList<>();
+	private final List<File> changedBundles = new ArrayList<>();
+
+	/**
+	 * @param log
+	 *            used for logging
+	 * @param siteDirectory
+	 *            the directory of the update site to publish to
+	 */
+	public IncrementalPublisher(TaskingLog log, File siteDirectory) {
+		this.log = log;
+		this.ledgerFile = new File(siteDirectory.getParentFile(), siteDirectory.getName() + LEDGER_SUFFIX);
+
+		// the ledger is only valid along with the repository it describes
+		if (ledgerFile.isFile() && hasRepository(siteDirectory)) {
+			Properties props = FileUtils.readProperties(ledgerFile);
+			for (String location : props.stringPropertyNames()) {
+				Entry e = Entry.parse(props.getProperty(location));
+				if (e != null) {
+					previous.put(location, e);
+				}
+			}
+		}
+	}
+
+	private static boolean hasRepository(File dir) {
+		return new File(dir, "content.jar").isFile() || new File(dir, "content.xml").isFile()
+				|| new File(dir, "content.xml.xz").isFile();
+	}
+
+	/**
+	 * Publishes the bundle or feature with the given ID even if it did not
+	 * change, e.g. because advice that is not part of its content applies to
+	 * it. Must be called before {@link #prepare}.
+	 */
+	public void republish(String id) {
+		forced.add(id);
+	}
+
+	/**
+	 * Determines the changed locations and removes all content from the given
+	 * repositories which does not belong to unchanged locations.
+	 *
+	 * @param metadata
+	 *            the metadata repository of the site
+	 * @param artifacts
+	 *            the artifact repository of the site
+	 * @param featureLocations
+	 *            feature JARs or directories, or directories containing them
+	 * @param bundleLocations
+	 *            bundle JARs or directories, or directories containing them
+	 */
+	public void prepare(IMetadataRepository metadata, IArtifactRepository artifacts,
+			Collection<File> featureLocations, Collection<File> bundleLocations) throws IOException {
+		for (File location : expand(featureLocations, true)) {
+			scan(location, KIND_FEATURE, changedFeatures);
+		}
+		for (File location : expand(bundleLocations, false)) {
+			scan(location, KIND_BUNDLE, changedBundles);
+		}
+
+		// installable units of unchanged locations are kept
+		Set<String> retained = new HashSet<>();
+		for (Map.Entry<String, Entry> e : current.entrySet()) {
+			Entry entry = e.getValue();
+			if (isUnchanged(e.getKey(), entry)) {
+				retained.add(entry.id + '_' + entry.version);
+				retained.add(entry.id + TRANSLATION_SUFFIX + '_' + entry.version);
+				if (KIND_FEATURE.equals(entry.kind)) {
+					for (String suffix : FEATURE_SUFFIXES) {
+						retained.add(entry.id + suffix + '_' + entry.version);
+					}
+				}
+			}
+		}
+
+		List<IInstallableUnit> staleUnits = new ArrayList<>();
+		Set<IArtifactKey> staleKeys = new LinkedHashSet<>();
+		for (IInstallableUnit iu : metadata.query(QueryUtil.createIUAnyQuery(), null)) {
+			if (!retained.contains(iu.getId() + '_' + iu.getVersion())) {
+				staleUnits.add(iu);
+				staleKeys.addAll(iu.getArtifacts());
+			}
+		}
+
+		// artifacts may be left over without metadata by a failed run
+		for (Map.Entry<String, Entry> e : previous.entrySet()) {
+			Entry entry = e.getValue();
+			if (!entry.equals(current.get(e.getKey()))) {
+				staleKeys.add(KIND_FEATURE.equals(entry.kind)
+						? FeaturesAction.createFeatureArtifactKey(entry.id, entry.version)
+						: BundlesAction.createBundleArtifactKey(entry.id, entry.version));
+			}
+		}
+
+		// simple repositories are saved once per batch, not per modification
+		check(metadata.executeBatch(m -> metadata.removeInstallableUnits(staleUnits), null));
+		check(artifacts.executeBatch(m -> artifacts.removeDescriptors(staleKeys.toArray(new IArtifactKey[0]), m),
+				null));
+
+		log.info("incremental publishing: " + changedFeatures.size() + " of " + countKind(KIND_FEATURE)
+				+ " features and " + changedBundles.size() + " of " + countKind(KIND_BUNDLE) + " bundles changed, "
+				+ staleUnits.size() + " installable units removed");
+	}
+
+	private static void check(IStatus status) throws IOException {
+		if (status.getSeverity() == IStatus.ERROR) {
+			throw new IOException("cannot remove stale content: " + status.getMessage(), status.getException());
+		}
+	}
+
+	/**
+	 * @return the feature locations to publish, only valid after
+	 *         {@link #prepare}
+	 */
+	public File[] getFeatures() {
+		return changedFeatures.toArray(new File[changedFeatures.size()]);
+	}
+
+	/**
+	 * @return the bundle locations to publish, only valid after
+	 *         {@link #prepare}
+	 */
+	public File[] getBundles() {
+		return changedBundles.toArray(new File[changedBundles.size()]);
+	}
+
+	/**
+	 * Records the current state of all locations. Must only be called once
+	 * publishing succeeded.
+	 */
+	public void commit() throws IOException {
+		Properties props = new Properties();
+		for (Map.Entry<String, Entry> e : current.entrySet()) {
+			props.setProperty(e.getKey(), e.getValue().toString());
+		}
+		FileUtils.writeProperties(props, ledgerFile);
+	}
+
+	private void scan(File location, String kind, List<File> changed) throws IOException {
+		Entry entry = KIND_FEATURE.equals(kind) ? describeFeature(location) : describeBundle(location);
+		if (entry == null) {
+			log.debug("not publishing " + location + ": not a " + kind);
+			return;
+		}
+
+		String key = location.getAbsolutePath();
+		current.put(key, entry);
+		if (!isUnchanged(key, entry)) {
+			changed.add(location);
+		}
+	}
+
+	private boolean isUnchanged(String key, Entry entry) {
+		return entry.equals(previous.get(key)) && !forced.contains(entry.id);
+	}
+
+	private static Entry describeFeature(File location) throws IOException {
+		Feature feature = new FeatureParser().parse(location);
+		if (feature == null) {
+			return null;
+		}
+		return new Entry(hash(location), KIND_FEATURE, feature.getId(), feature.getVersion());
+	}
+
+	private static Entry describeBundle(File location) throws IOException {
+		BundleDescription bd = BundlesAction.createBundleDescriptionIgnoringExceptions(location);
+		if (bd == null || bd.getSymbolicName() == null) {
+			return null;
+		}
+		return new Entry(hash(location), KIND_BUNDLE, bd.getSymbolicName(), bd.getVersion().toString());
+	}
+
+	private static String hash(File location) throws IOException {
+		Hasher hasher = Hashing.sha256().newHasher();
+		CacheDirectory.hashInput(hasher, location.getParentFile(), location);
+		return hasher.hash().toString();
+	}
+
+	/**
+	 * Replaces directories which are not features or bundles themselves by
+	 * their children, the same way the publisher actions do.
+	 */
+	private static List<File> expand(Collection<File> locations, boolean features) {
+		List<File> result = new ArrayList<>();
+		for (File location : locations) {
+			if (!location.exists()) {
+				continue;
+			}
+			boolean container = location.isDirectory()
+					&& !new File(location, features ? "feature.xml" : "META-INF/MANIFEST.MF").isFile();
+			if (container) {
+				File[] children = location.listFiles();
+				if (children != null) {
+					for (File child : children) {
+						result.add(child);
+					}
+				}
+			} else {
+				result.add(location);
+			}
+		}
+		return result;
+	}
+
+	private int countKind(String kind) {
+		int count = 0;
+		for (Entry e : current.values()) {
+			if (kind.equals(e.kind)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private static final class Entry {
+
+		final String hash;
+		final String kind;
+		final String id;
+		final String version;
+
+		Entry(String hash, String kind, String id, String version) {
+			this.hash = hash;
+			this.kind = kind;
+			this.id = id;
+			this.version = version;
+		}
+
+		static Entry parse(String value) {
+			String[] parts = value.split(",");
+			if (parts.length != 4) {
+				return null;
+			}
+			return new Entry(parts[0], parts[1], parts[2], parts[3]);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Entry)) {
+				return false;
+			}
+			Entry other = (Entry) obj;
+			return hash.equals(other.hash) && kind.equals(other.kind) && id.equals(other.id)
+					&& version.equals(other.version);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash.hashCode();
+		}
+
+		@Override
+		public String toString() {
+			return hash + ',' + kind + ',' + id + ',' + version;
+		}
+	}
+
+}
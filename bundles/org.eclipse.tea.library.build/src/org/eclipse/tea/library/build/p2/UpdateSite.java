@@ -39,11 +39,13 @@ public final class UpdateSite {
 	 */
 	public final File zip;
 
-	UpdateSite(File out, String guid, JarManager jarManager) {
+	UpdateSite(File out, String guid, JarManager jarManager, boolean keepExisting) {
 		this.guid = guid;
 
 		directory = new File(out, guid);
-		FileUtils.deleteDirectory(directory);
+		if (!keepExisting) {
+			FileUtils.deleteDirectory(directory);
+		}
 		FileUtils.mkdirs(directory);
 
 		String zipName = guid + "-" + jarManager.getQualifier() + ".zip";
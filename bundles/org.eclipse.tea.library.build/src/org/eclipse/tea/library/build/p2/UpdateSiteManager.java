@@ -11,12 +11,20 @@
 package org.eclipse.tea.library.build.p2;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 
 import org.eclipse.tea.core.services.TaskingLog;
 import org.eclipse.tea.library.build.jar.JarManager;
 import org.eclipse.tea.library.build.jar.ZipExecFactory;
+import org.eclipse.tea.library.build.util.AdaptiveConcurrency;
 import org.eclipse.tea.library.build.util.FileUtils;
 import org.eclipse.tea.library.build.util.StringHelper;
 
@@ -29,15 +37,34 @@ public final class UpdateSiteManager {
 	private final Map<String, UpdateSite> sites = new TreeMap<>();
 	private final JarManager jarManager;
 	private final File out;
+	private final boolean incremental;
 
 	public UpdateSiteManager(File out, JarManager jarManager) {
+		this(out, jarManager, false);
+	}
+
+	/**
+	 * @param incremental
+	 *            whether existing site directories are kept, so only changed
+	 *            content needs to be published, see
+	 *            {@link IncrementalPublisher}
+	 */
+	public UpdateSiteManager(File out, JarManager jarManager, boolean incremental) {
 		this.out = out;
 		this.jarManager = jarManager;
+		this.incremental = incremental;
+	}
+
+	/**
+	 * @return whether sites are published incrementally
+	 */
+	public boolean isIncremental() {
+		return incremental;
 	}
 
 	/**
 	 * Gets an update site. Clears the directory of the site during the first
-	 * call.
+	 * call, unless sites are published incrementally.
 	 *
 	 * @param guid
 	 *            global unique ID of the site
@@ -47,7 +74,7 @@ public final class UpdateSiteManager {
 		guid = safeGuid(guid);
 		UpdateSite site = sites.get(guid);
 		if (site == null) {
-			site = new UpdateSite(out, guid, jarManager);
+			site = new UpdateSite(out, guid, jarManager, incremental);
 			sites.put(guid, site);
 		}
 		return site;
@@ -67,6 +94,83 @@ public final class UpdateSiteManager {
 		}
 	}
 
+	/**
+	 * Creates the ZIP files of all sites concurrently.
+	 * <p>
+	 * The calling thread archives sites itself, helped by workers submitted to
+	 * the given executor. Workers that did not start by the time all sites are
+	 * taken are cancelled, so a busy shared executor never blocks the caller.
+	 *
+	 * @param console
+	 *            used for logging
+	 * @param concurrency
+	 *            determines the number of sites archived at the same time
+	 * @param executor
+	 *            runs the additional workers, usually the background executor
+	 *            of the engine shared with other tasks
+	 */
+	public void createUpdateSiteZips(TaskingLog console, AdaptiveConcurrency concurrency, Executor executor)
+			throws InterruptedException {
+		ZipExecFactory zef = jarManager.getZipExecFactory();
+		Queue<UpdateSite> pending = new ConcurrentLinkedQueue<>(sites.values());
+		int workers = Math.max(1, Math.min(concurrency.getCeiling(), sites.size()));
+		List<FutureTask<Void>> helpers = new ArrayList<>();
+		RuntimeException failure = null;
+		try {
+			for (int i = 1; i < workers; i++) {
+				FutureTask<Void> helper = new FutureTask<>(() -> {
+					archive(pending, zef, console, concurrency);
+					return null;
+				});
+				helpers.add(helper);
+				executor.execute(helper);
+			}
+			try {
+				archive(pending, zef, console, concurrency);
+			} catch (RuntimeException e) {
+				failure = e;
+			}
+			for (FutureTask<Void> helper : helpers) {
+				if (helper.cancel(false)) {
+					// never started, nothing left to do for it
+					continue;
+				}
+				try {
+					helper.get();
+				} catch (ExecutionException e) {
+					if (failure == null) {
+						failure = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause()
+								: new IllegalStateException("cannot archive update site", e.getCause());
+					}
+				}
+			}
+		} finally {
+			pending.clear();
+			concurrency.finish();
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	private static void archive(Queue<UpdateSite> pending, ZipExecFactory zef, TaskingLog console,
+			AdaptiveConcurrency concurrency) throws InterruptedException {
+		UpdateSite site;
+		while ((site = pending.poll()) != null) {
+			concurrency.acquire();
+			long start = System.nanoTime();
+			try {
+				site.createUpdateSiteZip(zef, console);
+			} catch (RuntimeException | Error e) {
+				// no need for the other workers to continue
+				pending.clear();
+				throw e;
+			} finally {
+				concurrency.release(site.zip.length(), System.nanoTime() - start);
+			}
+		}
+	}
+
 	/**
 	 * Clears all sites and removes all site directories (but not the ZIP
 	 * files).
@@ -32,6 +32,11 @@ public interface TeaBuildVisitor {
 	 * Processes a group of elements. The given elements are allowed to be
 	 * processed in parallel if possible.
 	 * <p>
+	 * If the chain is executed using
+	 * {@link TeaBuildChain#executeGraph(org.eclipse.tea.core.services.TaskProgressTracker, long)},
+	 * the given elements may depend on each other. They are given in build
+	 * order, and an element must only be processed after its dependencies.
+	 * <p>
 	 * This method's implementations may never throw. Instead a {@link IStatus}
 	 * with the according {@link Exception} must be returned.
 	 *
@@ -21,11 +21,14 @@ import org.eclipse.core.resources.IWorkspaceDescription;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.e4.core.di.annotations.Execute;
 import org.eclipse.tea.core.services.TaskProgressTracker;
 import org.eclipse.tea.core.services.TaskingLog;
+import org.eclipse.tea.library.build.chain.IncrementalBuildState;
 import org.eclipse.tea.library.build.chain.TeaBuildChain;
+import org.eclipse.tea.library.build.chain.plugin.CompiledOutputCache;
 import org.eclipse.tea.library.build.config.TeaBuildConfig;
 import org.eclipse.tea.library.build.model.WorkspaceBuild;
 import org.eclipse.tea.library.build.services.TeaBuildElementFactory;
@@ -38,6 +41,16 @@ import org.eclipse.tea.library.build.services.TeaDependencyWireFactory;
  * the required {@link TeaBuildElementFactory}s,
  * {@link TeaDependencyWireFactory}s and {@link TeaBuildVisitor}s to fully
  * process all elements.
+ * <p>
+ * If {@link TeaBuildConfig#incrementalBuild} is set, only projects changed
+ * since the last successful build and their dependents are built, see
+ * {@link IncrementalBuildState}.
+ * <p>
+ * If {@link TeaBuildConfig#compiledOutputCache} is set, the output of plugins
+ * is restored from the {@link CompiledOutputCache} where possible.
+ * <p>
+ * If {@link TeaBuildConfig#graphBuild} is set, the chain is executed without
+ * barriers between groups, see {@link TeaBuildChain#executeGraph}.
  */
 @Named("Build all projects")
 public class TaskBuildWorkspace {
@@ -50,7 +63,29 @@ public class TaskBuildWorkspace {
 
 		setWorkspaceBuildOrder(chain.getBuildOrder());
 
-		IStatus result = chain.execute(tracker, config.failureThreshold);
+		IncrementalBuildState state = null;
+		IncrementalBuildState.Snapshot snapshot = null;
+		if (config.incrementalBuild) {
+			state = IncrementalBuildState.getDefault();
+			snapshot = state.prepare(chain, log, config.apiBuildAvoidance && !config.graphBuild);
+		}
+
+		CompiledOutputCache outputCache = CompiledOutputCache.open(config);
+		taskContext.set(CompiledOutputCache.class, outputCache);
+
+		// a canceled or failed build must not be recorded as successful
+		IStatus result = Status.CANCEL_STATUS;
+		try {
+			result = config.graphBuild ? chain.executeGraph(tracker, config.failureThreshold)
+					: chain.execute(tracker, config.failureThreshold);
+		} finally {
+			if (state != null) {
+				state.finish(snapshot, result);
+			}
+			if (outputCache != null) {
+				outputCache.finish(log);
+			}
+		}
 
 		if (result.getSeverity() > IStatus.WARNING) {
 			log.error("Errors during build: " + formatStatus(result, ""));
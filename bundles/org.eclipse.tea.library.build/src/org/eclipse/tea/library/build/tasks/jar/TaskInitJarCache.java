@@ -14,23 +14,47 @@ import java.io.File;
 
 import org.eclipse.e4.core.di.annotations.Execute;
 import org.eclipse.tea.core.services.TaskingLog;
+import org.eclipse.tea.library.build.config.BuildDirectories;
+import org.eclipse.tea.library.build.config.TeaBuildConfig;
+import org.eclipse.tea.library.build.jar.ZipConfig;
 
+/**
+ * Initializes the JAR cache for all following JAR exports of the chain. JAR
+ * files are created only once per chain, and are taken from the persistent
+ * JAR cache if configured. The cleanup task logs cache statistics, removes the
+ * temporary directory and trims the persistent cache to its configured size.
+ */
 public class TaskInitJarCache {
 
 	private final File directory;
 
+	public TaskInitJarCache() {
+		this(null);
+	}
+
+	/**
+	 * @param directory
+	 *            the temporary directory to keep the JAR files of the chain in.
+	 * @deprecated use {@link #TaskInitJarCache()}, which creates a new cache
+	 *             directory in the {@link BuildDirectories}.
+	 */
+	@Deprecated
 	public TaskInitJarCache(File directory) {
 		this.directory = directory;
 	}
 
 	@Execute
-	public void run() {
-		TaskRunJarExport.initCache(directory);
+	public void run(TaskingLog log, ZipConfig config, TeaBuildConfig buildConfig, BuildDirectories dirs) {
+		if (config.jarCacheMaxSize > 0 && !buildConfig.stableQualifiers) {
+			log.warn("persistent JAR cache is not used, it requires stable qualifiers to be enabled");
+		}
+		TaskRunJarExport.initCache(directory != null ? directory : dirs.getNewCacheDirectory("jar"), config,
+				buildConfig);
 	}
 
 	@Override
 	public String toString() {
-		return "Initialize Cache (" + directory + ")";
+		return "Initialize JAR Cache";
 	}
 
 	public Object getCleanup() {
@@ -42,7 +66,7 @@ public class TaskInitJarCache {
 
 			@Override
 			public String toString() {
-				return "Clean Cache (" + directory + ")";
+				return "Clean JAR Cache";
 			}
 		};
 	}
@@ -13,24 +13,38 @@ package org.eclipse.tea.library.build.tasks.jar;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
-
-import org.eclipse.core.runtime.IProgressMonitor;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.MultiStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
-import org.eclipse.core.runtime.jobs.IJobManager;
-import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.e4.core.di.annotations.Execute;
 import org.eclipse.tea.core.services.TaskProgressTracker;
 import org.eclipse.tea.core.services.TaskingLog;
 import org.eclipse.tea.library.build.chain.plugin.TeaBuildPluginElement;
 import org.eclipse.tea.library.build.config.BuildDirectories;
+import org.eclipse.tea.library.build.config.TeaBuildConfig;
+import org.eclipse.tea.library.build.internal.Activator;
+import org.eclipse.tea.library.build.jar.JarCache;
 import org.eclipse.tea.library.build.jar.JarManager;
 import org.eclipse.tea.library.build.jar.ZipConfig;
 import org.eclipse.tea.library.build.model.BundleBuild;
 import org.eclipse.tea.library.build.model.PluginBuild;
 import org.eclipse.tea.library.build.model.WorkspaceBuild;
+import org.eclipse.tea.library.build.util.AdaptiveConcurrency;
 import org.eclipse.tea.library.build.util.FileUtils;
+import org.eclipse.tea.library.build.util.RemoteBuildCache;
 import org.eclipse.tea.library.build.util.TeaBuildUtil;
 
 /**
@@ -38,15 +52,15 @@ import org.eclipse.tea.library.build.util.TeaBuildUtil;
  */
 public class TaskRunJarExport {
 
-	/** the family name of the checkout jobs */
-	private final String JobFamily = this.getClass().getName();
-
 	private final boolean composite;
 
 	private static TemporaryJarCache cache;
 
 	private static final String PLUGINS_DIRECTORY = "plugins";
 
+	/** the number of slowest plugins to log after the export */
+	private static final int SLOWEST_COUNT = 5;
+
 	public TaskRunJarExport() {
 		this(false);
 	}
@@ -64,13 +78,40 @@ public class TaskRunJarExport {
 	 * @param dir
 	 *            a temporary directory to use to cache JAR file creation
 	 *            results.
+	 * @deprecated use {@link #initCache(File, ZipConfig, TeaBuildConfig)},
+	 *             which also uses the persistent JAR cache if configured.
 	 */
+	@Deprecated
 	public static void initCache(File dir) {
-		cache = new TemporaryJarCache(dir);
+		cache = new TemporaryJarCache(dir, null);
+	}
+
+	/**
+	 * Create a cache to improve JAR creation performance if a single JAR file
+	 * is requested multiple times. JAR files not yet created in this chain are
+	 * taken from the persistent JAR cache configured in the given
+	 * {@link ZipConfig}, if any.
+	 * <p>
+	 * Callers MUST make sure to call {@link #cleanCache(TaskingLog)} as well.
+	 *
+	 * @param dir
+	 *            a temporary directory to use to cache JAR file creation
+	 *            results.
+	 * @param config
+	 *            determines location and size of the persistent cache.
+	 * @param buildConfig
+	 *            determines whether qualifiers are stable, which is required
+	 *            for the persistent cache, and the optional remote cache tier.
+	 */
+	public static void initCache(File dir, ZipConfig config, TeaBuildConfig buildConfig) {
+		cache = new TemporaryJarCache(dir,
+				JarCache.open(config, buildConfig.stableQualifiers, RemoteBuildCache.open(buildConfig)));
 	}
 
 	/**
-	 * Clears a cache previously initialized with {@link #initCache(File)}
+	 * Clears a cache previously initialized with
+	 * {@link #initCache(File, ZipConfig, TeaBuildConfig)}. The content of the
+	 * persistent cache is kept for later runs.
 	 *
 	 * @param log
 	 *            used to log cache statistics.
@@ -93,7 +134,17 @@ public class TaskRunJarExport {
 	@Execute
 	public void run(TaskingLog log, WorkspaceBuild wb, JarManager jarManager, BuildDirectories dirs,
 			TaskProgressTracker tracker, ZipConfig config) throws Exception {
+		// allows to cancel running external ZIP applications
+		jarManager.getZipExecFactory().setProgressTracker(tracker);
+		try {
+			exportPlugins(log, wb, jarManager, dirs, tracker, config);
+		} finally {
+			jarManager.getZipExecFactory().setProgressTracker(null);
+		}
+	}
 
+	private void exportPlugins(TaskingLog log, WorkspaceBuild wb, JarManager jarManager, BuildDirectories dirs,
+			TaskProgressTracker tracker, ZipConfig config) throws Exception {
 		final File distDirectory = new File(dirs.getOutputDirectory(), PLUGINS_DIRECTORY);
 
 		// reset destination directory
@@ -104,106 +155,131 @@ public class TaskRunJarExport {
 
 		log.info("jar destination directory: " + distDirectory);
 
-		// all jobs that have been started
-		ArrayList<Job> startedJobs = new ArrayList<>();
-
 		// loop over all source plugins
 		List<PluginBuild> plugins = new ArrayList<>(getPlugins(wb));
 
 		log.info("Number of plugins: " + plugins.size());
+		if (plugins.isEmpty()) {
+			return;
+		}
 
-		for (int i = 0; i < plugins.size();) {
-
-			if (tracker.isCanceled()) {
-				break;
+		// the pool is sized for the ceiling, the controller decides how many
+		// workers actually run.
+		AdaptiveConcurrency concurrency = config.createConcurrency("JAR export", log);
+		int threads = Math.max(1, Math.min(concurrency.getCeiling(), plugins.size()));
+		AtomicInteger threadNo = new AtomicInteger();
+		ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+			Thread t = new Thread(r, "TEA JAR Export #" + threadNo.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		});
+		CompletionService<ExportResult> completion = new ExecutorCompletionService<>(pool);
+
+		long start = System.currentTimeMillis();
+		MultiStatus status = new MultiStatus(Activator.PLUGIN_ID, IStatus.OK, "JAR export", null);
+		List<ExportResult> results = new ArrayList<>();
+		try {
+			// workers pick up the next plugin as soon as they are idle
+			for (PluginBuild pb : plugins) {
+				completion.submit(() -> {
+					concurrency.acquire();
+					long begin = System.nanoTime();
+					long size = 0;
+					try {
+						ExportResult result = exportPlugin(log, jarManager, distDirectory, pb, tracker);
+						size = result.size;
+						return result;
+					} finally {
+						concurrency.release(size, System.nanoTime() - begin);
+					}
+				});
 			}
 
-			// parallel job count
-			if (getNumberOfJobs(JobFamily) >= config.zipParallelThreads) {
-				Thread.sleep(10);
-				continue;
+			for (int i = 0; i < plugins.size(); ++i) {
+				ExportResult result = completion.take().get();
+				results.add(result);
+				if (!result.status.isOK()) {
+					status.add(result.status);
+				}
+				tracker.worked(1);
 			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OperationCanceledException();
+		} finally {
+			pool.shutdownNow();
+			concurrency.finish();
+		}
 
-			final PluginBuild pb = plugins.get(i);
+		if (tracker.isCanceled()) {
+			throw new OperationCanceledException();
+		}
 
-			/*
-			 * Job that exports one project.
-			 */
-			Job job = new Job("Export " + pb.getPluginName()) {
+		logTimings(log, results, System.currentTimeMillis() - start);
 
-				@Override
-				public boolean belongsTo(Object family) {
-					if (family.equals(JobFamily)) {
-						return true;
-					}
-					return false;
-				}
+		// report all failures at once
+		if (status.getSeverity() > IStatus.WARNING) {
+			throw new CoreException(status);
+		}
+	}
 
-				@Override
-				public IStatus run(IProgressMonitor monitor) {
+	/**
+	 * Exports a single plugin. Never throws, failures are reported in the
+	 * result.
+	 */
+	private static ExportResult exportPlugin(TaskingLog log, JarManager jarManager, File distDirectory,
+			PluginBuild pb, TaskProgressTracker tracker) {
+		String name = pb.getPluginName();
+		if (tracker.isCanceled()) {
+			return new ExportResult(name, 0, 0, Status.CANCEL_STATUS);
+		}
 
-					try {
-						log.info("execJarCommands: " + pb.getPluginName());
-
-						IStatus status = TeaBuildUtil.getStatus(new TeaBuildPluginElement(pb));
-						if (status.getSeverity() > IStatus.WARNING) {
-							for (IStatus s : status.getChildren()) {
-								if (s.getSeverity() > IStatus.WARNING) {
-									log.debug(s.getMessage());
-								}
-							}
-							throw new RuntimeException(pb.getPluginName() + " has errors");
-						}
-
-						execJarCached(jarManager, distDirectory, pb);
-					} catch (Exception e) {
-						log.info(pb.getPluginName() + " " + e.toString());
-						return new Status(Status.ERROR, getClass().getName(), "unexpected exception during jar export",
-								e);
+		long start = System.currentTimeMillis();
+		IStatus result;
+		long size = 0;
+		try {
+			IStatus status = TeaBuildUtil.getStatus(new TeaBuildPluginElement(pb));
+			if (status.getSeverity() > IStatus.WARNING) {
+				for (IStatus s : status.getChildren()) {
+					if (s.getSeverity() > IStatus.WARNING) {
+						log.debug(s.getMessage());
 					}
-					return Status.OK_STATUS;
 				}
+				throw new RuntimeException(name + " has errors");
+			}
 
-			};
-			job.setSystem(true);
-			job.schedule();
-			startedJobs.add(job);
-			tracker.worked(1);
-			++i;
+			size = execJarCached(jarManager, distDirectory, pb).length();
+			result = new Status(IStatus.OK, Activator.PLUGIN_ID, name);
+		} catch (Exception e) {
+			log.info(name + " " + e.toString());
+			result = new Status(IStatus.ERROR, Activator.PLUGIN_ID, "cannot export " + name, e);
 		}
 
-		// wait until all checkout jobs have finished
-		Job.getJobManager().join(JobFamily, null);
+		long time = System.currentTimeMillis() - start;
+		log.debug("exported " + name + " in " + time + "ms");
+		return new ExportResult(name, time, size, result);
+	}
 
-		if (tracker.isCanceled()) {
-			throw new RuntimeException("cancelled");
+	private static void logTimings(TaskingLog log, List<ExportResult> results, long total) {
+		long sum = 0;
+		for (ExportResult r : results) {
+			sum += r.time;
 		}
+		log.info("exported " + results.size() + " plugins in " + total + "ms (" + sum + "ms of work)");
 
-		// check if all jobs have been successful
-		for (Job job : startedJobs) {
-			if (!job.getResult().isOK()) {
-				Throwable cause = job.getResult().getException();
-				throw new RuntimeException("Job failed:" + job.getName(), cause);
-			}
+		List<ExportResult> slowest = new ArrayList<>(results);
+		slowest.sort(Comparator.comparingLong((ExportResult r) -> r.time).reversed());
+		for (ExportResult r : slowest.subList(0, Math.min(SLOWEST_COUNT, slowest.size()))) {
+			log.info("  " + r.name + ": " + r.time + "ms");
 		}
 	}
 
-	protected static void execJarCached(JarManager jarManager, File distDirectory, BundleBuild<?> bb) throws Exception {
+	protected static File execJarCached(JarManager jarManager, File distDirectory, BundleBuild<?> bb)
+			throws Exception {
 		if (cache != null) {
-			cache.execJarCommands(jarManager, bb, distDirectory);
-		} else {
-			jarManager.execJarCommands(bb, distDirectory);
+			return cache.execJarCommands(jarManager, bb, distDirectory);
 		}
-	}
-
-	/**
-	 * @return the number of running checkout jobs that belong to the given
-	 *         family
-	 */
-	private static int getNumberOfJobs(String jobFamily) {
-		IJobManager manager = Job.getJobManager();
-		Job[] jobs = manager.find(jobFamily);
-		return jobs.length;
+		return jarManager.execJarCommands(bb, distDirectory);
 	}
 
 	@Override
@@ -215,16 +291,26 @@ public class TaskRunJarExport {
 		return PLUGINS_DIRECTORY;
 	}
 
+	/**
+	 * Keeps the JAR files created during a single chain, keyed by file name,
+	 * which includes the version. Misses are delegated to the persistent
+	 * {@link JarCache} if configured.
+	 */
 	static class TemporaryJarCache {
 
 		private final File dir;
+		private final JarCache persistent;
+
+		/** guards creation of each JAR file, by file name */
+		private final Map<String, Object> locks = new ConcurrentHashMap<>();
 
-		private long missCnt = 0;
-		private long hitCnt = 0;
-		private long skipCnt = 0;
+		private final AtomicLong missCnt = new AtomicLong();
+		private final AtomicLong hitCnt = new AtomicLong();
+		private final AtomicLong skipCnt = new AtomicLong();
 
-		TemporaryJarCache(File dir) {
+		TemporaryJarCache(File dir, JarCache persistent) {
 			this.dir = dir;
+			this.persistent = persistent;
 
 			if (!dir.isDirectory()) {
 				FileUtils.mkdirs(dir);
@@ -232,16 +318,21 @@ public class TaskRunJarExport {
 		}
 
 		private File getCached(JarManager jm, BundleBuild<?> build) throws Exception {
-			String jarFileName = build.getJarFileName(jm.getBundleVersion(build.getData()));
-			File cached = new File(dir, jarFileName);
+			String jarFileName = build.getJarFileName(jm.getBundleVersion(build));
+			synchronized (locks.computeIfAbsent(jarFileName, k -> new Object())) {
+				File cached = new File(dir, jarFileName);
 
-			if (cached.exists()) {
-				hitCnt++;
-				return cached;
-			}
+				if (cached.exists()) {
+					hitCnt.incrementAndGet();
+					return cached;
+				}
 
-			missCnt++;
-			return jm.execJarCommands(build, dir);
+				missCnt.incrementAndGet();
+				if (persistent != null) {
+					return persistent.execJarCommands(jm, build, dir);
+				}
+				return jm.execJarCommands(build, dir);
+			}
 		}
 
 		File execJarCommands(JarManager jm, BundleBuild<?> build, File destDir) throws Exception {
@@ -250,7 +341,7 @@ public class TaskRunJarExport {
 			if (!destFile.exists() || cached.length() != destFile.length()) {
 				FileUtils.hardLinkOrCopy(cached, destFile);
 			} else {
-				skipCnt++;
+				skipCnt.incrementAndGet();
 			}
 			return destFile;
 		}
@@ -258,8 +349,26 @@ public class TaskRunJarExport {
 		void clear(TaskingLog log) {
 			log.info("clearing JAR cache: miss=" + missCnt + ", hit=" + hitCnt + ", skip=" + skipCnt);
 			FileUtils.deleteDirectory(dir);
+			if (persistent != null) {
+				persistent.finish(log);
+			}
 		}
 
 	}
 
+	private static final class ExportResult {
+
+		final String name;
+		final long time;
+		final long size;
+		final IStatus status;
+
+		ExportResult(String name, long time, long size, IStatus status) {
+			this.name = name;
+			this.time = time;
+			this.size = size;
+			this.status = status;
+		}
+	}
+
 }
@@ -72,9 +72,11 @@ import org.eclipse.tea.core.services.TaskProgressTracker;
 import org.eclipse.tea.core.services.TaskingLog;
 import org.eclipse.tea.library.build.config.BuildDirectories;
 import org.eclipse.tea.library.build.config.TeaBuildConfig;
+import org.eclipse.tea.library.build.jar.ZipConfig;
 import org.eclipse.tea.library.build.model.MavenExternalJarBuild;
 import org.eclipse.tea.library.build.model.PluginBuild;
 import org.eclipse.tea.library.build.model.WorkspaceBuild;
+import org.eclipse.tea.library.build.util.AdaptiveConcurrency;
 import org.eclipse.tea.library.build.util.FileUtils;
 import org.eclipse.tea.library.build.util.StringHelper;
 
@@ -88,6 +90,9 @@ public class SynchronizeMavenArtifact {
 			RepositoryPolicy.UPDATE_POLICY_ALWAYS, RepositoryPolicy.CHECKSUM_POLICY_WARN);
 	private final static String MAVEN_DIRNAME = "maven";
 	private final static String CLASSIFIER_SOURCES = "sources";
+
+	/** number of parallel downloads of the basic repository connector */
+	private final static String CONNECTOR_THREADS = "aether.connector.basic.threads";
 	private String lastExceptionName;
 	private MavenConfig properties;
 
@@ -101,17 +106,22 @@ public class SynchronizeMavenArtifact {
 	}
 
 	@Execute
-	public void run(TaskingLog log, TaskProgressTracker tracker, TeaBuildConfig cfg, WorkspaceBuild wb)
-			throws Exception {
+	public void run(TaskingLog log, TaskProgressTracker tracker, TeaBuildConfig cfg, WorkspaceBuild wb,
+			ZipConfig zipConfig) throws Exception {
 		properties = getMavenConfig(log, cfg);
 		if (properties == null) {
 			return;
 		}
-		ResourcesPlugin.getWorkspace().run(m -> runOperation(log, tracker, cfg, wb), null);
+		AdaptiveConcurrency downloads = zipConfig.createConcurrency("Maven downloads", log);
+		try {
+			ResourcesPlugin.getWorkspace().run(m -> runOperation(log, tracker, cfg, wb, downloads), null);
+		} finally {
+			downloads.finish();
+		}
 	}
 
-	private void runOperation(TaskingLog log, TaskProgressTracker tracker, TeaBuildConfig cfg, WorkspaceBuild wb)
-			throws CoreException {
+	private void runOperation(TaskingLog log, TaskProgressTracker tracker, TeaBuildConfig cfg, WorkspaceBuild wb,
+			AdaptiveConcurrency downloads) throws CoreException {
 
 		IndexManager indexManager = JavaModelManager.getIndexManager();
 		lastExceptionName = null;
@@ -121,13 +131,14 @@ public class SynchronizeMavenArtifact {
 
 			ServiceLocator locator = createServiceLocator(log);
 			RepositorySystem system = locator.getService(RepositorySystem.class);
-			RepositorySystemSession session = createSession(log, system);
+			DefaultRepositorySystemSession session = createSession(log, system);
 			List<RemoteRepository> remotes = createRemoteRepositories();
 
 			Set<BatchableMavenManipulator> mavenManips = new HashSet<>();
 			for (PluginBuild pb : wb.getSourcePlugIns()) {
 				if (!pb.getMavenExternalJarDependencies().isEmpty() && !pb.getData().isBinary()) {
-					mavenManips.add(new BatchableMavenManipulator(log, tracker, system, session, remotes, pb));
+					mavenManips.add(
+							new BatchableMavenManipulator(log, tracker, system, session, remotes, pb, downloads));
 				}
 			}
 
@@ -234,10 +245,11 @@ public class SynchronizeMavenArtifact {
 		private final TaskingLog log;
 		private final TaskProgressTracker tracker;
 		private final RepositorySystem system;
-		private final RepositorySystemSession session;
+		private final DefaultRepositorySystemSession session;
 		private final List<RemoteRepository> remotes;
 		private final PluginBuild hostPlugin;
 		private final IFolder targetFolder;
+		private final AdaptiveConcurrency downloads;
 
 		private final Set<IFile> filesAlreadyUpToDate = new HashSet<>();
 		private final Set<IFile> filesToClean = new HashSet<>();
@@ -246,14 +258,15 @@ public class SynchronizeMavenArtifact {
 		private final Set<IResource> artifactsToRefresh = new HashSet<>();
 
 		private BatchableMavenManipulator(TaskingLog log, TaskProgressTracker tracker, RepositorySystem system,
-				RepositorySystemSession session, List<RemoteRepository> remotes, PluginBuild hostPlugin)
-				throws CoreException {
+				DefaultRepositorySystemSession session, List<RemoteRepository> remotes, PluginBuild hostPlugin,
+				AdaptiveConcurrency downloads) throws CoreException {
 			this.log = log;
 			this.tracker = tracker;
 			this.system = system;
 			this.session = session;
 			this.remotes = remotes;
 			this.hostPlugin = hostPlugin;
+			this.downloads = downloads;
 			IProject prj = hostPlugin.getData().getProject();
 			this.targetFolder = prj.getFolder(MAVEN_DIRNAME);
 
@@ -358,7 +371,13 @@ public class SynchronizeMavenArtifact {
 				file.getRawLocation().toFile().delete();
 			}
 
+			// the connector reads the number of threads for each resolution
+			session.setConfigProperty(CONNECTOR_THREADS, downloads.getLimit());
+			long start = System.nanoTime();
 			List<ArtifactResult> results = resolveArtifacts(log, system, session, artifactRequests);
+			if (!artifactRequests.isEmpty()) {
+				downloads.record(getDownloadedSize(results), System.nanoTime() - start);
+			}
 			for (ArtifactResult result : results) {
 				ArtifactRequest rq = result.getRequest();
 				Artifact mvn = rq.getArtifact();
@@ -390,6 +409,16 @@ public class SynchronizeMavenArtifact {
 			}
 		}
 
+		private long getDownloadedSize(List<ArtifactResult> results) {
+			long size = 0;
+			for (ArtifactResult result : results) {
+				if (result.isResolved() && result.getArtifact().getFile() != null) {
+					size += result.getArtifact().getFile().length();
+				}
+			}
+			return size;
+		}
+
 		void refreshWorkspace() throws CoreException {
 			for (IResource r : artifactsToRefresh) {
 				r.refreshLocal(IResource.DEPTH_ZERO, null); // throws
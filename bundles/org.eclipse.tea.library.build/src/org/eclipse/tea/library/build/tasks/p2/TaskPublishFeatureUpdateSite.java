@@ -27,13 +27,20 @@ import org.eclipse.core.runtime.Status;
 import org.eclipse.e4.core.di.annotations.Execute;
 import org.eclipse.equinox.app.IApplication;
 import org.eclipse.equinox.internal.p2.updatesite.CategoryPublisherApplication;
+import org.eclipse.equinox.p2.publisher.IPublisherAction;
+import org.eclipse.equinox.p2.publisher.IPublisherInfo;
+import org.eclipse.equinox.p2.publisher.Publisher;
+import org.eclipse.equinox.p2.publisher.eclipse.BundlesAction;
+import org.eclipse.equinox.p2.publisher.eclipse.FeaturesAction;
 import org.eclipse.equinox.p2.publisher.eclipse.FeaturesAndBundlesPublisherApplication;
 import org.eclipse.tea.core.services.TaskingLog;
 import org.eclipse.tea.library.build.config.BuildDirectories;
+import org.eclipse.tea.library.build.config.TeaBuildConfig;
 import org.eclipse.tea.library.build.jar.JarManager;
 import org.eclipse.tea.library.build.model.PlatformTriple;
 import org.eclipse.tea.library.build.model.WorkspaceBuild;
 import org.eclipse.tea.library.build.model.WorkspaceData;
+import org.eclipse.tea.library.build.p2.IncrementalPublisher;
 import org.eclipse.tea.library.build.p2.UpdateSite;
 import org.eclipse.tea.library.build.p2.UpdateSiteCategory;
 import org.eclipse.tea.library.build.tasks.jar.TaskRunFeaturePluginJarExport;
@@ -74,7 +81,8 @@ public class TaskPublishFeatureUpdateSite {
 	}
 
 	@Execute
-	public void run(TaskingLog log, WorkspaceBuild wb, JarManager jarManager, BuildDirectories dirs) throws Exception {
+	public void run(TaskingLog log, WorkspaceBuild wb, JarManager jarManager, BuildDirectories dirs,
+			TeaBuildConfig config) throws Exception {
 		log.info("generate update site for platform:" + PlatformTriple.getAllTargetsCommandLineStyle());
 
 		// these directories are prepared by the TaskRunFeaturePluginJarExport
@@ -88,7 +96,9 @@ public class TaskPublishFeatureUpdateSite {
 
 		log.info("update site destination directory: " + distDirectory);
 
-		if (!IApplication.EXIT_OK.equals(runUpdateSitePublisher(distDirectory, featureDir, pluginDir))) {
+		if (config.incrementalPublishing) {
+			runIncrementalPublisher(log, distDirectory, featureDir, pluginDir);
+		} else if (!IApplication.EXIT_OK.equals(runUpdateSitePublisher(distDirectory, featureDir, pluginDir))) {
 			throw new RuntimeException("exit status of application not ok!");
 		}
 
@@ -128,6 +138,27 @@ public class TaskPublishFeatureUpdateSite {
 		return updateSiteGenerator.run(cmdArgs.toArray(new String[cmdArgs.size()]));
 	}
 
+	/**
+	 * Publishes only those features and bundles to the target directory which
+	 * changed since the last run, see {@link IncrementalPublisher}.
+	 */
+	public static void runIncrementalPublisher(TaskingLog log, File targetDirectory, File featureDir,
+			File pluginDir) throws Exception {
+		IPublisherInfo info = TaskPublishProductUpdateSite.createDefaultPublisherInfo(log, targetDirectory);
+
+		IncrementalPublisher incremental = new IncrementalPublisher(log, targetDirectory);
+		incremental.prepare(info.getMetadataRepository(), info.getArtifactRepository(),
+				Collections.singletonList(featureDir), Collections.singletonList(pluginDir));
+
+		IPublisherAction[] actions = { new FeaturesAction(incremental.getFeatures()),
+				new BundlesAction(incremental.getBundles()) };
+		IStatus result = new Publisher(info).publish(actions, null);
+		if (result.getSeverity() == IStatus.ERROR) {
+			throw new RuntimeException("Failed to publish artifacts to update site '" + result + "'");
+		}
+		incremental.commit();
+	}
+
 	public static Object runCategoryPublisher(File targetDirectory, File categoryFile) throws Exception {
 		// arguments for the CategoryPublisherApplication
 		Collection<String> cmdArgs = new ArrayList<>();
@@ -55,6 +55,7 @@ import org.eclipse.tea.library.build.jar.JarManager;
 import org.eclipse.tea.library.build.model.FeatureBuild;
 import org.eclipse.tea.library.build.model.PlatformTriple;
 import org.eclipse.tea.library.build.model.WorkspaceBuild;
+import org.eclipse.tea.library.build.p2.IncrementalPublisher;
 import org.eclipse.tea.library.build.p2.TargetPlatformHelper;
 import org.eclipse.tea.library.build.p2.TeaFeatureRootAdvice;
 import org.eclipse.tea.library.build.p2.TeaProductAction;
@@ -204,9 +205,24 @@ public class TaskPublishProductUpdateSite {
 		// add actions to publish features and plug-ins to the target update
 		// site
 		log.info("Publish artifacts to update site '" + site.directory + "'");
+		final IPublisherInfo info = createPublisherInfo(log, site.directory);
+		File[] features = featureLocations.toArray(new File[featureLocations.size()]);
+		File[] plugins = pluginLocations.toArray(new File[pluginLocations.size()]);
+
+		IncrementalPublisher incremental = null;
+		if (um.isIncremental() && !composite) {
+			// root files are advice to the product feature, not its content
+			incremental = new IncrementalPublisher(log, site.directory);
+			incremental.republish(feature.getFeatureName());
+			incremental.prepare(info.getMetadataRepository(), info.getArtifactRepository(), featureLocations,
+					pluginLocations);
+			features = incremental.getFeatures();
+			plugins = incremental.getBundles();
+		}
+
 		final List<IPublisherAction> actions = new ArrayList<>();
-		actions.add(new FeaturesAction(featureLocations.toArray(new File[featureLocations.size()])));
-		actions.add(new BundlesAction(pluginLocations.toArray(new File[pluginLocations.size()])));
+		actions.add(new FeaturesAction(features));
+		actions.add(new BundlesAction(plugins));
 
 		actions.add(new TeaProductAction(productDescriptor, getExecutablesDir(deltaPacks),
 				hasBin ? new File(feature.getData().getBundleDir(), customBin) : null));
@@ -217,7 +233,6 @@ public class TaskPublishProductUpdateSite {
 		addRootFiles(log);
 
 		// create advice to publish additional resources
-		final IPublisherInfo info = createPublisherInfo(log, site.directory);
 		final IFeatureRootAdvice rootFileAdvice = createRootAdvice(feature, info);
 		if (rootFileAdvice != null) {
 			info.addAdvice(rootFileAdvice);
@@ -233,6 +248,9 @@ public class TaskPublishProductUpdateSite {
 		if (result.getSeverity() == IStatus.ERROR) {
 			throw new RuntimeException("Failed to publish artifacts to update site '" + result + "'");
 		}
+		if (incremental != null) {
+			incremental.commit();
+		}
 
 		if (!composite) {
 			// create a ZIP archive of the update site
@@ -346,6 +364,17 @@ public class TaskPublishProductUpdateSite {
 	 *            the target repository to create
 	 */
 	protected IPublisherInfo createPublisherInfo(TaskingLog log, File repositoryPath) throws Exception {
+		return createDefaultPublisherInfo(log, repositoryPath);
+	}
+
+	/**
+	 * Creates and returns the metadata to be used by the publisher. Existing
+	 * repositories are loaded, otherwise compressed repositories are created.
+	 *
+	 * @param repositoryPath
+	 *            the target repository to create
+	 */
+	public static IPublisherInfo createDefaultPublisherInfo(TaskingLog log, File repositoryPath) throws Exception {
 		PublisherInfo info = new PublisherInfo();
 
 		Map<String, String> properties = new TreeMap<>();
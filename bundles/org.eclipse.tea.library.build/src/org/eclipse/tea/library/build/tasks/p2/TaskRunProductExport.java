@@ -11,19 +11,37 @@
 package org.eclipse.tea.library.build.tasks.p2;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.MultiStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.e4.core.di.annotations.Execute;
 import org.eclipse.equinox.app.IApplication;
 import org.eclipse.equinox.internal.p2.director.app.DirectorApplication;
 import org.eclipse.equinox.internal.p2.director.app.ILog;
 import org.eclipse.tea.core.annotations.TaskCaptureStdOutput;
+import org.eclipse.tea.core.services.TaskProgressTracker;
+import org.eclipse.tea.core.services.TaskProgressTracker.TaskProgressProvider;
 import org.eclipse.tea.core.services.TaskingLog;
 import org.eclipse.tea.library.build.config.BuildDirectories;
+import org.eclipse.tea.library.build.config.TeaBuildConfig;
+import org.eclipse.tea.library.build.internal.Activator;
 import org.eclipse.tea.library.build.jar.JarManager;
+import org.eclipse.tea.library.build.jar.TarGzArchiver;
 import org.eclipse.tea.library.build.jar.ZipExec;
 import org.eclipse.tea.library.build.jar.ZipExecFactory;
 import org.eclipse.tea.library.build.jar.ZipExecPart;
@@ -34,6 +52,8 @@ import org.eclipse.tea.library.build.p2.TeaProductDescription;
 import org.eclipse.tea.library.build.p2.UpdateSite;
 import org.eclipse.tea.library.build.p2.UpdateSiteManager;
 import org.eclipse.tea.library.build.util.FileUtils;
+import org.eclipse.tea.library.build.util.HardLinkPool;
+import org.eclipse.tea.library.build.util.ProcessRunner;
 
 /**
  * Task that will export a product from on an existing update site.
@@ -47,6 +67,24 @@ public class TaskRunProductExport {
 	private final Map<PlatformTriple, File> outputs = new HashMap<>();
 	private final boolean zip;
 
+	/** application ID of the p2 director */
+	private static final String DIRECTOR_APPLICATION = "org.eclipse.equinox.p2.director";
+
+	/** system property holding the launcher of the running installation */
+	private static final String LAUNCHER_PROPERTY = "eclipse.launcher";
+
+	/** directory of the hard link pool, relative to the product directory */
+	private static final String POOL_DIRECTORY = ".pool";
+
+	/** directories of an installation whose content is pooled */
+	private static final String[] POOLED_DIRECTORIES = { "plugins", "features" };
+
+	/** operating system of platforms that can be archived as tar.gz */
+	private static final String LINUX = "linux";
+
+	/** serializes in-process runs of the director application */
+	private static final Object DIRECTOR_LOCK = new Object();
+
 	/**
 	 * Creates a new product by exporting it from a given update site
 	 *
@@ -75,47 +113,213 @@ public class TaskRunProductExport {
 		buildPlatforms = platforms;
 	}
 
+	@TaskProgressProvider
+	public int getWorkAmount() {
+		// installation and (optional) archive per platform
+		return buildPlatforms.length * (zip ? 2 : 1);
+	}
+
 	@Execute
-	public void run(TaskingLog log, UpdateSiteManager um, JarManager jm, WorkspaceBuild wb) throws Exception {
+	public void run(TaskingLog log, UpdateSiteManager um, JarManager jm, WorkspaceBuild wb,
+			TaskProgressTracker tracker, TeaBuildConfig config) throws Exception {
 		final UpdateSite site = um.getSite(siteName);
 		final File baseProductDir = BuildDirectories.get().getProductDirectory();
 		if (!site.directory.isDirectory()) {
 			throw new RuntimeException("Repository '" + site.directory + "' is not existing");
 		}
-		final ILog logger = new TaskingLogLoggerDelegate(log);
 
 		FeatureBuild feature = wb.getFeature(productFeature);
 		File productFile = new File(feature.getData().getBundleDir(), productFileName);
 		TeaProductDescription productDescriptor = new TeaProductDescription(productFile, feature);
 		final String productName = productDescriptor.getProductName();
 		final String productId = productDescriptor.getId();
+		final String buildVersion = jm.getQualifier();
+		final String launcher = config.productExportChildProcess ? getLauncher(log) : null;
+		HardLinkPool linkPool = null;
+		if (config.productExportHardLinkPool) {
+			if (zip) {
+				// archived products are deleted, nothing would stay linked
+				log.info("hard link pool is not used, products are archived");
+			} else {
+				linkPool = createPool(log, baseProductDir);
+			}
+		}
+		final HardLinkPool pool = linkPool;
 
-		for (PlatformTriple platform : buildPlatforms) {
-			final File productDir = new File(baseProductDir,
-					productName + "-" + platform.os + "." + platform.ws + "." + platform.arch);
-			final String buildVersion = jm.getQualifier();
-			final File archivedProductFile = new File(baseProductDir, productName + "-" + buildVersion + "."
-					+ platform.os + "." + platform.ws + "." + platform.arch + ".zip");
+		int threads = config.productExportThreads > 0 ? (int) config.productExportThreads
+				: Runtime.getRuntime().availableProcessors();
+		threads = Math.max(1, Math.min(threads, buildPlatforms.length));
+		if (threads > 1 && launcher == null) {
+			log.info("p2 director runs in-process, installations of all platforms run one at a time. "
+					+ "Enable running it in a separate process to install platforms concurrently.");
+		}
+		AtomicInteger threadNo = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+			Thread t = new Thread(r, "TEA Product Export #" + threadNo.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		});
+		CompletionService<PlatformResult> completion = new ExecutorCompletionService<>(executor);
 
-			// cleanup any old artifacts
-			FileUtils.deleteDirectory(productDir);
+		MultiStatus status = new MultiStatus(Activator.PLUGIN_ID, IStatus.OK, "Product export " + productName, null);
+		jm.getZipExecFactory().setProgressTracker(tracker);
+		try {
+			for (PlatformTriple platform : buildPlatforms) {
+				completion.submit(() -> {
+					String prefix = "[" + platform.os + "." + platform.ws + "." + platform.arch + "] ";
+					try {
+						boolean tarGz = config.productExportTarGz && LINUX.equals(platform.os);
+						File output = exportPlatform(log, prefix, tracker, jm, launcher, pool, tarGz, productId,
+								productName, buildVersion, site.directory, baseProductDir, platform);
+						return new PlatformResult(platform, output, Status.OK_STATUS);
+					} catch (OperationCanceledException e) {
+						return new PlatformResult(platform, null, Status.CANCEL_STATUS);
+					} catch (Exception e) {
+						log.error(prefix + "export failed", e);
+						return new PlatformResult(platform, null, new Status(IStatus.ERROR, Activator.PLUGIN_ID,
+								"cannot export " + productName + " " + prefix, e));
+					}
+				});
+			}
 
-			// export product for the given platform
-			log.info("Building product '" + productDir.getName() + "'");
-			createProduct(productId, site.directory, new File(productDir, productName), platform, logger);
+			for (int i = 0; i < buildPlatforms.length; ++i) {
+				PlatformResult result = completion.take().get();
+				if (result.output != null) {
+					outputs.put(result.platform, result.output);
+				} else {
+					status.add(result.status);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OperationCanceledException();
+		} finally {
+			executor.shutdownNow();
+			jm.getZipExecFactory().setProgressTracker(null);
+		}
 
-			if (zip) {
-				log.info("Archiving product '" + archivedProductFile.getName() + "'");
-				createArchive(jm.getZipExecFactory(), productDir, archivedProductFile);
+		if (tracker.isCanceled()) {
+			throw new OperationCanceledException();
+		}
+
+		// report all failures at once
+		if (status.getSeverity() > IStatus.WARNING) {
+			throw new CoreException(status);
+		}
+	}
+
+	/**
+	 * Installs and (optionally) archives the product for a single platform.
+	 *
+	 * @return the archive or directory of the product
+	 */
+	private File exportPlatform(TaskingLog log, String prefix, TaskProgressTracker tracker, JarManager jm,
+			String launcher, HardLinkPool pool, boolean tarGz, String productId, String productName,
+			String buildVersion, File repositoryDir, File baseProductDir, PlatformTriple platform) throws Exception {
+		final File productDir = new File(baseProductDir,
+				productName + "-" + platform.os + "." + platform.ws + "." + platform.arch);
+		final File archivedProductFile = new File(baseProductDir, productName + "-" + buildVersion + "."
+				+ platform.os + "." + platform.ws + "." + platform.arch + (tarGz ? ".tar.gz" : ".zip"));
+		long start = System.currentTimeMillis();
+
+		// cleanup any old artifacts
+		FileUtils.deleteDirectory(productDir);
 
-				// cleanup unpacked version again
-				FileUtils.deleteDirectory(productDir);
+		// export product for the given platform
+		log.info(prefix + "Building product '" + productDir.getName() + "'");
+		File destinationDir = new File(productDir, productName);
+		if (launcher != null) {
+			createProductInChildProcess(launcher, productId, repositoryDir, destinationDir, platform, log, prefix,
+					tracker);
+		} else {
+			// the director application is not known to be safe to run
+			// concurrently in the same VM
+			synchronized (DIRECTOR_LOCK) {
+				checkCanceled(tracker);
+				createProduct(productId, repositoryDir, destinationDir, platform,
+						new TaskingLogLoggerDelegate(log, prefix));
+			}
+		}
+		worked(tracker);
+
+		if (pool != null) {
+			try {
+				long saved = 0;
+				for (String dir : POOLED_DIRECTORIES) {
+					saved += pool.link(new File(destinationDir, dir));
+				}
+				log.info(prefix + "Linked " + (saved / 1024 / 1024) + "MB of shared content");
+			} catch (IOException e) {
+				log.warn(prefix + "cannot link to hard link pool: " + e);
+			}
+		}
 
-				outputs.put(platform, archivedProductFile);
+		File output = productDir;
+		if (zip) {
+			checkCanceled(tracker);
+			log.info(prefix + "Archiving product '" + archivedProductFile.getName() + "'");
+			if (tarGz) {
+				createTarGzArchive(productDir, archivedProductFile);
 			} else {
-				outputs.put(platform, productDir);
+				createArchive(jm.getZipExecFactory(), productDir, archivedProductFile);
 			}
+
+			// cleanup unpacked version again
+			FileUtils.deleteDirectory(productDir);
+			worked(tracker);
+			output = archivedProductFile;
 		}
+
+		log.info(prefix + "Exported in " + (System.currentTimeMillis() - start) + "ms");
+		return output;
+	}
+
+	/**
+	 * @return the pool that identical content of all exported products is
+	 *         linked to, or <code>null</code> if not supported
+	 */
+	private static HardLinkPool createPool(TaskingLog log, File baseProductDir) {
+		try {
+			HardLinkPool pool = new HardLinkPool(new File(baseProductDir, POOL_DIRECTORY));
+			// content of products deleted in the meantime
+			pool.trim();
+			return pool;
+		} catch (Exception e) {
+			log.warn("cannot use hard link pool: " + e);
+			return null;
+		}
+	}
+
+	private static void checkCanceled(TaskProgressTracker tracker) {
+		if (tracker.isCanceled()) {
+			throw new OperationCanceledException();
+		}
+	}
+
+	private static void worked(TaskProgressTracker tracker) {
+		// progress monitors are not necessarily thread safe
+		synchronized (tracker) {
+			tracker.worked(1);
+		}
+	}
+
+	/**
+	 * @return the launcher of the running installation, or <code>null</code>
+	 *         if not known
+	 */
+	private static String getLauncher(TaskingLog log) {
+		String launcher = System.getProperty(LAUNCHER_PROPERTY);
+		if (launcher == null || !new File(launcher).isFile()) {
+			log.warn("launcher of the running installation not known, running p2 director in-process");
+			return null;
+		}
+
+		// the windows GUI launcher detaches from the console
+		File console = new File(launcher.replaceFirst("(?i)\\.exe$", "c.exe"));
+		if (launcher.toLowerCase().endsWith(".exe") && console.isFile()) {
+			return console.getAbsolutePath();
+		}
+		return launcher;
 	}
 
 	public File getOutput(PlatformTriple platform) {
@@ -133,7 +337,48 @@ public class TaskRunProductExport {
 	protected void createProduct(String productId, File repositoryDir, File destinationDir, PlatformTriple platform,
 			ILog logger) throws Exception {
 
-		// arguments for DirectorApplication
+		Collection<String> cmdArgs = getDirectorArguments(productId, repositoryDir, destinationDir, platform);
+
+		DirectorApplication directorApplication = new DirectorApplication();
+		directorApplication.setLog(logger);
+		Object result = directorApplication.run(cmdArgs.toArray(new String[cmdArgs.size()]));
+		if (!IApplication.EXIT_OK.equals(result)) {
+			throw new RuntimeException("Error occured during product export '" + result + "'");
+		}
+	}
+
+	/**
+	 * Runs the director application in a separate process of the running
+	 * installation to create the product for the given platform
+	 */
+	protected void createProductInChildProcess(String launcher, String productId, File repositoryDir,
+			File destinationDir, PlatformTriple platform, TaskingLog log, String prefix, TaskProgressTracker tracker)
+			throws Exception {
+		List<String> cmd = new ArrayList<>();
+		cmd.add(launcher);
+		cmd.add("-nosplash");
+		cmd.add("-consoleLog");
+		cmd.add("-data");
+		cmd.add("@none");
+		cmd.add("-application");
+		cmd.add(DIRECTOR_APPLICATION);
+		cmd.addAll(getDirectorArguments(productId, repositoryDir, destinationDir, platform));
+
+		File workDir = destinationDir.getParentFile();
+		FileUtils.mkdirs(workDir);
+		int result = new ProcessRunner(log, prefix, tracker, 0).run(workDir, Collections.<String> emptyList(),
+				cmd.toArray(new String[cmd.size()]));
+		if (result != 0) {
+			throw new RuntimeException("Error occured during product export (exit code " + result + ")");
+		}
+	}
+
+	/**
+	 * @return the arguments for the director application to create the
+	 *         product for the given platform
+	 */
+	protected Collection<String> getDirectorArguments(String productId, File repositoryDir, File destinationDir,
+			PlatformTriple platform) {
 		Collection<String> cmdArgs = new ArrayList<>();
 		cmdArgs.add("-installIU");
 		cmdArgs.add(productId);
@@ -153,12 +398,7 @@ public class TaskRunProductExport {
 		cmdArgs.add("-p2.arch");
 		cmdArgs.add(platform.arch);
 
-		DirectorApplication directorApplication = new DirectorApplication();
-		directorApplication.setLog(logger);
-		Object result = directorApplication.run(cmdArgs.toArray(new String[cmdArgs.size()]));
-		if (!IApplication.EXIT_OK.equals(result)) {
-			throw new RuntimeException("Error occured during product export '" + result + "'");
-		}
+		return cmdArgs;
 	}
 
 	/** Creates an archive containing all files of the generated product */
@@ -175,4 +415,26 @@ public class TaskRunProductExport {
 		zipExec.createZip();
 	}
 
+	/**
+	 * Creates a gzip compressed tar archive containing all files of the
+	 * generated product, keeping file permissions
+	 */
+	protected void createTarGzArchive(File sourceDir, File archiveFile) throws Exception {
+		FileUtils.delete(archiveFile);
+		TarGzArchiver.create(sourceDir, archiveFile);
+	}
+
+	private static final class PlatformResult {
+
+		final PlatformTriple platform;
+		final File output;
+		final IStatus status;
+
+		PlatformResult(PlatformTriple platform, File output, IStatus status) {
+			this.platform = platform;
+			this.output = output;
+			this.status = status;
+		}
+	}
+
 }
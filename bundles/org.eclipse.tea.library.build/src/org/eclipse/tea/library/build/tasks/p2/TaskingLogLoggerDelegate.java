@@ -22,10 +22,20 @@ import org.eclipse.tea.core.services.TaskingLog;
 public class TaskingLogLoggerDelegate implements ILog {
 
 	private final TaskingLog log;
+	private final String prefix;
 
 	/** Creates a new logger for the given controller */
 	public TaskingLogLoggerDelegate(TaskingLog log) {
+		this(log, "");
+	}
+
+	/**
+	 * Creates a new logger for the given controller, prepending the given
+	 * prefix to each message.
+	 */
+	public TaskingLogLoggerDelegate(TaskingLog log, String prefix) {
 		this.log = log;
+		this.prefix = prefix;
 	}
 
 	@Override
@@ -35,13 +45,13 @@ public class TaskingLogLoggerDelegate implements ILog {
 
 	private void log(IStatus status, String indent) {
 		if (status.matches(IStatus.ERROR)) {
-			log.info(indent + "ERROR: " + status.getMessage(), status.getException());
+			log.info(prefix + indent + "ERROR: " + status.getMessage(), status.getException());
 		} else if (status.matches(IStatus.WARNING)) {
-			log.info(indent + "WARNING: " + status.getMessage(), status.getException());
+			log.info(prefix + indent + "WARNING: " + status.getMessage(), status.getException());
 		} else if (status.matches(IStatus.INFO)) {
-			log.info(indent + "INFO: " + status.getMessage(), status.getException());
+			log.info(prefix + indent + "INFO: " + status.getMessage(), status.getException());
 		} else {
-			log.info(status.getMessage(), status.getException());
+			log.info(prefix + status.getMessage(), status.getException());
 		}
 
 		for (IStatus child : status.getChildren()) {
@@ -51,7 +61,7 @@ public class TaskingLogLoggerDelegate implements ILog {
 
 	@Override
 	public void log(String message) {
-		log.info(message);
+		log.info(prefix + message);
 	}
 
 	@Override
@@ -10,8 +10,15 @@
  *******************************************************************************/
 package org.eclipse.tea.library.build.tasks.p2;
 
+import java.util.concurrent.Executor;
+
 import org.eclipse.e4.core.di.annotations.Execute;
+import org.eclipse.e4.core.di.annotations.Optional;
+import org.eclipse.tea.core.TaskingEngine;
+import org.eclipse.tea.core.services.TaskProgressTracker;
 import org.eclipse.tea.core.services.TaskingLog;
+import org.eclipse.tea.library.build.jar.JarManager;
+import org.eclipse.tea.library.build.jar.ZipConfig;
 import org.eclipse.tea.library.build.p2.UpdateSiteManager;
 
 /**
@@ -21,8 +28,15 @@ import org.eclipse.tea.library.build.p2.UpdateSiteManager;
 public class UpdateSiteZipsTask {
 
 	@Execute
-	public void run(TaskingLog log, UpdateSiteManager um) throws Exception {
-		um.createUpdateSiteZips(log);
+	public void run(TaskingLog log, UpdateSiteManager um, ZipConfig config, JarManager jm,
+			TaskProgressTracker tracker, @Optional TaskingEngine engine) throws Exception {
+		Executor executor = engine != null ? engine.getBackgroundExecutor() : Runnable::run;
+		jm.getZipExecFactory().setProgressTracker(tracker);
+		try {
+			um.createUpdateSiteZips(log, config.createConcurrency("Update site ZIPs", log), executor);
+		} finally {
+			jm.getZipExecFactory().setProgressTracker(null);
+		}
 	}
 
 }
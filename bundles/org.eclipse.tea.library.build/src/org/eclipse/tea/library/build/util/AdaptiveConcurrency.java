@@ -0,0 +1,249 @@
+/*******************************************************************************
+ *  Copyright (c) 2026 SSI Schaefer IT Solutions GmbH and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  Contributors:
+ *      SSI Schaefer IT Solutions GmbH
+ *******************************************************************************/
+package org.eclipse.tea.library.build.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.eclipse.tea.core.services.TaskingLog;
+
+/**
+ * Tunes the number of concurrent workers at runtime (additive increase,
+ * multiplicative decrease).
+ * <p>
+ * Workers report the amount of work done (e.g. bytes written) per unit of
+ * work. The throughput of all workers is measured in windows of completed
+ * units. As long as throughput improves, the limit is increased by one. If it
+ * drops noticeably, or free heap runs low, the limit is reduced and kept for
+ * one window to settle. The limit is never increased while the CPU is
+ * saturated, and never exceeds the ceiling.
+ * <p>
+ * Workers either use {@link #acquire()} and {@link #release(long, long)} to be
+ * throttled, or {@link #record(long, long)} when the limit is applied by other
+ * means (see {@link #getLimit()}).
+ */
+public final class AdaptiveConcurrency {
+
+	/** relative throughput gain required to keep increasing the limit */
+	private static final double INCREASE_RATIO = 1.05;
+
+	/** relative throughput loss that causes the limit to be decreased */
+	private static final double DECREASE_RATIO = 0.85;
+
+	/** fraction of the maximum heap that must remain available */
+	private static final double HEAP_RESERVE = 0.1;
+
+	/** statistics of the last run of each controller in this build, by name */
+	private static final Map<String, Map<String, Object>> statistics = new TreeMap<>();
+
+	private final String name;
+	private final TaskingLog log;
+	private final int initial;
+	private final int ceiling;
+	private final boolean adaptive;
+
+	private int limit;
+	private int active;
+	private int minLimit;
+	private int maxLimit;
+	private int adjustments;
+
+	private long windowStart;
+	private long windowUnits;
+	private int windowCount;
+	private double lastThroughput = -1;
+	private boolean settling;
+
+	private long totalUnits;
+	private long totalCount;
+	private final long created = System.nanoTime();
+
+	/**
+	 * @param name
+	 *            the name used in log and statistics
+	 * @param log
+	 *            used to log limit changes
+	 * @param initial
+	 *            the initial limit
+	 * @param ceiling
+	 *            the maximum limit, 0 for twice the number of processors.
+	 *            Ignored if not adaptive.
+	 * @param adaptive
+	 *            whether to adapt the limit at all. If not, the initial limit
+	 *            is used throughout.
+	 */
+	public AdaptiveConcurrency(String name, TaskingLog log, int initial, int ceiling, boolean adaptive) {
+		this.name = name;
+		this.log = log;
+		int max = ceiling > 0 ? ceiling : 2 * Runtime.getRuntime().availableProcessors();
+		this.initial = Math.max(1, adaptive ? Math.min(initial, max) : initial);
+		this.ceiling = adaptive ? max : this.initial;
+		this.adaptive = adaptive;
+
+		this.limit = this.initial;
+		this.minLimit = limit;
+		this.maxLimit = limit;
+	}
+
+	/**
+	 * @return the maximum number of workers ever allowed. Suitable as size of
+	 *         a worker pool throttled by {@link #acquire()}.
+	 */
+	public int getCeiling() {
+		return ceiling;
+	}
+
+	/**
+	 * @return the current number of allowed concurrent workers.
+	 */
+	public synchronized int getLimit() {
+		return limit;
+	}
+
+	/**
+	 * Blocks until another worker is allowed to run.
+	 */
+	public synchronized void acquire() throws InterruptedException {
+		while (active >= limit) {
+			wait();
+		}
+		active++;
+	}
+
+	/**
+	 * Reports a unit of work done by a worker that called {@link #acquire()}
+	 * before, and allows other workers to run.
+	 *
+	 * @param units
+	 *            the amount of work done, e.g. bytes written.
+	 * @param nanos
+	 *            the time spent
+	 */
+	public synchronized void release(long units, long nanos) {
+		active--;
+		record(units, nanos);
+		notifyAll();
+	}
+
+	/**
+	 * Reports a unit of work done.
+	 *
+	 * @param units
+	 *            the amount of work done, e.g. bytes written.
+	 * @param nanos
+	 *            the time spent
+	 */
+	public synchronized void record(long units, long nanos) {
+		long now = System.nanoTime();
+		if (totalCount == 0) {
+			// the first window starts with the first unit
+			windowStart = now - Math.max(0, nanos);
+		}
+		windowUnits += Math.max(0, units);
+		windowCount++;
+		totalUnits += Math.max(0, units);
+		totalCount++;
+
+		if (!adaptive || windowCount < Math.max(2, limit)) {
+			return;
+		}
+
+		double throughput = windowUnits / (double) Math.max(1, now - windowStart);
+		adjust(throughput);
+
+		lastThroughput = throughput;
+		windowStart = now;
+		windowUnits = 0;
+		windowCount = 0;
+		notifyAll();
+	}
+
+	private void adjust(double throughput) {
+		Runtime rt = Runtime.getRuntime();
+		long available = rt.maxMemory() - (rt.totalMemory() - rt.freeMemory());
+		boolean wasSettling = settling;
+		settling = false;
+		if (available < rt.maxMemory() * HEAP_RESERVE) {
+			setLimit(limit / 2, "low heap");
+			settling = true;
+		} else if (lastThroughput >= 0 && throughput < lastThroughput * DECREASE_RATIO) {
+			setLimit(limit * 3 / 4, "throughput dropped");
+			settling = true;
+		} else if (!wasSettling && (lastThroughput < 0 || throughput > lastThroughput * INCREASE_RATIO)
+				&& !isCpuSaturated()) {
+			setLimit(limit + 1, "throughput increased");
+		}
+	}
+
+	private static boolean isCpuSaturated() {
+		double load = ManagementFactory.getOperatingSystemMXBean().getSystemLoadAverage();
+		// not available on all platforms
+		return load >= 0 && load > Runtime.getRuntime().availableProcessors();
+	}
+
+	private void setLimit(int value, String reason) {
+		int newLimit = Math.max(1, Math.min(ceiling, value));
+		if (newLimit == limit) {
+			return;
+		}
+		log.debug(name + ": " + limit + " -> " + newLimit + " workers (" + reason + ")");
+		limit = newLimit;
+		minLimit = Math.min(minLimit, limit);
+		maxLimit = Math.max(maxLimit, limit);
+		adjustments++;
+	}
+
+	/**
+	 * Logs the chosen limits and records them for the statistics.
+	 */
+	public synchronized void finish() {
+		double seconds = (System.nanoTime() - created) / 1e9;
+		log.info(name + ": " + limit + " workers (initial " + initial + ", range " + minLimit + "-" + maxLimit
+				+ ", ceiling " + getCeiling() + (adaptive ? ", adaptive" : ", fixed") + "), " + totalCount
+				+ " units in " + String.format("%.1f", seconds) + "s");
+
+		Map<String, Object> stat = new LinkedHashMap<>();
+		stat.put("adaptive", adaptive);
+		stat.put("initial", initial);
+		stat.put("final", limit);
+		stat.put("min", minLimit);
+		stat.put("max", maxLimit);
+		stat.put("ceiling", getCeiling());
+		stat.put("adjustments", adjustments);
+		stat.put("units", totalCount);
+		stat.put("amount", totalUnits);
+		synchronized (statistics) {
+			statistics.put(name, stat);
+		}
+	}
+
+	/**
+	 * @return the statistics of the last run of each controller since the last
+	 *         {@link #resetStatistics()}, by name.
+	 */
+	public static Map<String, Map<String, Object>> getStatistics() {
+		synchronized (statistics) {
+			return new TreeMap<>(statistics);
+		}
+	}
+
+	/**
+	 * Forgets the statistics of previous builds.
+	 */
+	public static void resetStatistics() {
+		synchronized (statistics) {
+			statistics.clear();
+		}
+	}
+
+}
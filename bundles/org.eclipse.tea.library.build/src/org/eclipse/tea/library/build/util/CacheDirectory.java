@@ -0,0 +1,252 @@
+/*******************************************************************************
+ *  Copyright (c) 2026 SSI Schaefer IT Solutions GmbH and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  Contributors:
+ *      SSI Schaefer IT Solutions GmbH
+ *******************************************************************************/
+package org.eclipse.tea.library.build.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+/**
+ * A directory holding content addressed cache entries, one file per entry.
+ * <p>
+ * The last modification time of an entry serves as LRU clock, see
+ * {@link #lookup(File)} and {@link #trim(long)}. New entries are created in a
+ * temporary directory and moved into place atomically, so concurrent readers
+ * never see partial entries.
+ */
+public final class CacheDirectory {
+
+	private static final String TMP_PREFIX = "tmp-";
+
+	/** memoized content hashes of input files, see {@link #hashFile(Path)} */
+	private static final Map<Path, FileHash> fileHashes = new ConcurrentHashMap<>();
+
+	private final File directory;
+	private final String suffix;
+
+	/**
+	 * @param directory
+	 *            the directory to store entries in, created if required.
+	 * @param suffix
+	 *            the file name suffix of all entries.
+	 */
+	public CacheDirectory(File directory, String suffix) {
+		this.directory = directory;
+		this.suffix = suffix;
+
+		FileUtils.mkdirs(directory);
+
+		// remove left-overs of interrupted previous runs
+		File[] stale = directory.listFiles((d, n) -> n.startsWith(TMP_PREFIX));
+		if (stale != null) {
+			for (File f : stale) {
+				FileUtils.deleteDirectory(f);
+			}
+		}
+	}
+
+	public File getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * @return the file for the entry with the given key. The entry does not
+	 *         necessarily exist.
+	 */
+	public File getEntry(String key) {
+		return new File(directory, key + suffix);
+	}
+
+	/**
+	 * @return whether the given entry exists. Existing entries are marked as
+	 *         recently used.
+	 */
+	public boolean lookup(File entry) {
+		if (!entry.isFile()) {
+			return false;
+		}
+		entry.setLastModified(System.currentTimeMillis());
+		return true;
+	}
+
+	/**
+	 * @return a new, empty temporary directory inside the cache directory.
+	 *         Callers are responsible to delete it.
+	 */
+	public File createTempDirectory() {
+		File tmp = new File(directory, TMP_PREFIX + UUID.randomUUID());
+		FileUtils.mkdirs(tmp);
+		return tmp;
+	}
+
+	/**
+	 * Moves the given file into place as the given entry.
+	 */
+	public void commit(File file, File entry) throws IOException {
+		try {
+			Files.move(file.toPath(), entry.toPath(), StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(file.toPath(), entry.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (FileAlreadyExistsException e) {
+			// concurrently created with identical content.
+		}
+	}
+
+	/**
+	 * Evicts the least recently used entries until the total size of all
+	 * entries does not exceed the given size.
+	 *
+	 * @return the number of evicted entries
+	 */
+	public int trim(long maxSize) {
+		File[] entries = listEntries();
+		Arrays.sort(entries, Comparator.comparingLong(File::lastModified));
+
+		long size = 0;
+		for (File f : entries) {
+			size += f.length();
+		}
+
+		int evicted = 0;
+		for (int i = 0; i < entries.length && size > maxSize; ++i) {
+			long len = entries[i].length();
+			if (entries[i].delete()) {
+				size -= len;
+				evicted++;
+			}
+		}
+		return evicted;
+	}
+
+	/**
+	 * @return the total size of all entries in bytes
+	 */
+	public long getSize() {
+		long size = 0;
+		for (File f : listEntries()) {
+			size += f.length();
+		}
+		return size;
+	}
+
+	/**
+	 * Removes all entries.
+	 */
+	public void clear() {
+		for (File f : listEntries()) {
+			FileUtils.delete(f);
+		}
+		fileHashes.clear();
+	}
+
+	private File[] listEntries() {
+		File[] entries = directory.listFiles((d, n) -> n.endsWith(suffix) && !n.startsWith(TMP_PREFIX));
+		return entries == null ? new File[0] : entries;
+	}
+
+	/**
+	 * Hashes the relative path and content of the given file, or all files
+	 * below the given directory in a stable order. Missing files are hashed as
+	 * such, .git directories are ignored.
+	 *
+	 * @param hasher
+	 *            the hasher to update
+	 * @param base
+	 *            the directory paths are hashed relative to
+	 * @param input
+	 *            the file or directory to hash, may be <code>null</code>.
+	 */
+	public static void hashInput(Hasher hasher, File base, File input) throws IOException {
+		if (input == null) {
+			hasher.putUnencodedChars("<none>").putByte((byte) 0);
+			return;
+		}
+
+		Path basePath = base.toPath();
+		if (!input.exists()) {
+			hasher.putUnencodedChars("<missing>").putUnencodedChars(relative(basePath, input.toPath()))
+					.putByte((byte) 0);
+			return;
+		}
+
+		List<Path> files;
+		try (Stream<Path> s = Files.walk(input.toPath())) {
+			files = s.filter(Files::isRegularFile).filter(p -> !isGit(basePath, p)).sorted()
+					.collect(Collectors.toCollection(ArrayList::new));
+		}
+
+		for (Path p : files) {
+			hasher.putUnencodedChars(relative(basePath, p)).putByte((byte) 0);
+			hasher.putUnencodedChars(hashFile(p)).putByte((byte) 0);
+		}
+	}
+
+	private static String relative(Path base, Path p) {
+		return base.relativize(p).toString().replace('\\', '/');
+	}
+
+	private static boolean isGit(Path base, Path p) {
+		for (Path segment : base.relativize(p)) {
+			if (segment.toString().equals(".git")) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return the content hash of the given file. Hashes are memoized as long
+	 *         as size and modification time of the file are unchanged.
+	 */
+	private static String hashFile(Path p) throws IOException {
+		long length = Files.size(p);
+		long modified = Files.getLastModifiedTime(p).toMillis();
+
+		FileHash cached = fileHashes.get(p);
+		if (cached != null && cached.length == length && cached.modified == modified) {
+			return cached.hash;
+		}
+
+		String hash = com.google.common.io.Files.asByteSource(p.toFile()).hash(Hashing.sha256()).toString();
+		fileHashes.put(p, new FileHash(length, modified, hash));
+		return hash;
+	}
+
+	private static final class FileHash {
+
+		final long length;
+		final long modified;
+		final String hash;
+
+		FileHash(long length, long modified, String hash) {
+			this.length = length;
+			this.modified = modified;
+			this.hash = hash;
+		}
+	}
+
+}
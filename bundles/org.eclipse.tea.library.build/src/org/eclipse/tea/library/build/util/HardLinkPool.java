@@ -0,0 +1,145 @@
+/*******************************************************************************
+ *  Copyright (c) 2026 SSI Schaefer IT Solutions GmbH and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  Contributors:
+ *      SSI Schaefer IT Solutions GmbH
+ *******************************************************************************/
+package org.eclipse.tea.library.build.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.google.common.hash.Hashing;
+
+/**
+ * A directory of content addressed files that identical files in other
+ * directory trees are hard-linked to, so each content is stored only once.
+ * <p>
+ * The pool must be located on the same file system as the trees. Linked files
+ * share their content, so they must never be modified in place. Entries that
+ * are no longer linked anywhere else are removed by {@link #trim()}. Several
+ * instances may use the same directory concurrently.
+ */
+public final class HardLinkPool {
+
+	/** smaller files are not worth the hashing and linking */
+	private static final long MIN_SIZE = 4096;
+
+	private static final String TMP_SUFFIX = ".pool-tmp";
+
+	private final Path directory;
+
+	/**
+	 * @param directory
+	 *            the pool directory, created if required.
+	 */
+	public HardLinkPool(File directory) {
+		FileUtils.mkdirs(directory);
+		this.directory = directory.toPath();
+	}
+
+	/**
+	 * Replaces all files below the given directory with hard links to pool
+	 * entries of the same content. Files without entry become a new entry.
+	 *
+	 * @return the number of bytes that are no longer stored twice
+	 * @throws IOException
+	 *             if hard links are not supported
+	 */
+	public long link(File tree) throws IOException {
+		if (!tree.isDirectory()) {
+			return 0;
+		}
+
+		List<Path> files;
+		try (Stream<Path> s = Files.walk(tree.toPath())) {
+			files = s.filter(Files::isRegularFile).collect(Collectors.toList());
+		}
+
+		long saved = 0;
+		for (Path file : files) {
+			long size = Files.size(file);
+			if (size >= MIN_SIZE && link(file)) {
+				saved += size;
+			}
+		}
+		return saved;
+	}
+
+	/**
+	 * @return whether the file has been replaced with a link to an existing
+	 *         entry
+	 */
+	private boolean link(Path file) throws IOException {
+		String hash = com.google.common.io.Files.asByteSource(file.toFile()).hash(Hashing.sha256()).toString();
+		Path entry = directory.resolve(hash.substring(0, 2)).resolve(hash);
+
+		while (true) {
+			if (!Files.exists(entry)) {
+				Files.createDirectories(entry.getParent());
+				try {
+					Files.createLink(entry, file);
+					return false;
+				} catch (FileAlreadyExistsException e) {
+					// concurrently added with identical content.
+				}
+			}
+
+			// replace atomically, readers never see a missing file
+			Path tmp = file.resolveSibling(file.getFileName() + TMP_SUFFIX);
+			try {
+				if (Files.isSameFile(entry, file)) {
+					return false;
+				}
+				Files.deleteIfExists(tmp);
+				Files.createLink(tmp, entry);
+			} catch (NoSuchFileException e) {
+				// concurrently removed by trim(), add it again.
+				continue;
+			}
+			Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			return true;
+		}
+	}
+
+	/**
+	 * Removes all entries which are not linked from anywhere else.
+	 *
+	 * @return the number of removed entries
+	 */
+	public int trim() throws IOException {
+		List<Path> entries;
+		try (Stream<Path> s = Files.walk(directory)) {
+			entries = s.filter(Files::isRegularFile).collect(Collectors.toList());
+		}
+
+		int removed = 0;
+		for (Path entry : entries) {
+			Object links;
+			try {
+				links = Files.getAttribute(entry, "unix:nlink");
+			} catch (UnsupportedOperationException | IllegalArgumentException e) {
+				// the link count is not available, keep all entries
+				return removed;
+			}
+			if (links instanceof Integer && (Integer) links <= 1) {
+				Files.delete(entry);
+				removed++;
+			}
+		}
+		return removed;
+	}
+
+}
@@ -0,0 +1,169 @@
+/*******************************************************************************
+ *  Copyright (c) 2026 SSI Schaefer IT Solutions GmbH and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  Contributors:
+ *      SSI Schaefer IT Solutions GmbH
+ *******************************************************************************/
+package org.eclipse.tea.library.build.util;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.tea.core.services.TaskProgressTracker;
+import org.eclipse.tea.core.services.TaskingLog;
+
+/**
+ * Runs external processes. Input is written and output is read asynchronously,
+ * so a process never blocks on a full pipe. Output is forwarded to the log,
+ * standard error as warnings.
+ * <p>
+ * While waiting, the progress tracker is checked for cancellation. Cancelled
+ * or timed out processes are killed.
+ */
+public final class ProcessRunner {
+
+	/** interval to check for cancellation while waiting for the process */
+	private static final long POLL_MILLIS = 200;
+
+	private final TaskingLog log;
+	private final String prefix;
+	private final TaskProgressTracker tracker;
+	private final long timeout;
+
+	/**
+	 * @param log
+	 *            receives the output of the process; may be <code>null</code>
+	 * @param prefix
+	 *            prepended to each line of output
+	 * @param tracker
+	 *            used to check for cancellation; may be <code>null</code>
+	 * @param timeout
+	 *            maximum runtime in seconds, 0 for no timeout
+	 */
+	public ProcessRunner(TaskingLog log, String prefix, TaskProgressTracker tracker, long timeout) {
+		this.log = log;
+		this.prefix = prefix;
+		this.tracker = tracker;
+		this.timeout = timeout;
+	}
+
+	/**
+	 * Runs the given command.
+	 *
+	 * @param directory
+	 *            the working directory
+	 * @param input
+	 *            lines written to the standard input of the process
+	 * @param cmdArray
+	 *            the command and its arguments
+	 * @return the exit code of the command
+	 * @throws OperationCanceledException
+	 *             if the task has been cancelled
+	 */
+	public int run(File directory, List<String> input, String... cmdArray) {
+		Process proc;
+		try {
+			proc = new ProcessBuilder(cmdArray).directory(directory).start();
+		} catch (IOException ex) {
+			throw new IllegalStateException("command failed, dir=" + directory + ", cmd=" + Arrays.toString(cmdArray),
+					ex);
+		}
+		Thread in = null;
+		try {
+			Thread out = start("TEA Process Output", () -> drain(proc.getInputStream(), false));
+			Thread err = start("TEA Process Error", () -> drain(proc.getErrorStream(), true));
+			in = start("TEA Process Input", () -> feed(proc, input));
+
+			long begin = System.nanoTime();
+			while (!proc.waitFor(POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+				if (tracker != null && tracker.isCanceled()) {
+					throw new OperationCanceledException();
+				}
+				if (timeout > 0 && System.nanoTime() - begin > TimeUnit.SECONDS.toNanos(timeout)) {
+					throw new IllegalStateException("command timed out after " + timeout + "s, dir=" + directory
+							+ ", cmd=" + Arrays.toString(cmdArray));
+				}
+			}
+			// make sure all output is logged and no thread is left behind
+			in.join();
+			out.join();
+			err.join();
+			return proc.exitValue();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OperationCanceledException();
+		} finally {
+			destroy(proc, in);
+		}
+	}
+
+	private static void destroy(Process proc, Thread in) {
+		// wait even if interrupted, the interrupt is restored afterwards
+		boolean interrupted = Thread.interrupted();
+		try {
+			// wait for termination, so no files are left behind
+			proc.destroyForcibly().waitFor(POLL_MILLIS * 10, TimeUnit.MILLISECONDS);
+			// the input pipe is broken now, the feeder terminates
+			if (in != null) {
+				in.join(POLL_MILLIS * 10);
+			}
+		} catch (InterruptedException e) {
+			interrupted = true;
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private static Thread start(String name, Runnable runnable) {
+		Thread t = new Thread(runnable, name);
+		t.setDaemon(true);
+		t.start();
+		return t;
+	}
+
+	private static void feed(Process proc, List<String> input) {
+		try (Writer w = new BufferedWriter(new OutputStreamWriter(proc.getOutputStream(), Charset.defaultCharset()))) {
+			for (String line : input) {
+				w.write(line);
+				w.write('\n');
+			}
+		} catch (IOException e) {
+			// the process terminated early, its exit code tells why.
+		}
+	}
+
+	private void drain(InputStream stream, boolean error) {
+		try (BufferedReader r = new BufferedReader(new InputStreamReader(stream, Charset.defaultCharset()))) {
+			String line;
+			while ((line = r.readLine()) != null) {
+				if (log == null) {
+					(error ? System.err : System.out).println(prefix + line);
+				} else if (error) {
+					log.warn(prefix + line);
+				} else {
+					log.info(prefix + line);
+				}
+			}
+		} catch (IOException e) {
+			// process destroyed
+		}
+	}
+
+}
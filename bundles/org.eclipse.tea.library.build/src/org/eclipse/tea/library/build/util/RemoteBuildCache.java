@@ -0,0 +1,230 @@
+/*******************************************************************************
+ *  Copyright (c) 2026 SSI Schaefer IT Solutions GmbH and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  Contributors:
+ *      SSI Schaefer IT Solutions GmbH
+ *******************************************************************************/
+package org.eclipse.tea.library.build.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.tea.core.services.TaskingLog;
+import org.eclipse.tea.library.build.config.TeaBuildConfig;
+import org.eclipse.tea.library.build.internal.Activator;
+
+import com.google.common.hash.Hashing;
+
+/**
+ * Client for a shared, content addressed build cache reachable via HTTP.
+ * <p>
+ * The protocol is deliberately simple: an entry is addressed as
+ * <code>&lt;url&gt;/&lt;namespace&gt;/&lt;key&gt;</code>. A <code>GET</code>
+ * returns the entry (200) or reports a miss (404), a <code>PUT</code> uploads
+ * an entry. Any HTTP server or artifact repository supporting this is
+ * suitable.
+ * <p>
+ * Uploads carry the SHA-256 of the entry in the <code>X-Checksum-Sha256</code>
+ * header. Downloads are only accepted if their size matches the
+ * <code>Content-Length</code> and their digest matches the
+ * <code>X-Checksum-Sha256</code> header sent by the server; entries that
+ * cannot be verified this way are treated as a miss.
+ * <p>
+ * The remote cache is strictly optional: any failure is logged and treated as
+ * a miss, it never fails the build. After a connection failure the cache is
+ * disabled for the rest of the run to avoid repeated timeouts.
+ */
+public final class RemoteBuildCache {
+
+	private static final String CHECKSUM_HEADER = "X-Checksum-Sha256";
+
+	private final String baseUrl;
+	private final String authorization;
+	private final boolean readOnly;
+	private final int timeout;
+
+	private volatile boolean disabled = false;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong uploads = new AtomicLong();
+	private final AtomicLong errors = new AtomicLong();
+
+	private RemoteBuildCache(String baseUrl, String credentials, boolean readOnly, int timeout) {
+		this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+		this.readOnly = readOnly;
+		this.timeout = timeout;
+
+		if (credentials == null || credentials.isEmpty()) {
+			authorization = null;
+		} else if (credentials.contains(":")) {
+			authorization = "Basic "
+					+ Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+		} else {
+			authorization = "Bearer " + credentials;
+		}
+	}
+
+	/**
+	 * @param config
+	 *            the configuration determining location and access mode
+	 * @return the remote cache configured in the given {@link TeaBuildConfig},
+	 *         or <code>null</code> if no remote cache is configured.
+	 */
+	public static RemoteBuildCache open(TeaBuildConfig config) {
+		if (config.remoteCacheUrl == null || config.remoteCacheUrl.trim().isEmpty()) {
+			return null;
+		}
+		return new RemoteBuildCache(config.remoteCacheUrl.trim(), config.remoteCacheCredentials,
+				config.remoteCacheReadOnly, (int) Math.max(1, config.remoteCacheTimeout) * 1000);
+	}
+
+	/**
+	 * @return whether entries are only downloaded, never uploaded.
+	 */
+	public boolean isReadOnly() {
+		return readOnly;
+	}
+
+	/**
+	 * Downloads the given entry.
+	 *
+	 * @param target
+	 *            the file to store the entry to. Written atomically, it is not
+	 *            touched if the entry cannot be downloaded or verified.
+	 * @return whether the entry has been downloaded.
+	 */
+	public boolean load(String namespace, String key, File target) {
+		if (disabled) {
+			return false;
+		}
+
+		File tmp = new File(target.getParentFile(), target.getName() + "." + UUID.randomUUID() + ".tmp");
+		try {
+			HttpURLConnection connection = connect(namespace, key, "GET");
+			try {
+				int code = connection.getResponseCode();
+				if (code == HttpURLConnection.HTTP_NOT_FOUND) {
+					misses.incrementAndGet();
+					return false;
+				}
+				if (code != HttpURLConnection.HTTP_OK) {
+					throw new IOException("unexpected response " + code);
+				}
+				long length = connection.getContentLengthLong();
+				String checksum = connection.getHeaderField(CHECKSUM_HEADER);
+				if (length < 0 || checksum == null) {
+					throw new IOException("server did not send size and " + CHECKSUM_HEADER);
+				}
+				try (InputStream in = connection.getInputStream()) {
+					Files.copy(in, tmp.toPath(), StandardCopyOption.REPLACE_EXISTING);
+				}
+				if (tmp.length() != length) {
+					throw new IOException("size mismatch, expected " + length + ", got " + tmp.length());
+				}
+				String actual = sha256(tmp);
+				if (!actual.equalsIgnoreCase(checksum.trim())) {
+					throw new IOException("checksum mismatch, expected " + checksum + ", got " + actual);
+				}
+			} finally {
+				connection.disconnect();
+			}
+			Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+			hits.incrementAndGet();
+			return true;
+		} catch (Exception e) {
+			failed("download of " + namespace + "/" + key, e);
+			return false;
+		} finally {
+			tmp.delete();
+		}
+	}
+
+	/**
+	 * Uploads the given entry, unless the cache is read-only.
+	 */
+	public void store(String namespace, String key, File source) {
+		if (disabled || readOnly) {
+			return;
+		}
+
+		try {
+			HttpURLConnection connection = connect(namespace, key, "PUT");
+			try {
+				connection.setDoOutput(true);
+				connection.setFixedLengthStreamingMode(source.length());
+				connection.setRequestProperty("Content-Type", "application/octet-stream");
+				connection.setRequestProperty(CHECKSUM_HEADER, sha256(source));
+				try (OutputStream out = connection.getOutputStream()) {
+					Files.copy(source.toPath(), out);
+				}
+				int code = connection.getResponseCode();
+				if (code / 100 != 2) {
+					throw new IOException("unexpected response " + code);
+				}
+			} finally {
+				connection.disconnect();
+			}
+			uploads.incrementAndGet();
+		} catch (Exception e) {
+			failed("upload of " + namespace + "/" + key, e);
+		}
+	}
+
+	private HttpURLConnection connect(String namespace, String key, String method) throws Exception {
+		HttpURLConnection connection = (HttpURLConnection) new URI(baseUrl + "/" + namespace + "/" + key).toURL()
+				.openConnection();
+		connection.setRequestMethod(method);
+		connection.setConnectTimeout(timeout);
+		connection.setReadTimeout(timeout);
+		connection.setUseCaches(false);
+		if (authorization != null) {
+			connection.setRequestProperty("Authorization", authorization);
+		}
+		return connection;
+	}
+
+	private static String sha256(File file) throws IOException {
+		return com.google.common.io.Files.asByteSource(file).hash(Hashing.sha256()).toString();
+	}
+
+	private void failed(String what, Exception e) {
+		errors.incrementAndGet();
+		if (e instanceof ConnectException || e instanceof SocketTimeoutException
+				|| e instanceof UnknownHostException) {
+			disabled = true;
+			Activator.log(IStatus.WARNING, "remote build cache unreachable, disabled for this run: " + baseUrl, e);
+		} else {
+			Activator.log(IStatus.WARNING, "remote build cache: " + what + " failed", e);
+		}
+	}
+
+	/**
+	 * Logs and resets statistics.
+	 */
+	public void finish(TaskingLog log, String name) {
+		log.info(name + " remote cache: hit=" + hits.getAndSet(0) + ", miss=" + misses.getAndSet(0) + ", uploaded="
+				+ uploads.getAndSet(0) + ", errors=" + errors.getAndSet(0) + (readOnly ? " (read-only)" : "")
+				+ (disabled ? " (disabled after failure)" : "") + " (" + baseUrl + ")");
+	}
+
+}
@@ -37,19 +37,41 @@ public class TeaBuildUtil {
 	private static final MultiStatus DEF_STATUS = new MultiStatus(Activator.PLUGIN_ID, IStatus.ERROR, "", null);
 
 	public static void tryCompile(Collection<IProject> projects) {
+		tryCompile(projects, IncrementalProjectBuilder.FULL_BUILD);
+	}
+
+	/**
+	 * Compiles all given projects using a single workspace build.
+	 *
+	 * @param projects
+	 *            the projects to compile
+	 * @param kind
+	 *            the kind of build, see {@link IncrementalProjectBuilder}
+	 */
+	public static void tryCompile(Collection<IProject> projects, int kind) {
 		// Step 1: find all active configurations for all projects
 		IBuildConfiguration[] toBuild = projects.stream().map(TeaBuildUtil::getActiveConfigSafe)
 				.toArray(IBuildConfiguration[]::new);
 
 		// Step 2: tell the workspace to build
 		try {
-			ResourcesPlugin.getWorkspace().build(toBuild, IncrementalProjectBuilder.FULL_BUILD, false, null);
+			ResourcesPlugin.getWorkspace().build(toBuild, kind, false, null);
 		} catch (CoreException e) {
 			// internal error
 			throw new RuntimeException(e);
 		}
 	}
 
+	/**
+	 * @return the maximum number of builds the workspace runs concurrently
+	 *         when building several projects at once. This is a workspace
+	 *         preference configured by the user ("Max. simultaneously built
+	 *         projects"), it is never changed by builds.
+	 */
+	public static int getMaxConcurrentBuilds() {
+		return ResourcesPlugin.getWorkspace().getDescription().getMaxConcurrentBuilds();
+	}
+
 	public static IBuildConfiguration getActiveConfigSafe(IProject project) {
 		try {
 			return project.getActiveBuildConfig();
@@ -94,7 +116,7 @@ public class TeaBuildUtil {
 					log.info(logTxt);
 
 					// first try: the conventional way
-					project.build(IncrementalProjectBuilder.FULL_BUILD, null);
+					project.build(element.getBuildKind(), null);
 				} else {
 					if (isBinary) {
 						break; // never recompile